@@ -0,0 +1,3 @@
+-- Owner of the request, so lifecycle events can be streamed to the user who made it
+ALTER TABLE request_outbox
+ADD COLUMN IF NOT EXISTS user_id BIGINT;
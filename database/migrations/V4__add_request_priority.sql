@@ -0,0 +1,5 @@
+-- Add clinical priority used to order the pending request queue
+ALTER TABLE requests
+ADD COLUMN IF NOT EXISTS priority VARCHAR(20) DEFAULT 'MEDIUM';
+
+UPDATE requests SET priority = 'MEDIUM' WHERE priority IS NULL;
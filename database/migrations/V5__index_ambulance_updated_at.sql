@@ -0,0 +1,3 @@
+-- Supports the delta refresh of the ambulance cache, which reads rows changed since a watermark
+CREATE INDEX IF NOT EXISTS idx_ambulances_updated_at ON ambulances (updated_at);
+CREATE INDEX IF NOT EXISTS idx_ambulances_deleted_at ON ambulances (deleted_at);
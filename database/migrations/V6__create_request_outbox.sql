@@ -0,0 +1,18 @@
+-- Transactional outbox for request lifecycle events, written in the same transaction as each status change
+CREATE TABLE IF NOT EXISTS request_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    request_id BIGINT NOT NULL,
+    ambulance_id BIGINT,
+    event_type VARCHAR(50) NOT NULL,
+    old_status VARCHAR(50),
+    new_status VARCHAR(50) NOT NULL,
+    notes TEXT,
+    changed_by VARCHAR(255),
+    created_at TIMESTAMP NOT NULL,
+    published_at TIMESTAMP,
+    sequence_number BIGINT
+);
+
+-- The relay reads unpublished rows in id order; the feed reads published rows by sequence number
+CREATE INDEX IF NOT EXISTS idx_request_outbox_unpublished ON request_outbox (id) WHERE published_at IS NULL;
+CREATE UNIQUE INDEX IF NOT EXISTS idx_request_outbox_sequence ON request_outbox (sequence_number);
@@ -0,0 +1,28 @@
+-- Pooled sequence ids for the entities Hibernate inserts, so inserts can be sent as JDBC batches.
+-- Hibernate reserves 50 ids per call, so each sequence steps by 50 and starts past the current ids.
+-- request_status_history and request_outbox keep their identity columns; they are written by JDBC batches.
+CREATE SEQUENCE IF NOT EXISTS ambulances_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS patients_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS service_history_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+
+SELECT setval('ambulances_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM ambulances));
+SELECT setval('patients_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM patients));
+SELECT setval('requests_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM requests));
+SELECT setval('service_history_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM service_history));
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM users));
+
+-- Rows inserted outside Hibernate take a whole block too, so they never collide with ids it hands out.
+-- Schemas created by Hibernate use identity columns, which refuse a default until the identity is dropped;
+-- BIGSERIAL columns from schema.sql have none, so the drop is a no-op there.
+ALTER TABLE ambulances ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE ambulances ALTER COLUMN id SET DEFAULT nextval('ambulances_seq');
+ALTER TABLE patients ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE patients ALTER COLUMN id SET DEFAULT nextval('patients_seq');
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE requests ALTER COLUMN id SET DEFAULT nextval('requests_seq');
+ALTER TABLE service_history ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE service_history ALTER COLUMN id SET DEFAULT nextval('service_history_seq');
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
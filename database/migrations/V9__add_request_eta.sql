@@ -0,0 +1,5 @@
+-- Where the unit set out from and when it was expected, recorded at dispatch for ETA learning
+ALTER TABLE requests
+ADD COLUMN IF NOT EXISTS dispatch_latitude DOUBLE PRECISION,
+ADD COLUMN IF NOT EXISTS dispatch_longitude DOUBLE PRECISION,
+ADD COLUMN IF NOT EXISTS estimated_arrival TIMESTAMP;
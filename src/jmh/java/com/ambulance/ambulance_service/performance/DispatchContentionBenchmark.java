@@ -0,0 +1,100 @@
+package com.ambulance.ambulance_service.performance;
+
+import com.ambulance.ambulance_service.entity.Ambulance;
+import com.ambulance.ambulance_service.entity.AvailabilityStatus;
+import com.ambulance.ambulance_service.service.AmbulanceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The dispatch path under contention: one group of threads only claiming and releasing units,
+ * and one where claims compete with status changes, plate lookups, fleet listings and full
+ * reloads of the cache. Small fleets have far fewer units than claimants, so they measure the
+ * queues when nearly every poll races.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchContentionBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int fleetSize;
+
+    private FleetFixture fleet;
+    private AmbulanceService ambulanceService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fleet = new FleetFixture(fleetSize);
+        ambulanceService = fleet.newService(true);
+    }
+
+    @Benchmark
+    @Group("claims")
+    @GroupThreads(8)
+    public Optional<Ambulance> claimOnly() {
+        return claimAndRelease();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public Optional<Ambulance> claim() {
+        return claimAndRelease();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public Long statusChange() {
+        Long id = fleet.randomId();
+        ambulanceService.updateAmbulanceStatus(id, AvailabilityStatus.MAINTENANCE);
+        ambulanceService.updateAmbulanceStatus(id, AvailabilityStatus.AVAILABLE);
+        return id;
+    }
+
+    @Benchmark
+    @Group("mixed")
+    public Optional<Ambulance> plateLookup() {
+        return ambulanceService.findByLicensePlateIncludingDeleted(FleetFixture.plate(fleet.randomId()));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    public List<Ambulance> listing() {
+        return ambulanceService.getAllAmbulances();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    public AmbulanceService reload() {
+        ambulanceService.init();
+        return ambulanceService;
+    }
+
+    private Optional<Ambulance> claimAndRelease() {
+        Optional<Ambulance> claimed = ambulanceService.getNextAvailableAmbulance();
+        claimed.ifPresent(ambulance ->
+                ambulanceService.updateAmbulanceStatus(ambulance.getId(), AvailabilityStatus.AVAILABLE));
+        return claimed;
+    }
+}
@@ -0,0 +1,100 @@
+package com.ambulance.ambulance_service.performance;
+
+import com.ambulance.ambulance_service.entity.Ambulance;
+import com.ambulance.ambulance_service.entity.AvailabilityStatus;
+import com.ambulance.ambulance_service.service.AmbulanceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded cost of the fleet cache operations as the fleet grows. Status changes go
+ * through {@code updateAmbulanceStatus} and loads through {@code init}, the public entry
+ * points of the cache update and the full load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FleetCacheBenchmark {
+
+    @Param({"10", "1000", "10000", "100000"})
+    private int fleetSize;
+
+    private FleetFixture fleet;
+    private AmbulanceService ambulanceService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fleet = new FleetFixture(fleetSize);
+        ambulanceService = fleet.newService(true);
+    }
+
+    /**
+     * A service with an empty cache for each call, so every load starts cold
+     */
+    @State(Scope.Thread)
+    public static class ColdService {
+        private AmbulanceService ambulanceService;
+
+        @Setup(Level.Invocation)
+        public void setUp(FleetCacheBenchmark benchmark) {
+            ambulanceService = benchmark.fleet.newService(false);
+        }
+    }
+
+    @Benchmark
+    public Optional<Ambulance> claimAndRelease() {
+        Optional<Ambulance> claimed = ambulanceService.getNextAvailableAmbulance();
+        claimed.ifPresent(ambulance ->
+                ambulanceService.updateAmbulanceStatus(ambulance.getId(), AvailabilityStatus.AVAILABLE));
+        return claimed;
+    }
+
+    @Benchmark
+    public Long statusRoundTrip() {
+        // Out of the queue and back in, so the fleet stays available between calls
+        Long id = fleet.randomId();
+        ambulanceService.updateAmbulanceStatus(id, AvailabilityStatus.MAINTENANCE);
+        ambulanceService.updateAmbulanceStatus(id, AvailabilityStatus.AVAILABLE);
+        return id;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Optional<Ambulance> findByLicensePlate() {
+        return ambulanceService.findByLicensePlateIncludingDeleted(FleetFixture.plate(fleet.randomId()));
+    }
+
+    @Benchmark
+    public List<Ambulance> getAllAmbulances() {
+        return ambulanceService.getAllAmbulances();
+    }
+
+    @Benchmark
+    public AmbulanceService loadCold(ColdService cold) {
+        cold.ambulanceService.init();
+        return cold.ambulanceService;
+    }
+
+    @Benchmark
+    public AmbulanceService reloadUnchanged() {
+        ambulanceService.init();
+        return ambulanceService;
+    }
+}
@@ -0,0 +1,141 @@
+package com.ambulance.ambulance_service.performance;
+
+import com.ambulance.ambulance_service.entity.Ambulance;
+import com.ambulance.ambulance_service.entity.AvailabilityStatus;
+import com.ambulance.ambulance_service.repository.AmbulanceRepository;
+import com.ambulance.ambulance_service.service.AmbulanceService;
+import com.ambulance.ambulance_service.service.DispatchMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A fleet of ambulances behind a mocked repository, for benchmarking the service without a
+ * database. The mock keeps rows in memory and honours the versioned dispatch update. It is a
+ * plain proxy rather than a Mockito mock, whose bookkeeping on every call would outweigh the
+ * cache operations being measured.
+ */
+final class FleetFixture {
+
+    private static final double MIN_LAT = 6.35, MAX_LAT = 6.75;
+    private static final double MIN_LON = 3.10, MAX_LON = 3.70;
+
+    private final int size;
+    private final Map<Long, Ambulance> table = new ConcurrentHashMap<>();
+    private final AmbulanceRepository repository = (AmbulanceRepository) Proxy.newProxyInstance(
+            AmbulanceRepository.class.getClassLoader(), new Class<?>[] {AmbulanceRepository.class},
+            (proxy, method, args) -> invoke(method, args));
+
+    /**
+     * Creates a fleet of available units, half of them with a position
+     */
+    FleetFixture(int size) {
+        this.size = size;
+        Random random = new Random(42);
+        for (long id = 1; id <= size; id++) {
+            Ambulance ambulance = new Ambulance();
+            ambulance.setId(id);
+            ambulance.setVersion(0L);
+            ambulance.setLicensePlate(plate(id));
+            ambulance.setCurrentLocation("Station " + id);
+            ambulance.setAvailability(AvailabilityStatus.AVAILABLE);
+            if (id % 2 == 0) {
+                ambulance.setLatitude(MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT));
+                ambulance.setLongitude(MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON));
+            }
+            table.put(id, ambulance);
+        }
+    }
+
+    /**
+     * Creates a service over this fleet
+     * @param load whether to fill the cache, as startup would
+     */
+    AmbulanceService newService(boolean load) {
+        AmbulanceService service = new AmbulanceService(repository, event -> { },
+                new DispatchMetrics(new SimpleMeterRegistry()));
+        if (load) {
+            service.init();
+        }
+        return service;
+    }
+
+    Long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, size + 1);
+    }
+
+    static String plate(long id) {
+        return "LAG-" + id;
+    }
+
+    // Answers the calls the service makes on the dispatch and load paths; anything else is a benchmark bug
+    private Object invoke(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "findByDeletedFalse":
+                return new ArrayList<>(table.values());
+            case "findDeleted":
+                return Collections.emptyList();
+            case "findByLicensePlate":
+                return Optional.empty();
+            case "findById": {
+                Ambulance row = table.get((Long) args[0]);
+                return Optional.ofNullable(row != null ? copy(row) : null);
+            }
+            case "save":
+                return save((Ambulance) args[0]);
+            case "updateAmbulanceStatusWithLock":
+                return updateWithLock((Long) args[0], (AvailabilityStatus) args[1], (Long) args[2]);
+            case "toString":
+                return "FleetFixture repository";
+            case "hashCode":
+                return System.identityHashCode(this);
+            default:
+                throw new UnsupportedOperationException("Not stubbed for benchmarks: " + method.getName());
+        }
+    }
+
+    // Last writer wins, so status changes racing on one unit never fail the benchmark
+    private Ambulance save(Ambulance ambulance) {
+        Ambulance saved = table.compute(ambulance.getId(), (id, row) -> {
+            Ambulance next = copy(ambulance);
+            next.setVersion(row != null ? row.getVersion() + 1 : 0L);
+            return next;
+        });
+        return copy(saved);
+    }
+
+    private int updateWithLock(Long id, AvailabilityStatus status, Long version) {
+        int[] updated = new int[1];
+        table.computeIfPresent(id, (key, row) -> {
+            if (!row.getVersion().equals(version)) {
+                return row;
+            }
+            Ambulance next = copy(row);
+            next.setAvailability(status);
+            next.setVersion(version + 1);
+            updated[0] = 1;
+            return next;
+        });
+        return updated[0];
+    }
+
+    private static Ambulance copy(Ambulance row) {
+        Ambulance ambulance = new Ambulance();
+        ambulance.setId(row.getId());
+        ambulance.setVersion(row.getVersion());
+        ambulance.setLicensePlate(row.getLicensePlate());
+        ambulance.setCurrentLocation(row.getCurrentLocation());
+        ambulance.setAvailability(row.getAvailability());
+        ambulance.setLatitude(row.getLatitude());
+        ambulance.setLongitude(row.getLongitude());
+        return ambulance;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ambulance.ambulance_service.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+public class ClockConfig {
+
+    /**
+     * Time source of the dispatch path: request, dispatch, arrival and completion times are read
+     * from it, so a simulation can run the services on its own time by providing a primary clock.
+     * Audit columns and the cache refresh watermark stay on wall-clock time.
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
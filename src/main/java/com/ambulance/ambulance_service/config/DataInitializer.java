@@ -8,6 +8,7 @@ import com.ambulance.ambulance_service.entity.AvailabilityStatus;
 import com.ambulance.ambulance_service.repository.AmbulanceRepository;
 import com.ambulance.ambulance_service.repository.PatientRepository;
 import com.ambulance.ambulance_service.repository.UserRepository;
+import com.ambulance.ambulance_service.service.DashboardCounters;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
@@ -28,16 +29,19 @@ public class DataInitializer implements CommandLineRunner {
     private final AmbulanceRepository ambulanceRepository;
     private final PatientRepository patientRepository;
     private final PasswordEncoder passwordEncoder;
+    private final DashboardCounters dashboardCounters;
 
     @Autowired
     public DataInitializer(UserRepository userRepository,
                           AmbulanceRepository ambulanceRepository,
                           PatientRepository patientRepository,
-                          PasswordEncoder passwordEncoder) {
+                          PasswordEncoder passwordEncoder,
+                          DashboardCounters dashboardCounters) {
         this.userRepository = userRepository;
         this.ambulanceRepository = ambulanceRepository;
         this.patientRepository = patientRepository;
         this.passwordEncoder = passwordEncoder;
+        this.dashboardCounters = dashboardCounters;
     }
 
     @Override
@@ -49,6 +53,8 @@ public class DataInitializer implements CommandLineRunner {
             createRegularUser();
             createAmbulances();
             createPatients();
+            // The seed rows bypass the services, so pick them up in the dashboard counts
+            dashboardCounters.reconcile();
         }
     }
 
@@ -10,14 +10,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Authenticates calls carrying a bearer token. The user is loaded from the users table and kept
+ * for a few seconds, so a burst of calls costs one lookup while a disabled account or a change
+ * of role still takes effect within {@link #USER_CACHE_TTL_MILLIS}.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    static final long USER_CACHE_TTL_MILLIS = 30_000L;
 
     @Autowired
     private JwtService jwtService;
@@ -25,30 +35,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    // Keyed by the subject of a verified token, so it holds at most one entry per real user
+    private final Map<String, CachedUser> users = new ConcurrentHashMap<>();
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
+        Optional<JwtService.VerifiedToken> token = Optional.empty();
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            try {
-                username = jwtService.extractUsername(token);
-            } catch (Exception e) {
-                // Invalid token
-            }
+            token = jwtService.verify(authHeader.substring(7));
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-            if (jwtService.validateToken(token, userDetails.getUsername())) {
+        if (token.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null) {
+            Optional<UserDetails> userDetails = userDetailsOf(token.get().getUsername());
+            if (userDetails.isPresent()) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
+                                userDetails.get(), null, userDetails.get().getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
@@ -56,4 +62,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    /**
+     * @return the enabled user, or empty for a deleted or disabled account
+     */
+    private Optional<UserDetails> userDetailsOf(String username) {
+        long now = System.currentTimeMillis();
+        CachedUser cached = users.get(username);
+        if (cached != null && now - cached.loadedAt < USER_CACHE_TTL_MILLIS) {
+            return cached.userDetails;
+        }
+
+        Optional<UserDetails> userDetails;
+        try {
+            userDetails = Optional.of(userDetailsService.loadUserByUsername(username));
+        } catch (UsernameNotFoundException e) {
+            // Also thrown for disabled accounts
+            userDetails = Optional.empty();
+        }
+        userDetails = userDetails.filter(UserDetails::isEnabled).filter(UserDetails::isAccountNonLocked);
+        users.put(username, new CachedUser(userDetails, now));
+        return userDetails;
+    }
+
+    private static final class CachedUser {
+        private final Optional<UserDetails> userDetails;
+        private final long loadedAt;
+
+        CachedUser(Optional<UserDetails> userDetails, long loadedAt) {
+            this.userDetails = userDetails;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
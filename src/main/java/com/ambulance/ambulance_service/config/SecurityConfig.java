@@ -150,6 +150,17 @@ public class SecurityConfig {
                                 "/api/health"
                         ).permitAll()
 
+                        // Request lifecycle event feed (matched before the public {id} patterns)
+                        .requestMatchers(
+                                "/api/requests/events",
+                                "/api/requests/events/**"
+                        ).hasAnyRole("DISPATCHER", "ADMIN")
+
+                        // Bulk intake for mass-casualty incidents (also matched before the {id} patterns)
+                        .requestMatchers(
+                                HttpMethod.POST, "/api/requests/batch"
+                        ).hasAnyRole("DISPATCHER", "ADMIN")
+
                         // Public request endpoints for emergency requests
                         .requestMatchers(
                                 "/api/requests"
@@ -159,7 +170,8 @@ public class SecurityConfig {
                         .requestMatchers(
                                 "/api/requests/{id}",
                                 "/api/requests/{id}/status",
-                                "/api/requests/{id}/history"
+                                "/api/requests/{id}/history",
+                                "/api/requests/{id}/stream"
                         ).permitAll()
 
                         // User-specific endpoints
@@ -173,6 +185,9 @@ public class SecurityConfig {
                                 "/api/dispatch/**",
                                 "/api/ambulances/available",
                                 "/api/ambulances/{id}/status",
+                                "/api/ambulances/{id}/position",
+                                "/api/ambulances/{id}/track",
+                                "/api/ambulances/telemetry/**",
                                 "/api/requests/{id}/arrived",
                                 "/api/requests/{id}/status"
                         ).hasAnyRole("DISPATCHER", "ADMIN")
@@ -1,6 +1,7 @@
 package com.ambulance.ambulance_service.controller;
 
 import com.ambulance.ambulance_service.dto.AdminDashboardStats;
+import com.ambulance.ambulance_service.dto.ResponseTimeSummary;
 import com.ambulance.ambulance_service.entity.*;
 import com.ambulance.ambulance_service.exception.EntityNotFoundException;
 import com.ambulance.ambulance_service.repository.PatientRepository;
@@ -9,9 +10,11 @@ import com.ambulance.ambulance_service.repository.UserRepository;
 import com.ambulance.ambulance_service.service.AmbulanceService;
 import com.ambulance.ambulance_service.service.PatientService;
 import com.ambulance.ambulance_service.service.RequestService;
+import com.ambulance.ambulance_service.service.ResponseTimeAnalytics;
 import com.ambulance.ambulance_service.service.ServiceHistoryService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -26,7 +29,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.Parameter;
 
+import java.time.LocalDate;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -43,6 +49,7 @@ public class AdminController {
     private final PatientRepository patientRepository;
     private final ServiceHistoryRepository serviceHistoryRepository;
     private final ServiceHistoryService serviceHistoryService;
+    private final ResponseTimeAnalytics responseTimeAnalytics;
 
     @Autowired
     public AdminController(RequestService requestService,
@@ -51,7 +58,8 @@ public class AdminController {
                            PatientRepository patientRepository,
                            ServiceHistoryRepository serviceHistoryRepository,
                            ServiceHistoryService serviceHistoryService,
-                          PatientService patientService) {
+                          PatientService patientService,
+                           ResponseTimeAnalytics responseTimeAnalytics) {
         this.requestService = requestService;
         this.ambulanceService = ambulanceService;
         this.patientService = patientService;
@@ -59,6 +67,7 @@ public class AdminController {
         this.patientRepository = patientRepository;
         this.serviceHistoryRepository = serviceHistoryRepository;
         this.serviceHistoryService = serviceHistoryService;
+        this.responseTimeAnalytics = responseTimeAnalytics;
     }
 
     @GetMapping("/dashboard")
@@ -82,6 +91,30 @@ public class AdminController {
         return ResponseEntity.ok(stats);
     }
 
+    @Operation(summary = "Response-time percentiles",
+            description = "p50/p90/p99 of dispatch delay, travel and on-scene time for calls made between two days, "
+                    + "optionally broken down by day, ambulance or zone")
+    @GetMapping("/analytics/response-times")
+    public ResponseEntity<?> getResponseTimes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) ResponseTimeAnalytics.Breakdown groupBy) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(6);
+        if (start.isAfter(end) || start.isBefore(end.minusDays(ResponseTimeAnalytics.RETENTION_DAYS))) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "'from' must not be after 'to' and the window may span at most "
+                            + ResponseTimeAnalytics.RETENTION_DAYS + " days"));
+        }
+
+        Map<ResponseTimeAnalytics.Stage, Map<String, ResponseTimeSummary>> stages =
+                new EnumMap<>(ResponseTimeAnalytics.Stage.class);
+        for (ResponseTimeAnalytics.Stage stage : ResponseTimeAnalytics.Stage.values()) {
+            stages.put(stage, responseTimeAnalytics.summarize(stage, start, end, groupBy));
+        }
+        return ResponseEntity.ok(stages);
+    }
+
     @GetMapping("/requests")
     public ResponseEntity<?> getAllRequests(
             @RequestParam(required = false) Integer page,
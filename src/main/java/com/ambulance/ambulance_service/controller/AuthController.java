@@ -82,7 +82,7 @@ public class AuthController {
             user = userRepository.save(user);
 
             // Generate token
-            String token = jwtService.generateToken(user.getUsername());
+            String token = jwtService.generateToken(user.getUsername(), user.getRole());
 
             return ResponseEntity.ok(new AuthResponse(token, user.getUsername(), user.getRole().name()));
             
@@ -105,7 +105,7 @@ public class AuthController {
             );
 
             User user = userRepository.findByUsername(request.getUsername()).orElseThrow();
-            String token = jwtService.generateToken(user.getUsername());
+            String token = jwtService.generateToken(user.getUsername(), user.getRole());
 
             return ResponseEntity.ok(new AuthResponse(token, user.getUsername(), user.getRole().name()));
         } catch (Exception e) {
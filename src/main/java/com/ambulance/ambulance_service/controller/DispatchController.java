@@ -1,5 +1,7 @@
 package com.ambulance.ambulance_service.controller;
 
+import com.ambulance.ambulance_service.service.PrepositioningPlan;
+import com.ambulance.ambulance_service.service.PrepositioningPlanner;
 import com.ambulance.ambulance_service.service.RequestService;
 import com.ambulance.ambulance_service.entity.RequestStatus;
 import com.ambulance.ambulance_service.exception.RequestNotFoundException;
@@ -18,6 +20,17 @@ public class DispatchController {
     @Autowired
     private RequestService requestService;
 
+    @Autowired
+    private PrepositioningPlanner prepositioningPlanner;
+
+    /**
+     * Where idle units should wait for the calls forecast in the coming hour
+     */
+    @GetMapping("/prepositioning")
+    public ResponseEntity<PrepositioningPlan> getPrepositioningPlan() {
+        return ResponseEntity.ok(prepositioningPlanner.getPlan());
+    }
+
     @PostMapping("/{requestId}")
     public ResponseEntity<?> dispatchAmbulance(@PathVariable Long requestId) {
         try {
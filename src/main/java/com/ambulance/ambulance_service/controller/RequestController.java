@@ -1,15 +1,21 @@
 package com.ambulance.ambulance_service.controller;
 
 import com.ambulance.ambulance_service.dto.AmbulanceRequestDto;
+import com.ambulance.ambulance_service.dto.BatchRequestResult;
 import com.ambulance.ambulance_service.entity.Request;
 import com.ambulance.ambulance_service.entity.RequestStatus;
 import com.ambulance.ambulance_service.entity.RequestStatusHistory;
+import com.ambulance.ambulance_service.exception.IdempotencyKeyException;
 import com.ambulance.ambulance_service.exception.NoAvailableAmbulanceException;
 import com.ambulance.ambulance_service.exception.RequestNotFoundException;
 import com.ambulance.ambulance_service.repository.UserRepository;
+import com.ambulance.ambulance_service.service.IdempotencyService;
 import com.ambulance.ambulance_service.service.RequestService;
+import com.ambulance.ambulance_service.service.RequestStatusStream;
 import com.ambulance.ambulance_service.service.UserService;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -19,13 +25,17 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +45,7 @@ import java.util.Optional;
 @RequestMapping("/api/requests")
 @CrossOrigin(origins = "*")
 public class RequestController {
+    private static final int MAX_BATCH_SIZE = 500; // items accepted by one batch submission
 
     @Autowired
     private RequestService requestService;
@@ -45,6 +56,15 @@ public class RequestController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private RequestStatusStream requestStatusStream;
+
     @GetMapping
     public ResponseEntity<Page<Request>> getAllRequests(
             @RequestParam(defaultValue = "0") int page,
@@ -69,24 +89,29 @@ public class RequestController {
     public ResponseEntity<?> createRequest(
             @Valid @RequestBody AmbulanceRequestDto requestDto,
             BindingResult bindingResult,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
 
         if (bindingResult.hasErrors()) {
             return handleValidationErrors(bindingResult);
         }
 
+        if (idempotencyKey == null) {
+            return submitRequest(requestDto, authentication);
+        }
         try {
-            // Get the authenticated user (can be null for unauthenticated requests)
-            com.ambulance.ambulance_service.entity.User user = null;
-            if (authentication != null && authentication.isAuthenticated() && 
-                authentication.getPrincipal() instanceof org.springframework.security.core.userdetails.User) {
-                org.springframework.security.core.userdetails.User principal = 
-                    (org.springframework.security.core.userdetails.User) authentication.getPrincipal();
-                user = userRepository.findByUsername(principal.getUsername())
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + principal.getUsername()));
-            }
+            // Retries carrying the same key get the first response instead of a second dispatch
+            return idempotencyService.execute(idempotencyKey, requestDto,
+                    () -> submitRequest(requestDto, authentication));
+        } catch (IdempotencyKeyException e) {
+            return ResponseEntity.status(e.getStatus())
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
 
-            Request request = requestService.createRequest(requestDto, user);
+    private ResponseEntity<?> submitRequest(AmbulanceRequestDto requestDto, Authentication authentication) {
+        try {
+            Request request = requestService.createRequest(requestDto, resolveUser(authentication));
             return ResponseEntity.ok(request);
         } catch (NoAvailableAmbulanceException e) {
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
@@ -104,6 +129,53 @@ public class RequestController {
         }
     }
 
+    /**
+     * Submits many requests at once, e.g. for a mass-casualty incident. Each item is validated
+     * on its own; the valid ones are created and dispatched together in one transaction.
+     * @param requestDtos the requests to create
+     * @return one result per submitted item, in submission order
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> createRequests(
+            @RequestBody List<AmbulanceRequestDto> requestDtos,
+            Authentication authentication) {
+
+        if (requestDtos == null || requestDtos.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At least one request is required"));
+        }
+        if (requestDtos.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(Map.of("error", "A batch may hold at most " + MAX_BATCH_SIZE + " requests"));
+        }
+
+        BatchRequestResult[] results = new BatchRequestResult[requestDtos.size()];
+        List<AmbulanceRequestDto> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int i = 0; i < requestDtos.size(); i++) {
+            Map<String, String> errors = validate(requestDtos.get(i));
+            if (errors.isEmpty()) {
+                accepted.add(requestDtos.get(i));
+                acceptedIndexes.add(i);
+            } else {
+                results[i] = BatchRequestResult.rejected(i, errors);
+            }
+        }
+
+        try {
+            List<Request> created = accepted.isEmpty()
+                    ? List.of()
+                    : requestService.createRequests(accepted, resolveUser(authentication));
+            for (int i = 0; i < created.size(); i++) {
+                int index = acceptedIndexes.get(i);
+                results[index] = BatchRequestResult.created(index, created.get(i));
+            }
+            return ResponseEntity.ok(Arrays.asList(results));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to create requests: " + e.getMessage()));
+        }
+    }
+
     @PostMapping("/{id}/arrived")
     public ResponseEntity<?> markAmbulanceArrived(
             @PathVariable Long id,
@@ -164,6 +236,38 @@ public class RequestController {
         }
     }
     
+    /**
+     * Live status of one request, starting with a snapshot of its current state. A change made
+     * while the snapshot is read may arrive just before it; the snapshot already includes it.
+     */
+    @GetMapping(path = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamRequestStatus(@PathVariable Long id) {
+        SseEmitter emitter = requestStatusStream.subscribeToRequest(id,
+                () -> requestService.getRequestById(id).map(RequestStatusStream::snapshotOf).orElse(null));
+        return emitter != null ? ResponseEntity.ok(emitter) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Live status of the current user's requests, starting with a snapshot of the active ones
+     */
+    @GetMapping(path = "/user/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamUserRequests(Authentication authentication) {
+        try {
+            com.ambulance.ambulance_service.entity.User user = resolveUser(authentication);
+            if (user == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            return ResponseEntity.ok(requestStatusStream.subscribeToUser(user.getId(), () -> {
+                List<Map<String, Object>> active = new ArrayList<>();
+                requestService.getActiveRequestsByUser(user)
+                        .forEach(request -> active.add(RequestStatusStream.snapshotOf(request)));
+                return active;
+            }));
+        } catch (UsernameNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
     @GetMapping("/status/{status}")
     public List<Request> getRequestsByStatus(@PathVariable RequestStatus status) {
         return requestService.getRequestsByStatus(status);
@@ -220,6 +324,30 @@ public class RequestController {
         }
     }
 
+    // Get the authenticated user (can be null for unauthenticated requests)
+    private com.ambulance.ambulance_service.entity.User resolveUser(Authentication authentication) {
+        if (authentication != null && authentication.isAuthenticated() &&
+            authentication.getPrincipal() instanceof org.springframework.security.core.userdetails.User) {
+            org.springframework.security.core.userdetails.User principal =
+                (org.springframework.security.core.userdetails.User) authentication.getPrincipal();
+            return userRepository.findByUsername(principal.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + principal.getUsername()));
+        }
+        return null;
+    }
+
+    private Map<String, String> validate(AmbulanceRequestDto requestDto) {
+        Map<String, String> errors = new HashMap<>();
+        if (requestDto == null) {
+            errors.put("request", "Request data cannot be null");
+            return errors;
+        }
+        for (ConstraintViolation<AmbulanceRequestDto> violation : validator.validate(requestDto)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
     private ResponseEntity<Map<String, String>> handleValidationErrors(BindingResult bindingResult) {
         Map<String, String> errors = new HashMap<>();
         for (FieldError error : bindingResult.getFieldErrors()) {
@@ -0,0 +1,38 @@
+package com.ambulance.ambulance_service.controller;
+
+import com.ambulance.ambulance_service.service.RequestEventStream;
+import com.ambulance.ambulance_service.service.RequestLifecycleEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * Feed of request lifecycle events, so dashboards and other consumers do not poll the requests table
+ */
+@RestController
+@RequestMapping("/api/requests/events")
+@CrossOrigin(origins = "*")
+public class RequestEventController {
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private RequestEventStream requestEventStream;
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return requestEventStream.subscribe(lastEventId);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<RequestLifecycleEvent>> getEvents(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(requestEventStream.getEventsAfter(after, pageSize));
+    }
+}
@@ -0,0 +1,69 @@
+package com.ambulance.ambulance_service.controller;
+
+import com.ambulance.ambulance_service.dto.PositionPing;
+import com.ambulance.ambulance_service.service.TelemetryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Position pings from ambulance crews, and the latest known positions. Reads are answered
+ * from memory; nothing here waits on the database.
+ */
+@RestController
+@RequestMapping("/api/ambulances")
+@CrossOrigin(origins = "*")
+public class TelemetryController {
+    private static final Logger logger = LoggerFactory.getLogger(TelemetryController.class);
+    private static final int MAX_BATCH_SIZE = 5000; // pings accepted by one batch submission
+
+    private final TelemetryService telemetryService;
+
+    @Autowired
+    public TelemetryController(TelemetryService telemetryService) {
+        this.telemetryService = telemetryService;
+    }
+
+    @PostMapping("/telemetry")
+    public ResponseEntity<?> recordPosition(@RequestBody PositionPing ping) {
+        if (!telemetryService.ingest(ping)) {
+            logger.debug("Rejected position ping for ambulance {}", ping.getAmbulanceId());
+            return ResponseEntity.unprocessableEntity()
+                    .body(Collections.singletonMap("error", "Ping is malformed, out of order or for an unknown ambulance"));
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @PostMapping("/telemetry/batch")
+    public ResponseEntity<?> recordPositions(@RequestBody List<PositionPing> pings) {
+        if (pings.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(Map.of("error", "A batch may hold at most " + MAX_BATCH_SIZE + " pings"));
+        }
+        int accepted = telemetryService.ingestAll(pings);
+        if (accepted < pings.size()) {
+            logger.debug("Rejected {} of {} position pings", pings.size() - accepted, pings.size());
+        }
+        return ResponseEntity.accepted().body(Map.of("accepted", accepted, "rejected", pings.size() - accepted));
+    }
+
+    @GetMapping("/{id}/position")
+    public ResponseEntity<?> getLatestPosition(@PathVariable Long id) {
+        return telemetryService.getLatestPosition(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Collections.singletonMap("message", "No position reported for ambulance " + id)));
+    }
+
+    @GetMapping("/{id}/track")
+    public ResponseEntity<List<PositionPing>> getTrack(@PathVariable Long id) {
+        return ResponseEntity.ok(telemetryService.getTrack(id));
+    }
+}
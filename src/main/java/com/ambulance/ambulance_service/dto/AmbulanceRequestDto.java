@@ -1,5 +1,8 @@
 package com.ambulance.ambulance_service.dto;
 
+import com.ambulance.ambulance_service.entity.RequestPriority;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
@@ -18,8 +21,18 @@ public class AmbulanceRequestDto {
     @NotNull(message = "Location is required")
     private String location;
 
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
     private String emergencyDescription;
 
+    private RequestPriority priority;
+
     private String medicalNotes;
 
     // Constructors
@@ -52,9 +65,18 @@ public class AmbulanceRequestDto {
     public String getLocation() { return location; }
     public void setLocation(String location) { this.location = location; }
 
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
     public String getEmergencyDescription() { return emergencyDescription; }
     public void setEmergencyDescription(String emergencyDescription) { this.emergencyDescription = emergencyDescription; }
 
+    public RequestPriority getPriority() { return priority; }
+    public void setPriority(RequestPriority priority) { this.priority = priority; }
+
     public String getMedicalNotes() { return medicalNotes; }
     public void setMedicalNotes(String medicalNotes) { this.medicalNotes = medicalNotes; }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.ambulance.ambulance_service.dto;
+
+import com.ambulance.ambulance_service.entity.Request;
+
+import java.util.Map;
+
+/**
+ * Outcome of one item in a batch submission, reported at the item's position in the batch
+ */
+public class BatchRequestResult {
+    public static final String REJECTED = "REJECTED";
+
+    private int index;
+    private String status;
+    private Long requestId;
+    private Long ambulanceId;
+    private Map<String, String> errors;
+
+    public BatchRequestResult() {}
+
+    public static BatchRequestResult created(int index, Request request) {
+        BatchRequestResult result = new BatchRequestResult();
+        result.index = index;
+        result.status = request.getStatus().name();
+        result.requestId = request.getId();
+        result.ambulanceId = request.getAmbulance() != null ? request.getAmbulance().getId() : null;
+        return result;
+    }
+
+    public static BatchRequestResult rejected(int index, Map<String, String> errors) {
+        BatchRequestResult result = new BatchRequestResult();
+        result.index = index;
+        result.status = REJECTED;
+        result.errors = errors;
+        return result;
+    }
+
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getRequestId() { return requestId; }
+    public void setRequestId(Long requestId) { this.requestId = requestId; }
+
+    public Long getAmbulanceId() { return ambulanceId; }
+    public void setAmbulanceId(Long ambulanceId) { this.ambulanceId = ambulanceId; }
+
+    public Map<String, String> getErrors() { return errors; }
+    public void setErrors(Map<String, String> errors) { this.errors = errors; }
+}
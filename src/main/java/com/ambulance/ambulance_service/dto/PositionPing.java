@@ -0,0 +1,44 @@
+package com.ambulance.ambulance_service.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A GPS position reported by an ambulance crew. The time is when the fix was taken on the
+ * device; pings that arrive without one are stamped on receipt.
+ */
+public class PositionPing {
+    private Long ambulanceId;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime recordedAt;
+    private Double speedKmh;
+    private Double heading;
+
+    public PositionPing() {}
+
+    public PositionPing(Long ambulanceId, Double latitude, Double longitude, LocalDateTime recordedAt) {
+        this.ambulanceId = ambulanceId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.recordedAt = recordedAt;
+    }
+
+    // Getters and Setters
+    public Long getAmbulanceId() { return ambulanceId; }
+    public void setAmbulanceId(Long ambulanceId) { this.ambulanceId = ambulanceId; }
+
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
+    public LocalDateTime getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(LocalDateTime recordedAt) { this.recordedAt = recordedAt; }
+
+    public Double getSpeedKmh() { return speedKmh; }
+    public void setSpeedKmh(Double speedKmh) { this.speedKmh = speedKmh; }
+
+    public Double getHeading() { return heading; }
+    public void setHeading(Double heading) { this.heading = heading; }
+}
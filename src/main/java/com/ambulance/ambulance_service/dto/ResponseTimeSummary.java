@@ -0,0 +1,45 @@
+package com.ambulance.ambulance_service.dto;
+
+/**
+ * Distribution of one response-time stage over a set of calls, in seconds. Percentiles are
+ * accurate to two significant digits.
+ */
+public class ResponseTimeSummary {
+    private long count;
+    private double meanSeconds;
+    private long p50Seconds;
+    private long p90Seconds;
+    private long p99Seconds;
+    private long maxSeconds;
+
+    public ResponseTimeSummary() {}
+
+    public ResponseTimeSummary(long count, double meanSeconds, long p50Seconds, long p90Seconds,
+                               long p99Seconds, long maxSeconds) {
+        this.count = count;
+        this.meanSeconds = meanSeconds;
+        this.p50Seconds = p50Seconds;
+        this.p90Seconds = p90Seconds;
+        this.p99Seconds = p99Seconds;
+        this.maxSeconds = maxSeconds;
+    }
+
+    // Getters and Setters
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public double getMeanSeconds() { return meanSeconds; }
+    public void setMeanSeconds(double meanSeconds) { this.meanSeconds = meanSeconds; }
+
+    public long getP50Seconds() { return p50Seconds; }
+    public void setP50Seconds(long p50Seconds) { this.p50Seconds = p50Seconds; }
+
+    public long getP90Seconds() { return p90Seconds; }
+    public void setP90Seconds(long p90Seconds) { this.p90Seconds = p90Seconds; }
+
+    public long getP99Seconds() { return p99Seconds; }
+    public void setP99Seconds(long p99Seconds) { this.p99Seconds = p99Seconds; }
+
+    public long getMaxSeconds() { return maxSeconds; }
+    public void setMaxSeconds(long maxSeconds) { this.maxSeconds = maxSeconds; }
+}
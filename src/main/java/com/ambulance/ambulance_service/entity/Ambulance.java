@@ -25,6 +25,12 @@ public class Ambulance extends BaseEntity {
     @Column(name = "current_location", nullable = false)
     private String currentLocation;
 
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
     @NotNull
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, columnDefinition = "VARCHAR(20) DEFAULT 'AVAILABLE'")
@@ -58,6 +64,13 @@ public class Ambulance extends BaseEntity {
         this.licensePlate = licensePlate;
     }
 
+    /**
+     * Whether this ambulance has a known position that can be used for nearest-unit dispatch
+     */
+    public boolean hasCoordinates() {
+        return latitude != null && longitude != null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -81,6 +94,8 @@ public class Ambulance extends BaseEntity {
                 "id=" + getId() +
                 ", version=" + version +
                 ", currentLocation='" + currentLocation + '\'' +
+                ", latitude=" + latitude +
+                ", longitude=" + longitude +
                 ", availability=" + availability +
                 ", licensePlate='" + licensePlate + '\'' +
                 ", driverName='" + driverName + '\'' +
@@ -0,0 +1,58 @@
+package com.ambulance.ambulance_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A request lifecycle event waiting to be, or already, published by the outbox relay.
+ * Rows are inserted in the same transaction as the status change they describe; the relay
+ * stamps them with a gap-free sequence number in the order it publishes them.
+ */
+@Entity
+@Table(name = "request_outbox")
+@Data
+public class OutboxEvent {
+
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "request_id", nullable = false)
+    private Long requestId;
+
+    @Column(name = "ambulance_id")
+    private Long ambulanceId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "old_status")
+    private RequestStatus oldStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "new_status", nullable = false)
+    private RequestStatus newStatus;
+
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+
+    @Column(name = "changed_by")
+    private String changedBy;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    @Column(name = "sequence_number", unique = true)
+    private Long sequenceNumber;
+}
@@ -34,9 +34,19 @@ public class Request extends BaseEntity {
     @NotNull
     private String location;
 
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
     @Column(name = "emergency_description")
     private String emergencyDescription;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority", length = 20)
+    private RequestPriority priority = RequestPriority.MEDIUM;
+
     @Column(name = "medical_notes", columnDefinition = "TEXT")
     private String medicalNotes;
 
@@ -46,6 +56,18 @@ public class Request extends BaseEntity {
     @Column(name = "dispatch_time")
     private LocalDateTime dispatchTime;
 
+    // Position of the unit when it was dispatched
+    @JsonIgnore
+    @Column(name = "dispatch_latitude")
+    private Double dispatchLatitude;
+
+    @JsonIgnore
+    @Column(name = "dispatch_longitude")
+    private Double dispatchLongitude;
+
+    @Column(name = "estimated_arrival")
+    private LocalDateTime estimatedArrival;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ambulance_id")
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
@@ -80,6 +102,10 @@ public class Request extends BaseEntity {
     }
 
     // Helper methods
+    public boolean hasCoordinates() {
+        return latitude != null && longitude != null;
+    }
+
     public String getUserName() {
         return user != null ? user.getUsername() : userName;
     }
@@ -100,9 +126,13 @@ public class Request extends BaseEntity {
                 ", userName='" + userName + '\'' +
                 ", userContact='" + userContact + '\'' +
                 ", location='" + location + '\'' +
+                ", latitude=" + latitude +
+                ", longitude=" + longitude +
                 ", emergencyDescription='" + emergencyDescription + '\'' +
+                ", priority=" + priority +
                 ", requestTime=" + requestTime +
                 ", dispatchTime=" + dispatchTime +
+                ", estimatedArrival=" + estimatedArrival +
                 ", status=" + status +
                 ", ambulance=" + (ambulance != null ? ambulance.getId() : "null") +
                 ", createdAt=" + getCreatedAt() +
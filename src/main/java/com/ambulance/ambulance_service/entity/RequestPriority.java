@@ -0,0 +1,25 @@
+package com.ambulance.ambulance_service.entity;
+
+import java.time.Duration;
+
+/**
+ * Clinical urgency of a request. Each level is credited with a head start in the pending
+ * queue, so a higher priority call is served first but a lower one that has waited longer
+ * than the difference in credit overtakes it and cannot starve.
+ */
+public enum RequestPriority {
+    CRITICAL(Duration.ofMinutes(30)),
+    HIGH(Duration.ofMinutes(15)),
+    MEDIUM(Duration.ofMinutes(5)),
+    LOW(Duration.ZERO);
+
+    private final Duration agingCredit;
+
+    RequestPriority(Duration agingCredit) {
+        this.agingCredit = agingCredit;
+    }
+
+    public Duration getAgingCredit() {
+        return agingCredit;
+    }
+}
@@ -8,7 +8,7 @@ import java.time.LocalDateTime;
 @Table(name = "service_history")
 public class ServiceHistory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     @NotNull
@@ -0,0 +1,20 @@
+package com.ambulance.ambulance_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Raised when an idempotency key cannot be honoured: it was reused for a different request
+ * body, or the original submission is still being processed
+ */
+public class IdempotencyKeyException extends RuntimeException {
+    private final HttpStatus status;
+
+    public IdempotencyKeyException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,12 +42,21 @@ public interface AmbulanceRepository extends JpaRepository<Ambulance, Long> {
 
     List<Ambulance> findByDeletedFalse();
 
+    // Native so that soft-deleted rows are returned too and can be evicted from the cache
+    @Query(value = "SELECT * FROM ambulances WHERE updated_at > :since OR deleted_at > :since",
+            nativeQuery = true)
+    List<Ambulance> findChangedSince(@Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT * FROM ambulances WHERE deleted = true", nativeQuery = true)
+    List<Ambulance> findDeleted();
+
     @Modifying
-    @Query("UPDATE Ambulance a SET a.availability = :newStatus, a.version = a.version + 1 " +
-            "WHERE a.id = :id AND a.version = :version")
+    @Query("UPDATE Ambulance a SET a.availability = :newStatus, a.version = a.version + 1, " +
+            "a.updatedAt = :updatedAt WHERE a.id = :id AND a.version = :version")
     int updateAmbulanceStatusWithLock(
             @Param("id") Long id,
             @Param("newStatus") AvailabilityStatus newStatus,
-            @Param("version") Long version
+            @Param("version") Long version,
+            @Param("updatedAt") LocalDateTime updatedAt
     );
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.ambulance.ambulance_service.repository;
+
+import com.ambulance.ambulance_service.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Events not yet published, oldest first
+     */
+    List<OutboxEvent> findByPublishedAtIsNullOrderByIdAsc(Pageable pageable);
+
+    /**
+     * Published events after a sequence number, in publication order
+     */
+    List<OutboxEvent> findBySequenceNumberGreaterThanOrderBySequenceNumberAsc(Long sequenceNumber, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.sequenceNumber), 0) FROM OutboxEvent e")
+    long findMaxSequenceNumber();
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +26,10 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     // Find non-deleted patient by contact
     @Query("SELECT p FROM Patient p WHERE p.contact = :contact AND p.deleted = false")
     Optional<Patient> findByContactAndDeletedFalse(@Param("contact") String contact);
+
+    // Find non-deleted patients by any of the given contacts
+    @Query("SELECT p FROM Patient p WHERE p.contact IN :contacts AND p.deleted = false")
+    List<Patient> findByContactInAndDeletedFalse(@Param("contacts") Collection<String> contacts);
     
     // Count non-deleted patients
     @Query("SELECT COUNT(p) FROM Patient p WHERE p.deleted = false")
@@ -95,4 +95,18 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
     @EntityGraph(attributePaths = {"ambulance"})
     @Query("SELECT r FROM Request r WHERE r.status = :status ORDER BY r.requestTime ASC")
     List<Request> findByStatusOrderByRequestTimeAsc(@Param("status") RequestStatus status);
-}
\ No newline at end of file
+
+    // Location and time of each call with coordinates, for demand forecasting
+    @Query("SELECT r.latitude, r.longitude, r.requestTime FROM Request r " +
+           "WHERE r.requestTime >= :since AND r.latitude IS NOT NULL AND r.longitude IS NOT NULL")
+    List<Object[]> findCallLocationsSince(@Param("since") LocalDateTime since);
+
+    // Number of requests in each status, for seeding the dashboard counters in one query
+    @Query("SELECT r.status, COUNT(r) FROM Request r GROUP BY r.status")
+    List<Object[]> countGroupedByStatus();
+
+    // Call time, dispatch time, unit and call location of each dispatched call, for response-time analytics
+    @Query("SELECT r.requestTime, r.dispatchTime, a.id, r.latitude, r.longitude FROM Request r LEFT JOIN r.ambulance a " +
+           "WHERE r.requestTime >= :since AND r.dispatchTime IS NOT NULL")
+    List<Object[]> findDispatchTimesSince(@Param("since") LocalDateTime since);
+}
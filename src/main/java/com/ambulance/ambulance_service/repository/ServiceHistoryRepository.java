@@ -24,6 +24,19 @@ public interface ServiceHistoryRepository extends JpaRepository<ServiceHistory,
     List<ServiceHistory> findByPatientContact(String contact);
     List<ServiceHistory> findByRequestId(Long requestId);
 
+    // Dispatch origin, call location, dispatch time and arrival time of each completed trip
+    @Query("SELECT r.dispatchLatitude, r.dispatchLongitude, r.latitude, r.longitude, r.dispatchTime, sh.arrivalTime " +
+           "FROM ServiceHistory sh JOIN sh.request r " +
+           "WHERE sh.arrivalTime IS NOT NULL AND r.dispatchTime >= :since " +
+           "AND r.dispatchLatitude IS NOT NULL AND r.latitude IS NOT NULL")
+    List<Object[]> findTravelTimesSince(@Param("since") LocalDateTime since);
+
+    // Call, dispatch, arrival and completion times with unit and call location, for response-time analytics
+    @Query("SELECT r.requestTime, r.dispatchTime, sh.arrivalTime, sh.completionTime, sh.status, a.id, r.latitude, r.longitude " +
+           "FROM ServiceHistory sh JOIN sh.request r LEFT JOIN r.ambulance a " +
+           "WHERE r.requestTime >= :since AND sh.arrivalTime IS NOT NULL")
+    List<Object[]> findTripStagesSince(@Param("since") LocalDateTime since);
+
     @Query("SELECT sh FROM ServiceHistory sh WHERE sh.request.id = :requestId ORDER BY sh.createdAt DESC")
     Optional<ServiceHistory> findFirstByRequestIdOrderByCreatedAtDesc(@Param("requestId") Long requestId);
 }
\ No newline at end of file
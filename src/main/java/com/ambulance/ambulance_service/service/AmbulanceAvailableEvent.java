@@ -0,0 +1,17 @@
+package com.ambulance.ambulance_service.service;
+
+/**
+ * Published when an ambulance enters the available pool, so queued requests can be
+ * matched to it without waiting for a polling cycle
+ */
+public class AmbulanceAvailableEvent {
+    private final Long ambulanceId;
+
+    public AmbulanceAvailableEvent(Long ambulanceId) {
+        this.ambulanceId = ambulanceId;
+    }
+
+    public Long getAmbulanceId() {
+        return ambulanceId;
+    }
+}
@@ -8,30 +8,98 @@ import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @Transactional
 public class AmbulanceService implements AmbulanceServiceInterface {
     private static final Logger logger = LoggerFactory.getLogger(AmbulanceService.class);
     private static final long CACHE_REFRESH_INTERVAL = 300000; // 5 minutes in milliseconds
+    private static final long REFRESH_OVERLAP_SECONDS = 60; // re-read window for late commits and clock skew
+    private static final double SPATIAL_CELL_SIZE_DEGREES = 0.01; // roughly 1km cells
+    private static final int STALE_TICKET_SLACK = 64; // stale queue entries tolerated before compacting
 
     private final AmbulanceRepository ambulanceRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DispatchMetrics dispatchMetrics;
     private final Map<Long, Ambulance> ambulanceCache = new ConcurrentHashMap<>();
-    private final Queue<Ambulance> availableQueue = new ConcurrentLinkedQueue<>();
+    // Soft-deleted units, kept so that plate checks including deleted ambulances stay in memory
+    private final Map<Long, Ambulance> retiredAmbulances = new ConcurrentHashMap<>();
+    // Upper-cased license plate -> id for live and soft-deleted units
+    private final Map<String, Long> plateIndex = new ConcurrentHashMap<>();
+    // Ids of cached ambulances by persisted status, maintained with every cache write
+    private final Map<AvailabilityStatus, Set<Long>> statusBuckets = new EnumMap<>(AvailabilityStatus.class);
+    // Available queue and spatial index per zone, so intake in different zones never shares a structure
+    private final Map<DispatchZone, ZoneShard> zones = new ConcurrentHashMap<>();
+    // Current queue entry of each AVAILABLE unit. Leaving the queue only drops the unit's ticket, and
+    // the stale entry is skipped when polled, so no status change scans a queue.
+    private final Map<Long, QueueTicket> queueTickets = new ConcurrentHashMap<>();
+    private final AtomicInteger staleTickets = new AtomicInteger();
+    // Zone whose spatial index holds each positioned AVAILABLE unit
+    private final Map<Long, DispatchZone> indexedZones = new ConcurrentHashMap<>();
+    // Dispatch state per cached ambulance; a unit is claimed by moving it from AVAILABLE to RESERVED
+    private final Map<Long, AtomicReference<ReservationState>> reservationStates = new ConcurrentHashMap<>();
+    // Latest updated_at/deleted_at seen by a refresh; null until the first full load
+    private volatile LocalDateTime refreshWatermark;
+
+    /**
+     * In-memory dispatch state of a cached ambulance. Only the thread that wins the
+     * AVAILABLE -> RESERVED transition writes the DISPATCHED status to the database.
+     */
+    private enum ReservationState {
+        AVAILABLE, RESERVED, DISPATCHED, UNAVAILABLE;
+
+        static ReservationState of(AvailabilityStatus status) {
+            if (status == AvailabilityStatus.AVAILABLE) {
+                return AVAILABLE;
+            }
+            return status == AvailabilityStatus.DISPATCHED ? DISPATCHED : UNAVAILABLE;
+        }
+    }
+
+    private static final class QueueTicket {
+        private final Long ambulanceId;
+        private final DispatchZone zone;
+
+        private QueueTicket(Long ambulanceId, DispatchZone zone) {
+            this.ambulanceId = ambulanceId;
+            this.zone = zone;
+        }
+    }
+
+    // AVAILABLE units of one zone, in the order they were freed and by position
+    private static final class ZoneShard {
+        private final Queue<QueueTicket> availableQueue = new ConcurrentLinkedQueue<>();
+        private final GridSpatialIndex availableIndex = new GridSpatialIndex(SPATIAL_CELL_SIZE_DEGREES);
+    }
 
     @Autowired
-    public AmbulanceService(AmbulanceRepository ambulanceRepository) {
+    public AmbulanceService(AmbulanceRepository ambulanceRepository, ApplicationEventPublisher eventPublisher,
+                            DispatchMetrics dispatchMetrics) {
         this.ambulanceRepository = ambulanceRepository;
+        this.eventPublisher = eventPublisher;
+        this.dispatchMetrics = dispatchMetrics;
+        for (AvailabilityStatus status : AvailabilityStatus.values()) {
+            statusBuckets.put(status, ConcurrentHashMap.newKeySet());
+        }
+        dispatchMetrics.gauge("ambulance.fleet.available_queue.size", "Units waiting in the available queues",
+                queueTickets::size);
+        dispatchMetrics.gauge("ambulance.fleet.cache.size", "Units held in the fleet cache", ambulanceCache::size);
     }
 
     @PostConstruct
@@ -39,7 +107,7 @@ public class AmbulanceService implements AmbulanceServiceInterface {
         try {
             loadAmbulances();
             logger.info("AmbulanceService initialized with {} ambulances ({} available)", 
-                ambulanceCache.size(), availableQueue.size());
+                ambulanceCache.size(), queueTickets.size());
         } catch (Exception e) {
             logger.error("Failed to initialize AmbulanceService: {}", e.getMessage(), e);
             throw new IllegalStateException("Failed to initialize AmbulanceService", e);
@@ -48,28 +116,66 @@ public class AmbulanceService implements AmbulanceServiceInterface {
 
     @Scheduled(fixedRate = CACHE_REFRESH_INTERVAL)
     public void refreshCache() {
+        long start = System.nanoTime();
         try {
             logger.debug("Refreshing ambulance cache...");
-            loadAmbulances();
-            logger.info("Ambulance cache refreshed: {} ambulances ({} available)", 
-                ambulanceCache.size(), availableQueue.size());
+            int changed = refreshChangedAmbulances();
+            logger.info("Ambulance cache refreshed: {} changed, {} ambulances ({} available)", 
+                changed, ambulanceCache.size(), queueTickets.size());
         } catch (Exception e) {
             logger.error("Error refreshing ambulance cache: {}", e.getMessage(), e);
+        } finally {
+            dispatchMetrics.record(DispatchMetrics.Operation.CACHE_REFRESH, start);
+        }
+    }
+
+    /**
+     * Applies only the ambulances written since the last refresh, including soft-deleted ones,
+     * so the cost follows fleet churn rather than fleet size. Entries are replaced one at a time
+     * and never cleared, so readers always see a populated cache.
+     * @return the number of changed rows read
+     */
+    private synchronized int refreshChangedAmbulances() {
+        LocalDateTime watermark = refreshWatermark;
+        if (watermark == null) {
+            loadAmbulances();
+            return ambulanceCache.size();
+        }
+
+        try {
+            // Re-read a short window behind the watermark; rows already applied are skipped by version
+            List<Ambulance> changed = ambulanceRepository.findChangedSince(
+                watermark.minusSeconds(REFRESH_OVERLAP_SECONDS));
+            for (Ambulance ambulance : changed) {
+                if (ambulance == null || ambulance.getId() == null) {
+                    continue;
+                }
+                if (ambulance.isDeleted()) {
+                    retire(ambulance);
+                } else if (isNewerThanCached(ambulance)) {
+                    updateCacheAndQueue(copyForCache(ambulance));
+                }
+                advanceWatermark(ambulance);
+            }
+            return changed.size();
+        } catch (DataAccessException e) {
+            logger.error("Database error while refreshing ambulances: {}", e.getMessage(), e);
+            throw new IllegalStateException("Failed to refresh ambulances from database", e);
         }
     }
 
+    /**
+     * Reconciles the cache with every ambulance in the database. Changed entries are replaced in
+     * place and missing ones removed afterwards, so the cache is never empty while this runs.
+     */
     private synchronized void loadAmbulances() {
         try {
             logger.debug("Loading ambulances from database...");
             List<Ambulance> allAmbulances = ambulanceRepository.findByDeletedFalse();
-            
-            // Clear existing state
-            availableQueue.clear();
-            ambulanceCache.clear();
+            Set<Long> loadedIds = new HashSet<>();
 
             if (allAmbulances.isEmpty()) {
                 logger.warn("No ambulances found in the database");
-                return;
             }
 
             // Process each ambulance
@@ -80,23 +186,11 @@ public class AmbulanceService implements AmbulanceServiceInterface {
                 }
 
                 try {
-                    Ambulance cachedAmbulance = new Ambulance();
-                    cachedAmbulance.setId(ambulance.getId());
-                    cachedAmbulance.setCurrentLocation(ambulance.getCurrentLocation());
-                    cachedAmbulance.setAvailability(ambulance.getAvailability() != null ? 
-                        ambulance.getAvailability() : AvailabilityStatus.AVAILABLE);
-                    cachedAmbulance.setLicensePlate(ambulance.getLicensePlate());
-                    cachedAmbulance.setDriverName(ambulance.getDriverName());
-                    cachedAmbulance.setDriverContact(ambulance.getDriverContact());
-                    cachedAmbulance.setModel(ambulance.getModel());
-                    cachedAmbulance.setYear(ambulance.getYear());
-                    cachedAmbulance.setCapacity(ambulance.getCapacity());
-
-                    ambulanceCache.put(cachedAmbulance.getId(), cachedAmbulance);
-
-                    if (cachedAmbulance.getAvailability() == AvailabilityStatus.AVAILABLE) {
-                        availableQueue.offer(cachedAmbulance);
-                        logger.debug("Added available ambulance {} to queue", cachedAmbulance.getId());
+                    loadedIds.add(ambulance.getId());
+                    advanceWatermark(ambulance);
+                    // Units reserved by an in-flight dispatch keep their state until the owner finishes
+                    if (isNewerThanCached(ambulance)) {
+                        cacheAmbulance(copyForCache(ambulance));
                     }
                 } catch (Exception e) {
                     logger.error("Error processing ambulance with ID {}: {}", 
@@ -104,8 +198,19 @@ public class AmbulanceService implements AmbulanceServiceInterface {
                 }
             }
 
+            for (Long id : new ArrayList<>(ambulanceCache.keySet())) {
+                if (!loadedIds.contains(id)) {
+                    evict(id);
+                }
+            }
+            ambulanceRepository.findDeleted().forEach(this::retire);
+            if (refreshWatermark == null) {
+                // Nothing carried a timestamp, so start the delta window from now
+                refreshWatermark = LocalDateTime.now();
+            }
+
             logger.info("Loaded {} ambulances ({} available) into cache", 
-                ambulanceCache.size(), availableQueue.size());
+                ambulanceCache.size(), queueTickets.size());
                     
         } catch (DataAccessException e) {
             logger.error("Database error while loading ambulances: {}", e.getMessage(), e);
@@ -116,6 +221,157 @@ public class AmbulanceService implements AmbulanceServiceInterface {
         }
     }
 
+    // Rows at or below the cached version were already applied, possibly by a newer local write
+    private boolean isNewerThanCached(Ambulance ambulance) {
+        Ambulance cached = ambulanceCache.get(ambulance.getId());
+        return cached == null || !reservationStates.containsKey(ambulance.getId())
+            || cached.getVersion() == null || ambulance.getVersion() == null
+            || ambulance.getVersion() > cached.getVersion();
+    }
+
+    private void advanceWatermark(Ambulance ambulance) {
+        LocalDateTime latest = ambulance.getUpdatedAt();
+        if (ambulance.getDeletedAt() != null && (latest == null || ambulance.getDeletedAt().isAfter(latest))) {
+            latest = ambulance.getDeletedAt();
+        }
+        if (latest != null && (refreshWatermark == null || latest.isAfter(refreshWatermark))) {
+            refreshWatermark = latest;
+        }
+    }
+
+    private void evict(Long id) {
+        ambulanceCache.computeIfPresent(id, (key, previous) -> {
+            unindex(key, previous);
+            return null;
+        });
+        reservationStates.remove(id);
+        dequeue(id);
+        unindexPosition(id);
+    }
+
+    // Drops a soft-deleted unit from dispatch but keeps its plate known
+    private void retire(Ambulance ambulance) {
+        if (ambulance == null || ambulance.getId() == null) {
+            return;
+        }
+        evict(ambulance.getId());
+        Ambulance retired = copyForCache(ambulance);
+        retired.setDeleted(true);
+        retired.setDeletedAt(ambulance.getDeletedAt());
+        retiredAmbulances.put(retired.getId(), retired);
+        if (retired.getLicensePlate() != null) {
+            plateIndex.put(plateKey(retired.getLicensePlate()), retired.getId());
+        }
+    }
+
+    /**
+     * Replaces the cached copy of an ambulance and moves it between the plate index and
+     * status buckets. Runs under the cache entry's lock so concurrent writers of the same
+     * unit leave the indexes consistent with the entry that wins.
+     */
+    private void putInCache(Ambulance ambulance) {
+        ambulanceCache.compute(ambulance.getId(), (id, previous) -> {
+            unindex(id, previous);
+            unindex(id, retiredAmbulances.remove(id));
+            if (ambulance.getLicensePlate() != null) {
+                plateIndex.put(plateKey(ambulance.getLicensePlate()), id);
+            }
+            if (ambulance.getAvailability() != null) {
+                statusBuckets.get(ambulance.getAvailability()).add(id);
+            }
+            return ambulance;
+        });
+    }
+
+    private void unindex(Long id, Ambulance previous) {
+        if (previous == null) {
+            return;
+        }
+        if (previous.getLicensePlate() != null) {
+            plateIndex.remove(plateKey(previous.getLicensePlate()), id);
+        }
+        if (previous.getAvailability() != null) {
+            statusBuckets.get(previous.getAvailability()).remove(id);
+        }
+    }
+
+    private static String plateKey(String licensePlate) {
+        return licensePlate.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private ZoneShard shard(DispatchZone zone) {
+        return zones.computeIfAbsent(zone, z -> new ZoneShard());
+    }
+
+    private static DispatchZone zoneOf(Ambulance ambulance) {
+        return DispatchZone.of(ambulance.getLatitude(), ambulance.getLongitude());
+    }
+
+    // Queues an AVAILABLE unit in its zone unless it already holds a place there
+    private void enqueue(Ambulance ambulance) {
+        QueueTicket ticket = new QueueTicket(ambulance.getId(), zoneOf(ambulance));
+        boolean[] moved = {false};
+        QueueTicket current = queueTickets.compute(ambulance.getId(), (id, existing) -> {
+            if (existing != null && existing.zone.equals(ticket.zone)) {
+                return existing;
+            }
+            moved[0] = existing != null;
+            return ticket;
+        });
+        if (current == ticket) {
+            shard(ticket.zone).availableQueue.offer(ticket);
+            if (moved[0]) {
+                countStaleTicket();
+            }
+        }
+    }
+
+    // Invalidates a unit's place in the queue; the entry itself is skipped when reached
+    private void dequeue(Long id) {
+        if (queueTickets.remove(id) != null) {
+            countStaleTicket();
+        }
+    }
+
+    private void countStaleTicket() {
+        if (staleTickets.incrementAndGet() <= queueTickets.size() + STALE_TICKET_SLACK) {
+            return;
+        }
+        for (ZoneShard shard : zones.values()) {
+            shard.availableQueue.removeIf(ticket -> {
+                boolean stale = !isCurrent(ticket);
+                if (stale) {
+                    staleTickets.decrementAndGet();
+                }
+                return stale;
+            });
+        }
+    }
+
+    private boolean isCurrent(QueueTicket ticket) {
+        return queueTickets.get(ticket.ambulanceId) == ticket;
+    }
+
+    private Ambulance copyForCache(Ambulance ambulance) {
+        Ambulance cachedAmbulance = new Ambulance();
+        cachedAmbulance.setId(ambulance.getId());
+        cachedAmbulance.setVersion(ambulance.getVersion());
+        cachedAmbulance.setCurrentLocation(ambulance.getCurrentLocation());
+        cachedAmbulance.setLatitude(ambulance.getLatitude());
+        cachedAmbulance.setLongitude(ambulance.getLongitude());
+        cachedAmbulance.setAvailability(ambulance.getAvailability() != null ?
+            ambulance.getAvailability() : AvailabilityStatus.AVAILABLE);
+        cachedAmbulance.setLicensePlate(ambulance.getLicensePlate());
+        cachedAmbulance.setDriverName(ambulance.getDriverName());
+        cachedAmbulance.setDriverContact(ambulance.getDriverContact());
+        cachedAmbulance.setModel(ambulance.getModel());
+        cachedAmbulance.setYear(ambulance.getYear());
+        cachedAmbulance.setCapacity(ambulance.getCapacity());
+        cachedAmbulance.setCreatedAt(ambulance.getCreatedAt());
+        cachedAmbulance.setUpdatedAt(ambulance.getUpdatedAt());
+        return cachedAmbulance;
+    }
+
     @Override
     public List<Ambulance> getAllAmbulances() {
         if (ambulanceCache.isEmpty()) {
@@ -143,7 +399,7 @@ public class AmbulanceService implements AmbulanceServiceInterface {
             try {
                 ambulance = ambulanceRepository.findById(id).orElse(null);
                 if (ambulance != null) {
-                    ambulanceCache.put(ambulance.getId(), ambulance);
+                    putInCache(ambulance);
                     logger.debug("Added ambulance with ID {} to cache", id);
                 }
             } catch (Exception e) {
@@ -182,19 +438,26 @@ public class AmbulanceService implements AmbulanceServiceInterface {
             throw new IllegalArgumentException("Status cannot be null");
         }
 
+        long start = System.nanoTime();
         try {
             Ambulance ambulance = ambulanceRepository.findById(id)
                 .orElseThrow(() -> new AmbulanceNotFoundException("Ambulance not found with id: " + id));
             
             ambulance.setAvailability(status);
             Ambulance updatedAmbulance = ambulanceRepository.save(ambulance);
-            updateCacheAndQueue(updatedAmbulance);
-            
+            if (status == AvailabilityStatus.AVAILABLE) {
+                // A freed unit is only handed out again once its release is committed
+                PersistenceContexts.afterCommit(() -> updateCacheAndQueue(updatedAmbulance));
+            } else {
+                updateCacheAndQueue(updatedAmbulance);
+            }
+
             logger.info("Updated ambulance {} status to {}", id, status);
         } catch (AmbulanceNotFoundException e) {
             logger.warn("Attempted to update non-existent ambulance with ID: {}", id);
             throw e;
         } catch (ObjectOptimisticLockingFailureException e) {
+            dispatchMetrics.countOptimisticLockFailure();
             logger.error("Optimistic locking failure while updating ambulance {}: {}", id, e.getMessage());
             throw new IllegalStateException("Ambulance was modified by another transaction. Please try again.", e);
         } catch (DataAccessException e) {
@@ -203,60 +466,362 @@ public class AmbulanceService implements AmbulanceServiceInterface {
         } catch (Exception e) {
             logger.error("Unexpected error while updating ambulance status: {}", e.getMessage(), e);
             throw new IllegalStateException("Failed to update ambulance status", e);
+        } finally {
+            dispatchMetrics.record(DispatchMetrics.Operation.STATUS_UPDATE, start);
         }
     }
 
     @Override
     public List<Ambulance> getAvailableAmbulances() {
-        if (availableQueue.isEmpty()) {
+        if (queueTickets.isEmpty()) {
             logger.debug("Available queue is empty, checking for available ambulances...");
             List<Ambulance> available = ambulanceRepository.findByAvailability(AvailabilityStatus.AVAILABLE);
             available.forEach(ambulance -> {
-                if (!availableQueue.contains(ambulance)) {
-                    availableQueue.offer(ambulance);
+                if (isNewerThanCached(ambulance)) {
+                    cacheAmbulance(copyForCache(ambulance));
                 }
             });
             
-            if (availableQueue.isEmpty()) {
+            if (queueTickets.isEmpty()) {
                 logger.warn("No available ambulances found in the system");
             }
         }
-        return new ArrayList<>(availableQueue);
+        List<Ambulance> available = new ArrayList<>();
+        zones.values().forEach(shard -> collectAvailable(shard, available));
+        return available;
+    }
+
+    @Override
+    public List<Ambulance> getAvailableAmbulances(DispatchZone zone) {
+        List<Ambulance> available = new ArrayList<>();
+        ZoneShard shard = zone != null ? zones.get(zone) : null;
+        if (shard != null) {
+            collectAvailable(shard, available);
+        }
+        return available;
+    }
+
+    // Claimed units are dropped from the queue lazily, so filter on the live state
+    private void collectAvailable(ZoneShard shard, List<Ambulance> available) {
+        for (QueueTicket ticket : shard.availableQueue) {
+            Ambulance ambulance = ambulanceCache.get(ticket.ambulanceId);
+            if (ambulance != null && isCurrent(ticket) && isClaimable(ticket.ambulanceId)) {
+                available.add(ambulance);
+            }
+        }
     }
 
     @Override
     public Optional<Ambulance> getNextAvailableAmbulance() {
-        Ambulance ambulance = availableQueue.poll();
-        if (ambulance != null) {
-            // Update the status in the database and cache
-            updateAmbulanceStatus(ambulance.getId(), AvailabilityStatus.DISPATCHED);
+        long startNanos = System.nanoTime();
+        try {
+            // Start at a random zone so callers without a location spread over the zone queues
+            List<ZoneShard> shards = new ArrayList<>(zones.values());
+            int start = shards.isEmpty() ? 0 : ThreadLocalRandom.current().nextInt(shards.size());
+            for (int i = 0; i < shards.size(); i++) {
+                Optional<Ambulance> reserved = pollAvailable(shards.get((start + i) % shards.size()));
+                if (reserved.isPresent()) {
+                    return reserved;
+                }
+            }
+            return Optional.empty();
+        } finally {
+            dispatchMetrics.record(DispatchMetrics.Operation.NEXT_AVAILABLE, startNanos);
         }
-        return Optional.ofNullable(ambulance);
+    }
+
+    private Optional<Ambulance> pollAvailable(ZoneShard shard) {
+        QueueTicket ticket;
+        while ((ticket = shard.availableQueue.poll()) != null) {
+            if (!queueTickets.remove(ticket.ambulanceId, ticket)) {
+                // The unit left the queue after this entry was made
+                staleTickets.decrementAndGet();
+                continue;
+            }
+            // Units already claimed through another path are discarded here
+            Optional<Ambulance> reserved = reserve(ticket.ambulanceId);
+            if (reserved.isPresent()) {
+                return reserved;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Ambulance> getNearestAvailableAmbulance(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return getNextAvailableAmbulance();
+        }
+        long start = System.nanoTime();
+        try {
+            return claimNearest(latitude, longitude);
+        } finally {
+            dispatchMetrics.record(DispatchMetrics.Operation.NEAREST_AVAILABLE, start);
+        }
+    }
+
+    private Optional<Ambulance> claimNearest(double latitude, double longitude) {
+        DispatchZone home = DispatchZone.of(latitude, longitude);
+        ZoneShard homeShard = zones.get(home);
+        Optional<Long> candidate;
+        while (homeShard != null
+                && (candidate = homeShard.availableIndex.nearest(latitude, longitude, this::isClaimable)).isPresent()) {
+            // Losing the CAS means another thread claimed the unit first, so try the next closest one
+            Optional<Ambulance> reserved = reserve(candidate.get());
+            if (reserved.isPresent()) {
+                logger.debug("Claimed nearest available ambulance {} for ({}, {})",
+                        candidate.get(), latitude, longitude);
+                return reserved;
+            }
+        }
+
+        // The home zone has no free unit, so borrow the closest one from the other zones
+        while ((candidate = nearestOutside(home, latitude, longitude)).isPresent()) {
+            Optional<Ambulance> reserved = reserve(candidate.get());
+            if (reserved.isPresent()) {
+                logger.debug("Borrowed ambulance {} from another zone for ({}, {})",
+                        candidate.get(), latitude, longitude);
+                return reserved;
+            }
+        }
+
+        // No positioned unit is free, fall back to units without coordinates
+        return getNextAvailableAmbulance();
+    }
+
+    private Optional<Long> nearestOutside(DispatchZone home, double latitude, double longitude) {
+        Long best = null;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (Map.Entry<DispatchZone, ZoneShard> zone : zones.entrySet()) {
+            if (zone.getKey().equals(home)) {
+                continue;
+            }
+            Optional<Long> nearest = zone.getValue().availableIndex.nearest(latitude, longitude, this::isClaimable);
+            Ambulance unit = nearest.map(ambulanceCache::get).orElse(null);
+            if (unit == null || !unit.hasCoordinates()) {
+                continue;
+            }
+            double distance = GridSpatialIndex.distanceKm(latitude, longitude, unit.getLatitude(), unit.getLongitude());
+            if (distance < bestDistance) {
+                best = unit.getId();
+                bestDistance = distance;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    @Override
+    public Optional<Ambulance> reserveAmbulance(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return reserve(id);
+    }
+
+    /**
+     * Claims an ambulance by moving its state from AVAILABLE to RESERVED and then writes the
+     * DISPATCHED status once. The write is version-checked against the cached copy, so an edit
+     * made outside this cache is noticed and resolved against the database instead.
+     * @return the dispatched ambulance, or empty if another thread owns it or it is no longer available
+     */
+    private Optional<Ambulance> reserve(Long id) {
+        AtomicReference<ReservationState> state = reservationStates.get(id);
+        if (state == null || !state.compareAndSet(ReservationState.AVAILABLE, ReservationState.RESERVED)) {
+            return Optional.empty();
+        }
+        unindexPosition(id);
+
+        Ambulance previous = ambulanceCache.get(id);
+        Ambulance dispatched;
+        try {
+            dispatched = persistDispatch(id, previous, state);
+        } catch (RuntimeException e) {
+            state.compareAndSet(ReservationState.RESERVED, ReservationState.AVAILABLE);
+            updateCacheAndQueue(previous);
+            logger.error("Failed to dispatch ambulance {}: {}", id, e.getMessage(), e);
+            throw new IllegalStateException("Failed to dispatch ambulance " + id, e);
+        }
+
+        if (dispatched == null) {
+            return Optional.empty();
+        }
+
+        state.set(ReservationState.DISPATCHED);
+        updateCacheAndQueue(dispatched);
+        restoreOnRollback(id, previous);
+        logger.info("Updated ambulance {} status to {}", id, AvailabilityStatus.DISPATCHED);
+        return Optional.of(dispatched);
+    }
+
+    /**
+     * Writes the DISPATCHED status for a reserved unit
+     * @return the dispatched ambulance, or null if the database shows it is not available
+     */
+    private Ambulance persistDispatch(Long id, Ambulance cached, AtomicReference<ReservationState> state) {
+        if (cached != null && cached.getVersion() != null) {
+            int updated = ambulanceRepository.updateAmbulanceStatusWithLock(
+                    id, AvailabilityStatus.DISPATCHED, cached.getVersion(), LocalDateTime.now());
+            if (updated == 1) {
+                Ambulance dispatched = copyForCache(cached);
+                dispatched.setAvailability(AvailabilityStatus.DISPATCHED);
+                dispatched.setVersion(cached.getVersion() + 1);
+                return dispatched;
+            }
+            dispatchMetrics.countOptimisticLockFailure();
+        }
+
+        // The cached copy is stale, so re-check the unit against the database
+        logger.debug("Cached copy of ambulance {} is stale, re-reading it", id);
+        Ambulance current = ambulanceRepository.findById(id).orElse(null);
+        if (current == null) {
+            state.set(ReservationState.UNAVAILABLE);
+            evict(id);
+            return null;
+        }
+        if (current.getAvailability() != AvailabilityStatus.AVAILABLE) {
+            // The database disagrees with the cache, adopt its view of the unit
+            state.set(ReservationState.of(current.getAvailability()));
+            updateCacheAndQueue(current);
+            return null;
+        }
+        current.setAvailability(AvailabilityStatus.DISPATCHED);
+        return ambulanceRepository.save(current);
+    }
+
+    // A rolled back dispatch leaves the unit AVAILABLE in the database, so put the cache back too
+    private void restoreOnRollback(Long id, Ambulance previous) {
+        if (previous == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                AtomicReference<ReservationState> state = reservationStates.get(id);
+                if (state != null && state.compareAndSet(ReservationState.DISPATCHED, ReservationState.AVAILABLE)) {
+                    updateCacheAndQueue(previous);
+                    logger.warn("Dispatch of ambulance {} rolled back, returned it to the available pool", id);
+                }
+            }
+        });
+    }
+
+    private boolean isClaimable(Long id) {
+        AtomicReference<ReservationState> state = reservationStates.get(id);
+        return state != null && state.get() == ReservationState.AVAILABLE;
+    }
+
+    /**
+     * Aligns the reservation state with a persisted status. A RESERVED unit is left alone
+     * because its owner sets the outcome of the reservation itself.
+     * @return the state after the update
+     */
+    private ReservationState syncState(Ambulance ambulance) {
+        ReservationState target = ReservationState.of(ambulance.getAvailability());
+        AtomicReference<ReservationState> state =
+                reservationStates.computeIfAbsent(ambulance.getId(), id -> new AtomicReference<>(target));
+        ReservationState current;
+        do {
+            current = state.get();
+            if (current == ReservationState.RESERVED || current == target) {
+                return current;
+            }
+        } while (!state.compareAndSet(current, target));
+        return target;
+    }
+
+    // Moves a unit to the spatial index of its zone, or out of every index if it is not available
+    private void indexPosition(Ambulance ambulance) {
+        boolean positioned = ambulance.getAvailability() == AvailabilityStatus.AVAILABLE && ambulance.hasCoordinates();
+        indexedZones.compute(ambulance.getId(), (id, previous) -> {
+            DispatchZone zone = positioned ? zoneOf(ambulance) : null;
+            if (previous != null && !previous.equals(zone)) {
+                shard(previous).availableIndex.remove(id);
+            }
+            if (zone != null) {
+                shard(zone).availableIndex.put(id, ambulance.getLatitude(), ambulance.getLongitude());
+            }
+            return zone;
+        });
+    }
+
+    private void unindexPosition(Long id) {
+        indexedZones.computeIfPresent(id, (key, zone) -> {
+            shard(zone).availableIndex.remove(key);
+            return null;
+        });
     }
 
     private void updateCacheAndQueue(Ambulance ambulance) {
+        // Let queued requests know a unit has just been freed
+        if (cacheAmbulance(ambulance) && eventPublisher != null) {
+            eventPublisher.publishEvent(new AmbulanceAvailableEvent(ambulance.getId()));
+        }
+    }
+
+    /**
+     * Puts an ambulance into the cache, available queue and spatial index
+     * @return true if the unit has just become claimable
+     */
+    private boolean cacheAmbulance(Ambulance ambulance) {
         if (ambulance == null || ambulance.getId() == null) {
-            return;
+            return false;
         }
 
-        // Update cache
-        ambulanceCache.put(ambulance.getId(), ambulance);
+        // Update cache before the state so a claimant always sees the latest version
+        boolean wasClaimable = isClaimable(ambulance.getId());
+        putInCache(ambulance);
+        ReservationState state = syncState(ambulance);
         
         // Update available queue
-        if (ambulance.getAvailability() == AvailabilityStatus.AVAILABLE) {
-            // Remove if already in queue to avoid duplicates
-            availableQueue.removeIf(a -> a.getId().equals(ambulance.getId()));
-            availableQueue.offer(ambulance);
+        if (state == ReservationState.AVAILABLE) {
+            enqueue(ambulance);
             logger.debug("Added/Updated ambulance {} in available queue", ambulance.getId());
-        } else {
-            boolean removed = availableQueue.removeIf(a -> a.getId().equals(ambulance.getId()));
-            if (removed) {
-                logger.debug("Removed ambulance {} from available queue (new status: {})",
-                        ambulance.getId(), ambulance.getAvailability());
-            }
+        } else if (state != ReservationState.RESERVED) {
+            dequeue(ambulance.getId());
+            logger.debug("Removed ambulance {} from available queue (new status: {})",
+                    ambulance.getId(), ambulance.getAvailability());
+        }
+
+        // Update spatial index
+        if (state != ReservationState.RESERVED) {
+            indexPosition(ambulance);
+        }
+        return state == ReservationState.AVAILABLE && !wasClaimable;
+    }
+
+    /**
+     * Moves a cached unit to a reported position without touching the database. The copy is
+     * swapped under the entry's lock so a status change written at the same time is kept, and
+     * an available unit follows its position into the queue and index of its new zone.
+     * @return false if the ambulance is not in the cache
+     */
+    public boolean updatePosition(Long id, double latitude, double longitude) {
+        if (id == null || refreshWatermark == null) {
+            return false;
+        }
+        Ambulance moved = ambulanceCache.computeIfPresent(id, (key, current) -> {
+            Ambulance copy = copyForCache(current);
+            copy.setLatitude(latitude);
+            copy.setLongitude(longitude);
+            return copy;
+        });
+        if (moved == null) {
+            return false;
         }
+        if (isClaimable(id)) {
+            enqueue(moved);
+            indexPosition(moved);
+        }
+        return true;
     }
 
+    /**
+     * Every ambulance row, soft-deleted ones included. Read from the database because the cache
+     * only knows units retired since startup.
+     */
     @Override
     public long countAllAmbulances() {
         try {
@@ -272,15 +837,16 @@ public class AmbulanceService implements AmbulanceServiceInterface {
         if (status == null) {
             return 0;
         }
+        if (refreshWatermark != null) {
+            return statusBuckets.get(status).size();
+        }
         
         try {
             return ambulanceRepository.countByAvailability(status);
         } catch (Exception e) {
             logger.error("Error counting ambulances by status {}: {}", status, e.getMessage(), e);
             // Fallback to counting in cache
-            return ambulanceCache.values().stream()
-                .filter(a -> status.equals(a.getAvailability()))
-                .count();
+            return statusBuckets.get(status).size();
         }
     }
 
@@ -303,8 +869,7 @@ public class AmbulanceService implements AmbulanceServiceInterface {
             ambulanceRepository.save(ambulance);
             
             // Update cache
-            ambulanceCache.remove(id);
-            availableQueue.removeIf(a -> a.getId().equals(id));
+            retire(ambulance);
             
             logger.info("Soft deleted ambulance with ID: {}", id);
             return true;
@@ -327,6 +892,12 @@ public class AmbulanceService implements AmbulanceServiceInterface {
                 if (ambulanceDetails.getCurrentLocation() != null) {
                     ambulance.setCurrentLocation(ambulanceDetails.getCurrentLocation());
                 }
+                if (ambulanceDetails.getLatitude() != null) {
+                    ambulance.setLatitude(ambulanceDetails.getLatitude());
+                }
+                if (ambulanceDetails.getLongitude() != null) {
+                    ambulance.setLongitude(ambulanceDetails.getLongitude());
+                }
                 if (ambulanceDetails.getAvailability() != null) {
                     ambulance.setAvailability(ambulanceDetails.getAvailability());
                 }
@@ -390,16 +961,22 @@ public class AmbulanceService implements AmbulanceServiceInterface {
         }
 
         try {
-            // First check the cache
-            Optional<Ambulance> cachedAmbulance = ambulanceCache.values().stream()
-                .filter(a -> licensePlate.equalsIgnoreCase(a.getLicensePlate()))
-                .findFirst();
-
-            if (cachedAmbulance.isPresent()) {
-                return cachedAmbulance;
+            // First check the plate index, which covers live and soft-deleted units
+            Long id = plateIndex.get(plateKey(licensePlate));
+            if (id != null) {
+                Ambulance cachedAmbulance = ambulanceCache.get(id);
+                if (cachedAmbulance == null) {
+                    cachedAmbulance = retiredAmbulances.get(id);
+                }
+                if (cachedAmbulance != null) {
+                    return Optional.of(cachedAmbulance);
+                }
             }
 
-            // If not in cache, check the database
+            // Once the fleet is loaded the index is complete, so a miss needs no database check
+            if (refreshWatermark != null) {
+                return Optional.empty();
+            }
             return ambulanceRepository.findByLicensePlate(licensePlate);
         } catch (Exception e) {
             logger.error("Error finding ambulance by license plate {}: {}", licensePlate, e.getMessage(), e);
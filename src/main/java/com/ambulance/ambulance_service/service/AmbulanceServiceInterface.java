@@ -18,8 +18,31 @@ public interface AmbulanceServiceInterface {
 
     List<Ambulance> getAvailableAmbulances();
 
+    /**
+     * @param zone the dispatch zone
+     * @return the available ambulances positioned in that zone, or without coordinates for {@link DispatchZone#UNZONED}
+     */
+    List<Ambulance> getAvailableAmbulances(DispatchZone zone);
+
     Optional<Ambulance> getNextAvailableAmbulance();
 
+    /**
+     * Claims the available ambulance closest to the given point within its dispatch zone. Units
+     * from other zones are only borrowed when the zone has none free, and the longest-waiting
+     * unit is used when no positioned ambulance is free or no point is given
+     * @param latitude latitude of the incident, may be null
+     * @param longitude longitude of the incident, may be null
+     * @return the dispatched ambulance, or empty if none is available
+     */
+    Optional<Ambulance> getNearestAvailableAmbulance(Double latitude, Double longitude);
+
+    /**
+     * Claims a specific ambulance if it is still available
+     * @param id the ambulance to claim
+     * @return the dispatched ambulance, or empty if it has already been claimed or is not available
+     */
+    Optional<Ambulance> reserveAmbulance(Long id);
+
     // Count methods for admin dashboard
     long countAllAmbulances();
 
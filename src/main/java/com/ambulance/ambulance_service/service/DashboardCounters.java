@@ -0,0 +1,121 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.RequestStatus;
+import com.ambulance.ambulance_service.repository.PatientRepository;
+import com.ambulance.ambulance_service.repository.RequestRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request and patient totals for the admin dashboard, kept in memory so that reading them
+ * costs no SQL. The services report each change, applied once its transaction commits. The
+ * totals are seeded from the database at startup and checked against it every ten minutes,
+ * which also corrects changes made behind the services' back.
+ */
+@Component
+public class DashboardCounters {
+    private static final Logger logger = LoggerFactory.getLogger(DashboardCounters.class);
+    private static final long RECONCILE_INTERVAL = 600000; // 10 minutes in milliseconds
+
+    private final RequestRepository requestRepository;
+    private final PatientRepository patientRepository;
+    // Filled for every status up front, so the map itself is never written after construction
+    private final Map<RequestStatus, LongAdder> requestsByStatus = new EnumMap<>(RequestStatus.class);
+    private final LongAdder patients = new LongAdder();
+
+    @Autowired
+    public DashboardCounters(RequestRepository requestRepository, PatientRepository patientRepository) {
+        this.requestRepository = requestRepository;
+        this.patientRepository = patientRepository;
+        for (RequestStatus status : RequestStatus.values()) {
+            requestsByStatus.put(status, new LongAdder());
+        }
+    }
+
+    /**
+     * Moves the counts to the database totals. A change committed while the totals are read
+     * may be counted twice or not at all; the next pass puts it right.
+     */
+    @PostConstruct
+    @Scheduled(initialDelay = RECONCILE_INTERVAL, fixedDelay = RECONCILE_INTERVAL)
+    public void reconcile() {
+        try {
+            Map<RequestStatus, Long> stored = new EnumMap<>(RequestStatus.class);
+            for (Object[] row : requestRepository.countGroupedByStatus()) {
+                if (row[0] != null) {
+                    stored.put((RequestStatus) row[0], (Long) row[1]);
+                }
+            }
+            long drift = 0;
+            for (Map.Entry<RequestStatus, LongAdder> count : requestsByStatus.entrySet()) {
+                drift += correct(count.getValue(), stored.getOrDefault(count.getKey(), 0L));
+            }
+            drift += correct(patients, patientRepository.countByDeletedFalse());
+            if (drift != 0) {
+                logger.info("Dashboard counters corrected by {} against the database", drift);
+            }
+        } catch (DataAccessException e) {
+            // Keep serving the counts we have
+            logger.error("Failed to reconcile dashboard counters: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Records a request moving between statuses; a null old status means the request is new
+     * and a null new status that it was removed
+     */
+    public void requestTransition(RequestStatus oldStatus, RequestStatus newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        PersistenceContexts.afterCommit(() -> {
+            if (oldStatus != null) {
+                requestsByStatus.get(oldStatus).decrement();
+            }
+            if (newStatus != null) {
+                requestsByStatus.get(newStatus).increment();
+            }
+        });
+    }
+
+    /**
+     * Records patients being added, or removed when the delta is negative
+     */
+    public void patientsChanged(long delta) {
+        if (delta != 0) {
+            PersistenceContexts.afterCommit(() -> patients.add(delta));
+        }
+    }
+
+    public long countRequests() {
+        long total = 0;
+        for (LongAdder count : requestsByStatus.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    public long countRequests(RequestStatus status) {
+        return status != null ? requestsByStatus.get(status).sum() : 0;
+    }
+
+    public long countPatients() {
+        return patients.sum();
+    }
+
+    // Adding the difference keeps increments that land between the read and the write
+    private static long correct(LongAdder count, long stored) {
+        long drift = stored - count.sum();
+        count.add(drift);
+        return Math.abs(drift);
+    }
+}
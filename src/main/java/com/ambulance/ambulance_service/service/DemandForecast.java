@@ -0,0 +1,86 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.repository.RequestRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Expected calls per zone and hour of day, counted from the last four weeks of requests.
+ * New calls are counted as they come in; the counts are rebuilt from the database once a
+ * day so that calls older than the window drop out.
+ */
+@Component
+public class DemandForecast {
+    private static final Logger logger = LoggerFactory.getLogger(DemandForecast.class);
+    static final int HISTORY_DAYS = 28; // whole weeks, so every weekday counts the same
+    private static final long REBUILD_INTERVAL = 86400000; // 1 day in milliseconds
+
+    private final RequestRepository requestRepository;
+    private volatile Map<DispatchZone, AtomicLongArray> callsByZone = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DemandForecast(RequestRepository requestRepository) {
+        this.requestRepository = requestRepository;
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelay = REBUILD_INTERVAL, fixedDelay = REBUILD_INTERVAL)
+    public void rebuild() {
+        try {
+            Map<DispatchZone, AtomicLongArray> counts = new ConcurrentHashMap<>();
+            int calls = 0;
+            for (Object[] call : requestRepository.findCallLocationsSince(LocalDateTime.now().minusDays(HISTORY_DAYS))) {
+                count(counts, DispatchZone.of((Double) call[0], (Double) call[1]), (LocalDateTime) call[2]);
+                calls++;
+            }
+            callsByZone = counts;
+            logger.info("Demand forecast rebuilt from {} calls in {} zones", calls, counts.size());
+        } catch (DataAccessException e) {
+            // Keep forecasting from the counts we have
+            logger.error("Failed to rebuild demand forecast: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Counts a new call towards its zone and hour
+     */
+    public void recordCall(Request request) {
+        if (request != null) {
+            count(callsByZone, DispatchZone.of(request.getLatitude(), request.getLongitude()), request.getRequestTime());
+        }
+    }
+
+    /**
+     * @return the average number of calls per day each zone receives in the given hour;
+     *         zones without calls in that hour are left out
+     */
+    public Map<DispatchZone, Double> expectedCalls(int hour) {
+        Map<DispatchZone, Double> expected = new HashMap<>();
+        callsByZone.forEach((zone, hours) -> {
+            long calls = hours.get(hour);
+            if (calls > 0) {
+                expected.put(zone, (double) calls / HISTORY_DAYS);
+            }
+        });
+        return expected;
+    }
+
+    private static void count(Map<DispatchZone, AtomicLongArray> counts, DispatchZone zone, LocalDateTime time) {
+        if (!zone.isZoned() || time == null) {
+            return;
+        }
+        counts.computeIfAbsent(zone, z -> new AtomicLongArray(24)).incrementAndGet(time.getHour());
+    }
+}
@@ -0,0 +1,89 @@
+package com.ambulance.ambulance_service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the dispatch path, shared by the services that make it up. Timers publish a
+ * percentile histogram as well as p50/p90/p99, so a slow stage shows up under load in
+ * /actuator/metrics without a profiler.
+ */
+@Component
+public class DispatchMetrics {
+
+    /**
+     * The timed stages of dispatch
+     */
+    public enum Operation {
+        CREATE_REQUEST("ambulance.request.create", "Time taken to take in one emergency call"),
+        PROCESS_QUEUED("ambulance.request.process_queued", "Time taken to sweep the pending requests"),
+        NEXT_AVAILABLE("ambulance.fleet.next_available", "Time taken to claim the next free unit"),
+        NEAREST_AVAILABLE("ambulance.fleet.nearest_available", "Time taken to claim the nearest free unit"),
+        STATUS_UPDATE("ambulance.fleet.status_update", "Time taken to change the status of a unit"),
+        CACHE_REFRESH("ambulance.fleet.cache_refresh", "Time taken to refresh the fleet cache");
+
+        private final String meterName;
+        private final String description;
+
+        Operation(String meterName, String description) {
+            this.meterName = meterName;
+            this.description = description;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Operation, Timer> timers = new EnumMap<>(Operation.class);
+    private final Counter optimisticLockFailures;
+    private final Counter fallbacksToPending;
+
+    @Autowired
+    public DispatchMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Operation operation : Operation.values()) {
+            timers.put(operation, Timer.builder(operation.meterName)
+                    .description(operation.description)
+                    .publishPercentiles(0.5, 0.9, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        this.optimisticLockFailures = Counter.builder("ambulance.fleet.optimistic_lock_failures")
+                .description("Unit writes that lost to a concurrent change of the same unit")
+                .register(meterRegistry);
+        this.fallbacksToPending = Counter.builder("ambulance.request.pending_fallbacks")
+                .description("Calls taken in without a free unit and queued as PENDING")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a stage that started at the given {@link System#nanoTime()}
+     */
+    public void record(Operation operation, long startNanos) {
+        timers.get(operation).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void countOptimisticLockFailure() {
+        optimisticLockFailures.increment();
+    }
+
+    public void countFallbackToPending() {
+        fallbacksToPending.increment();
+    }
+
+    /**
+     * Registers a gauge that reads its value on each scrape
+     */
+    public void gauge(String name, String description, Supplier<Number> value) {
+        Gauge.builder(name, value)
+                .description(description)
+                .register(meterRegistry);
+    }
+}
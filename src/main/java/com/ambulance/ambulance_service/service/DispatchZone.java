@@ -0,0 +1,78 @@
+package com.ambulance.ambulance_service.service;
+
+/**
+ * Coarse square of the city used to shard dispatch. Ambulances and pending requests are
+ * kept per zone so that intake in different parts of the city works on separate queues;
+ * locations without coordinates all fall into {@link #UNZONED}.
+ */
+public final class DispatchZone {
+    public static final double ZONE_SIZE_DEGREES = 0.1; // roughly 11km squares
+    public static final DispatchZone UNZONED = new DispatchZone(Integer.MIN_VALUE, Integer.MIN_VALUE);
+
+    private final int row;
+    private final int column;
+
+    private DispatchZone(int row, int column) {
+        this.row = row;
+        this.column = column;
+    }
+
+    /**
+     * @return the zone containing the location, or {@link #UNZONED} if either coordinate is missing
+     */
+    public static DispatchZone of(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return UNZONED;
+        }
+        return new DispatchZone(
+                (int) Math.floor(latitude / ZONE_SIZE_DEGREES),
+                (int) Math.floor(longitude / ZONE_SIZE_DEGREES));
+    }
+
+    public boolean isZoned() {
+        return this != UNZONED;
+    }
+
+    /**
+     * Great-circle distance from a point to the centre of this zone
+     * @return the distance in kilometres, or infinity for {@link #UNZONED}
+     */
+    public double distanceKm(double latitude, double longitude) {
+        if (!isZoned()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return GridSpatialIndex.distanceKm(latitude, longitude, centerLatitude(), centerLongitude());
+    }
+
+    /**
+     * @return the latitude of the centre of this zone; meaningless for {@link #UNZONED}
+     */
+    public double centerLatitude() {
+        return (row + 0.5) * ZONE_SIZE_DEGREES;
+    }
+
+    /**
+     * @return the longitude of the centre of this zone; meaningless for {@link #UNZONED}
+     */
+    public double centerLongitude() {
+        return (column + 0.5) * ZONE_SIZE_DEGREES;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DispatchZone that = (DispatchZone) o;
+        return row == that.row && column == that.column;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * row + column;
+    }
+
+    @Override
+    public String toString() {
+        return isZoned() ? "DispatchZone{" + row + ", " + column + "}" : "DispatchZone{unzoned}";
+    }
+}
@@ -0,0 +1,189 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.Ambulance;
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.repository.ServiceHistoryRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Predicts how long a unit takes to reach a call, learned from past dispatch-to-arrival
+ * times. Trips are averaged per origin zone, destination zone and hour of day, and every
+ * recorded arrival updates its averages straight away. A bucket with too few trips falls
+ * back to the same zones at any hour, then to the fleet-wide pace per kilometre.
+ */
+@Component
+public class EtaModel {
+    private static final Logger logger = LoggerFactory.getLogger(EtaModel.class);
+    private static final int MIN_SAMPLES = 3; // trips before an average is trusted
+    private static final double MIN_WEIGHT = 0.05; // newest trip's minimum weight, so averages follow traffic changes
+    private static final int HISTORY_DAYS = 90; // trips loaded at startup
+    private static final double DEFAULT_SECONDS_PER_KM = 90.0; // 40 km/h until trips have been recorded
+    private static final long MAX_TRIP_SECONDS = 4 * 3600; // longer trips are arrivals marked late, not travel
+
+    private final ServiceHistoryRepository serviceHistoryRepository;
+    private final Map<Bucket, RunningAverage> buckets = new ConcurrentHashMap<>();
+    private final Map<Bucket, RunningAverage> zonePairs = new ConcurrentHashMap<>();
+    private final RunningAverage secondsPerKm = new RunningAverage();
+
+    @Autowired
+    public EtaModel(ServiceHistoryRepository serviceHistoryRepository) {
+        this.serviceHistoryRepository = serviceHistoryRepository;
+    }
+
+    @PostConstruct
+    public void loadHistory() {
+        try {
+            int loaded = 0;
+            for (Object[] trip : serviceHistoryRepository.findTravelTimesSince(
+                    LocalDateTime.now().minusDays(HISTORY_DAYS))) {
+                if (record((Double) trip[0], (Double) trip[1], (Double) trip[2], (Double) trip[3],
+                        (LocalDateTime) trip[4], (LocalDateTime) trip[5])) {
+                    loaded++;
+                }
+            }
+            logger.info("ETA model loaded {} trips into {} buckets", loaded, buckets.size());
+        } catch (DataAccessException e) {
+            // Estimates fall back to the default pace until arrivals are recorded
+            logger.error("Failed to load trip history for ETA model: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Learns from a unit reaching a call once the arrival commits, so a rolled back update
+     * teaches the model nothing; requests without a recorded dispatch position are ignored
+     */
+    public void recordArrival(Request request, LocalDateTime arrivalTime) {
+        if (request == null) {
+            return;
+        }
+        // Read now, while the request is still attached
+        Double fromLatitude = request.getDispatchLatitude();
+        Double fromLongitude = request.getDispatchLongitude();
+        Double toLatitude = request.getLatitude();
+        Double toLongitude = request.getLongitude();
+        LocalDateTime dispatchTime = request.getDispatchTime();
+        PersistenceContexts.afterCommit(() ->
+                record(fromLatitude, fromLongitude, toLatitude, toLongitude, dispatchTime, arrivalTime));
+    }
+
+    /**
+     * @return the expected travel time of the unit to the call, or empty if either has no coordinates
+     */
+    public Optional<Duration> estimate(Ambulance ambulance, Request request, LocalDateTime departure) {
+        if (ambulance == null || request == null) {
+            return Optional.empty();
+        }
+        return estimate(ambulance.getLatitude(), ambulance.getLongitude(),
+                request.getLatitude(), request.getLongitude(), departure);
+    }
+
+    public Optional<Duration> estimate(Double fromLatitude, Double fromLongitude,
+                                       Double toLatitude, Double toLongitude, LocalDateTime departure) {
+        if (fromLatitude == null || fromLongitude == null || toLatitude == null || toLongitude == null) {
+            return Optional.empty();
+        }
+        DispatchZone origin = DispatchZone.of(fromLatitude, fromLongitude);
+        DispatchZone destination = DispatchZone.of(toLatitude, toLongitude);
+        int hour = (departure != null ? departure : LocalDateTime.now()).getHour();
+
+        double seconds = averageOf(buckets.get(new Bucket(origin, destination, hour)));
+        if (Double.isNaN(seconds)) {
+            seconds = averageOf(zonePairs.get(new Bucket(origin, destination, -1)));
+        }
+        if (Double.isNaN(seconds)) {
+            double pace = averageOf(secondsPerKm);
+            seconds = GridSpatialIndex.distanceKm(fromLatitude, fromLongitude, toLatitude, toLongitude)
+                    * (Double.isNaN(pace) ? DEFAULT_SECONDS_PER_KM : pace);
+        }
+        return Optional.of(Duration.ofSeconds(Math.round(seconds)));
+    }
+
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    // Adds one trip to its averages; returns false for trips that cannot be used
+    boolean record(Double fromLatitude, Double fromLongitude, Double toLatitude, Double toLongitude,
+                   LocalDateTime dispatchTime, LocalDateTime arrivalTime) {
+        if (fromLatitude == null || fromLongitude == null || toLatitude == null || toLongitude == null
+                || dispatchTime == null || arrivalTime == null) {
+            return false;
+        }
+        long seconds = Duration.between(dispatchTime, arrivalTime).getSeconds();
+        if (seconds <= 0 || seconds > MAX_TRIP_SECONDS) {
+            return false;
+        }
+        DispatchZone origin = DispatchZone.of(fromLatitude, fromLongitude);
+        DispatchZone destination = DispatchZone.of(toLatitude, toLongitude);
+        buckets.computeIfAbsent(new Bucket(origin, destination, dispatchTime.getHour()), bucket -> new RunningAverage())
+                .add(seconds);
+        zonePairs.computeIfAbsent(new Bucket(origin, destination, -1), bucket -> new RunningAverage())
+                .add(seconds);
+        double km = GridSpatialIndex.distanceKm(fromLatitude, fromLongitude, toLatitude, toLongitude);
+        if (km >= 0.5) {
+            // Very short trips are mostly turnout time and would skew the pace
+            secondsPerKm.add(seconds / km);
+        }
+        return true;
+    }
+
+    private static double averageOf(RunningAverage average) {
+        return average != null ? average.valueIfTrusted() : Double.NaN;
+    }
+
+    /**
+     * Mean of the recorded values that gives the newest at least {@link #MIN_WEIGHT}, so old
+     * trips fade out once a bucket has more than a handful
+     */
+    private static final class RunningAverage {
+        private long count;
+        private double mean;
+
+        synchronized void add(double value) {
+            count++;
+            mean += (value - mean) * Math.max(1.0 / count, MIN_WEIGHT);
+        }
+
+        synchronized double valueIfTrusted() {
+            return count >= MIN_SAMPLES ? mean : Double.NaN;
+        }
+    }
+
+    // An hour of -1 stands for any hour
+    private static final class Bucket {
+        private final DispatchZone origin;
+        private final DispatchZone destination;
+        private final int hour;
+
+        private Bucket(DispatchZone origin, DispatchZone destination, int hour) {
+            this.origin = origin;
+            this.destination = destination;
+            this.hour = hour;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Bucket that = (Bucket) o;
+            return hour == that.hour && origin.equals(that.origin) && destination.equals(that.destination);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(origin, destination, hour);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.ambulance.ambulance_service.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Uniform latitude/longitude grid used to find the nearest point to a location
+ * without scanning every entry. Lookups search outwards ring by ring from the
+ * query cell and stop as soon as no unvisited cell can hold a closer point.
+ * All operations are thread-safe; updates for the same id are expected to be
+ * serialized by the caller.
+ */
+public class GridSpatialIndex {
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    private final double cellSizeDegrees;
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, double[]> positions = new ConcurrentHashMap<>();
+
+    public GridSpatialIndex(double cellSizeDegrees) {
+        if (cellSizeDegrees <= 0 || cellSizeDegrees > 90) {
+            throw new IllegalArgumentException("Cell size must be between 0 and 90 degrees");
+        }
+        this.cellSizeDegrees = cellSizeDegrees;
+    }
+
+    /**
+     * Adds an entry or moves it to a new position
+     */
+    public void put(Long id, double latitude, double longitude) {
+        double[] position = {latitude, longitude};
+        double[] previous = positions.put(id, position);
+        long cell = cellKey(latitude, longitude);
+        if (previous != null) {
+            long previousCell = cellKey(previous[0], previous[1]);
+            if (previousCell == cell) {
+                return;
+            }
+            removeFromCell(previousCell, id);
+        }
+        cells.compute(cell, (k, ids) -> {
+            Set<Long> members = ids != null ? ids : ConcurrentHashMap.<Long>newKeySet();
+            members.add(id);
+            return members;
+        });
+    }
+
+    /**
+     * Removes an entry
+     * @return true if this call removed the entry, false if it was not indexed
+     */
+    public boolean remove(Long id) {
+        double[] previous = positions.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        removeFromCell(cellKey(previous[0], previous[1]), id);
+        return true;
+    }
+
+    public boolean contains(Long id) {
+        return positions.containsKey(id);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    public void clear() {
+        positions.clear();
+        cells.clear();
+    }
+
+    /**
+     * Finds the entry closest to the given point by great-circle distance
+     * @return the id of the nearest entry, or empty if the index is empty
+     */
+    public Optional<Long> nearest(double latitude, double longitude) {
+        return nearest(latitude, longitude, id -> true);
+    }
+
+    /**
+     * Finds the closest entry that the filter accepts; rejected entries are skipped as if absent
+     * @return the id of the nearest accepted entry, or empty if there is none
+     */
+    public Optional<Long> nearest(double latitude, double longitude, Predicate<Long> filter) {
+        if (positions.isEmpty()) {
+            return Optional.empty();
+        }
+
+        int row = row(latitude);
+        int col = col(longitude);
+        double kmPerCell = cellSizeDegrees * KM_PER_DEGREE;
+        int maxRing = (int) Math.ceil(360.0 / cellSizeDegrees);
+
+        Long bestId = null;
+        double bestDistance = Double.MAX_VALUE;
+        long cellsVisited = 0;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int dr = -ring; dr <= ring; dr++) {
+                boolean edgeRow = Math.abs(dr) == ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int dc = -ring; dc <= ring; dc += step) {
+                    cellsVisited++;
+                    Set<Long> ids = cells.get(pack(row + dr, col + dc));
+                    if (ids == null) {
+                        continue;
+                    }
+                    for (Long id : ids) {
+                        double[] position = positions.get(id);
+                        if (position == null) {
+                            continue;
+                        }
+                        double distance = distanceKm(latitude, longitude, position[0], position[1]);
+                        if (distance < bestDistance && filter.test(id)) {
+                            bestDistance = distance;
+                            bestId = id;
+                        }
+                    }
+                }
+            }
+
+            // Every point in the next ring is at least `ring` whole cells away along one axis
+            double lowerBound = ring * kmPerCell * lngScale(latitude, ring) * 0.99;
+            if (bestId != null && bestDistance <= lowerBound) {
+                break;
+            }
+
+            // A sparse index is cheaper to scan directly than to keep widening the search
+            if (cellsVisited > cells.size() + positions.size()) {
+                return nearestByScan(latitude, longitude, filter);
+            }
+        }
+        return Optional.ofNullable(bestId);
+    }
+
+    private Optional<Long> nearestByScan(double latitude, double longitude, Predicate<Long> filter) {
+        Long bestId = null;
+        double bestDistance = Double.MAX_VALUE;
+        for (Map.Entry<Long, double[]> entry : positions.entrySet()) {
+            double[] position = entry.getValue();
+            double distance = distanceKm(latitude, longitude, position[0], position[1]);
+            if (distance < bestDistance && filter.test(entry.getKey())) {
+                bestDistance = distance;
+                bestId = entry.getKey();
+            }
+        }
+        return Optional.ofNullable(bestId);
+    }
+
+    /**
+     * Great-circle distance between two points using the haversine formula
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    // Longitude degrees shrink towards the poles, so scale by the highest latitude the ring can reach
+    private double lngScale(double latitude, int ring) {
+        double maxLatitude = Math.min(89.0, Math.abs(latitude) + (ring + 1) * cellSizeDegrees);
+        return Math.cos(Math.toRadians(maxLatitude));
+    }
+
+    private void removeFromCell(long cell, Long id) {
+        cells.computeIfPresent(cell, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return pack(row(latitude), col(longitude));
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90.0) / cellSizeDegrees);
+    }
+
+    private int col(double longitude) {
+        return (int) Math.floor((longitude + 180.0) / cellSizeDegrees);
+    }
+
+    private static long pack(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
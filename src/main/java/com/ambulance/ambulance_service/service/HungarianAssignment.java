@@ -0,0 +1,131 @@
+package com.ambulance.ambulance_service.service;
+
+import java.util.Arrays;
+
+/**
+ * Minimum-cost assignment of rows to columns (Hungarian algorithm with potentials).
+ * Runs in O(n^2 * m) for n rows and m columns, n <= m; wider-than-tall inputs are
+ * solved on their transpose.
+ */
+public final class HungarianAssignment {
+
+    private HungarianAssignment() {
+    }
+
+    /**
+     * Assigns every row to a distinct column so that the total cost is minimal. When there
+     * are more rows than columns, only as many rows as there are columns are assigned.
+     * @param cost rectangular cost matrix, indexed [row][column]; all values must be finite
+     * @return the column assigned to each row, or -1 for an unassigned row
+     */
+    public static int[] solve(double[][] cost) {
+        int rows = cost.length;
+        if (rows == 0) {
+            return new int[0];
+        }
+        int columns = cost[0].length;
+        for (double[] row : cost) {
+            if (row.length != columns) {
+                throw new IllegalArgumentException("Cost matrix must be rectangular");
+            }
+        }
+        if (columns == 0) {
+            int[] unassigned = new int[rows];
+            Arrays.fill(unassigned, -1);
+            return unassigned;
+        }
+        if (rows <= columns) {
+            return solveTall(cost, rows, columns);
+        }
+
+        // More rows than columns: assign columns to rows instead and invert the result
+        double[][] transposed = new double[columns][rows];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                transposed[j][i] = cost[i][j];
+            }
+        }
+        int[] columnToRow = solveTall(transposed, columns, rows);
+        int[] rowToColumn = new int[rows];
+        Arrays.fill(rowToColumn, -1);
+        for (int j = 0; j < columns; j++) {
+            rowToColumn[columnToRow[j]] = j;
+        }
+        return rowToColumn;
+    }
+
+    /**
+     * Total cost of an assignment returned by {@link #solve}
+     */
+    public static double totalCost(double[][] cost, int[] assignment) {
+        double total = 0;
+        for (int i = 0; i < assignment.length; i++) {
+            if (assignment[i] >= 0) {
+                total += cost[i][assignment[i]];
+            }
+        }
+        return total;
+    }
+
+    // Shortest augmenting path per row, keeping row and column potentials (1-based internally)
+    private static int[] solveTall(double[][] cost, int n, int m) {
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] match = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minValue = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            match[0] = i;
+            int j0 = 0;
+            Arrays.fill(minValue, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = match[j0];
+                double[] costRow = cost[i0 - 1];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        double reduced = costRow[j - 1] - u[i0] - v[j];
+                        if (reduced < minValue[j]) {
+                            minValue[j] = reduced;
+                            way[j] = j0;
+                        }
+                        if (minValue[j] < delta) {
+                            delta = minValue[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[match[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minValue[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (match[j0] != 0);
+
+            // Flip the augmenting path
+            do {
+                int j1 = way[j0];
+                match[j0] = match[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] assignment = new int[n];
+        Arrays.fill(assignment, -1);
+        for (int j = 1; j <= m; j++) {
+            if (match[j] != 0) {
+                assignment[match[j] - 1] = j - 1;
+            }
+        }
+        return assignment;
+    }
+}
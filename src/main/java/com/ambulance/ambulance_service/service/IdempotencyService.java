@@ -0,0 +1,285 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.exception.IdempotencyKeyException;
+import com.ambulance.ambulance_service.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a submission at most once per idempotency key and replays its response to retries.
+ * Keys live in a bounded in-memory map that expires them after a day, backed by the
+ * idempotency_keys table so that retries survive a restart or land on another instance.
+ * A retry that arrives while the first submission is still running waits for its response
+ * instead of running it again. Only successful responses are kept; a failed submission
+ * frees the key so the client can retry it.
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_ENTRIES = 10000; // keys held in memory
+    private static final Duration KEY_TTL = Duration.ofHours(24);
+    private static final long IN_FLIGHT_WAIT_SECONDS = 30; // how long a retry waits for the original
+    private static final long PURGE_INTERVAL = 3600000; // 1 hour in milliseconds
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Keys in the order they were added; with a fixed TTL this is also the order they expire in
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository recordRepository, JdbcTemplate jdbcTemplate,
+                              ObjectMapper objectMapper) {
+        this.recordRepository = recordRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Runs the action for the first submission of a key and replays its response afterwards
+     * @param key the client's idempotency key
+     * @param payload the submitted body; a retry must send the same body
+     * @param action produces the response for the first submission
+     * @throws IdempotencyKeyException if the key is invalid, was used for another body, or the
+     *         original submission has not finished in time
+     */
+    public ResponseEntity<?> execute(String key, Object payload, Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IdempotencyKeyException(HttpStatus.BAD_REQUEST,
+                    HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String fingerprint = fingerprint(payload);
+
+        while (true) {
+            Entry mine = new Entry(fingerprint, LocalDateTime.now().plus(KEY_TTL));
+            Entry existing = entries.putIfAbsent(key, mine);
+            if (existing != null) {
+                if (existing.isExpired()) {
+                    entries.remove(key, existing);
+                    continue;
+                }
+                if (!existing.fingerprint.equals(fingerprint)) {
+                    throw mismatch(key);
+                }
+                StoredResponse stored = await(key, existing, fingerprint);
+                if (stored == null) {
+                    // The original submission failed and freed the key; try to take it over
+                    continue;
+                }
+                return replay(stored);
+            }
+
+            insertionOrder.add(key);
+            evictOverflow();
+            return runFirst(key, mine, fingerprint, action);
+        }
+    }
+
+    @Scheduled(fixedDelay = PURGE_INTERVAL)
+    public void purgeExpired() {
+        entries.entrySet().removeIf(entry -> entry.getValue().isExpired());
+        try {
+            int purged = recordRepository.deleteExpired(LocalDateTime.now());
+            if (purged > 0) {
+                logger.debug("Purged {} expired idempotency keys", purged);
+            }
+        } catch (DataAccessException e) {
+            logger.error("Failed to purge expired idempotency keys: {}", e.getMessage(), e);
+        }
+    }
+
+    public int getCachedKeyCount() {
+        return entries.size();
+    }
+
+    private ResponseEntity<?> runFirst(String key, Entry mine, String fingerprint,
+                                       Supplier<ResponseEntity<?>> action) {
+        // Another instance, or this one before a restart, may already have answered this key
+        StoredResponse persisted = findPersisted(key);
+        if (persisted != null) {
+            mine.result.complete(persisted);
+            if (!persisted.fingerprint.equals(fingerprint)) {
+                // The entry holds this body's fingerprint, so leaving it would refuse the original body
+                entries.remove(key, mine);
+                throw mismatch(key);
+            }
+            return replay(persisted);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(key, mine);
+            throw e;
+        }
+        if (response == null || !response.getStatusCode().is2xxSuccessful()) {
+            release(key, mine);
+            return response;
+        }
+
+        StoredResponse stored;
+        try {
+            stored = new StoredResponse(fingerprint, response.getStatusCode().value(),
+                    objectMapper.writeValueAsString(response.getBody()));
+        } catch (JsonProcessingException e) {
+            logger.error("Could not store the response for idempotency key {}: {}", key, e.getMessage(), e);
+            release(key, mine);
+            return response;
+        }
+        mine.result.complete(stored);
+        persist(key, mine, stored);
+        return response;
+    }
+
+    private StoredResponse await(String key, Entry existing, String fingerprint) {
+        StoredResponse stored;
+        try {
+            stored = existing.result.get(IN_FLIGHT_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyException(HttpStatus.CONFLICT,
+                    "A request with this " + HEADER + " is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyException(HttpStatus.CONFLICT,
+                    "Interrupted while waiting for the original request");
+        } catch (ExecutionException e) {
+            return null;
+        }
+        if (stored != null && !stored.fingerprint.equals(fingerprint)) {
+            throw mismatch(key);
+        }
+        return stored;
+    }
+
+    // Frees the key after a failed first submission; waiting retries then run it themselves
+    private void release(String key, Entry mine) {
+        entries.remove(key, mine);
+        mine.result.complete(null);
+    }
+
+    private StoredResponse findPersisted(String key) {
+        try {
+            return recordRepository.findById(key)
+                    .filter(record -> record.getExpiresAt().isAfter(LocalDateTime.now()))
+                    .map(record -> new StoredResponse(record.getFingerprint(), record.getResponseStatus(),
+                            record.getResponseBody()))
+                    .orElse(null);
+        } catch (DataAccessException e) {
+            // Fall back to memory only; the in-flight entry still stops retries on this instance
+            logger.error("Failed to look up idempotency key {}: {}", key, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private void persist(String key, Entry entry, StoredResponse stored) {
+        try {
+            // A plain insert: if another instance stored the key first, its response stands
+            jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, fingerprint, response_status, "
+                            + "response_body, created_at, expires_at) VALUES (?, ?, ?, ?, ?, ?)",
+                    key, stored.fingerprint, stored.status, stored.body,
+                    Timestamp.valueOf(LocalDateTime.now()), Timestamp.valueOf(entry.expiresAt));
+        } catch (DataAccessException e) {
+            // The response is still replayed from memory on this instance
+            logger.error("Failed to persist idempotency key {}: {}", key, e.getMessage(), e);
+        }
+    }
+
+    // Drops the oldest finished keys once the map is over its bound; in-flight keys are kept
+    private void evictOverflow() {
+        int attempts = insertionOrder.size();
+        while (entries.size() > MAX_ENTRIES && attempts-- > 0) {
+            String oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            Entry entry = entries.get(oldest);
+            if (entry != null && !entry.result.isDone()) {
+                insertionOrder.add(oldest);
+                continue;
+            }
+            if (entry != null) {
+                entries.remove(oldest, entry);
+            }
+        }
+    }
+
+    private ResponseEntity<String> replay(StoredResponse stored) {
+        return ResponseEntity.status(stored.status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.body);
+    }
+
+    private IdempotencyKeyException mismatch(String key) {
+        return new IdempotencyKeyException(HttpStatus.UNPROCESSABLE_ENTITY,
+                HEADER + " " + key + " was already used for a different request");
+    }
+
+    private String fingerprint(Object payload) {
+        try {
+            byte[] body = objectMapper.writeValueAsString(payload).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint the request body", e);
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final LocalDateTime expiresAt;
+        private final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+
+        private Entry(String fingerprint, LocalDateTime expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return expiresAt.isBefore(LocalDateTime.now());
+        }
+    }
+
+    private static final class StoredResponse {
+        private final String fingerprint;
+        private final int status;
+        private final String body;
+
+        private StoredResponse(String fingerprint, int status, String body) {
+            this.fingerprint = fingerprint;
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -1,51 +1,138 @@
 package com.ambulance.ambulance_service.service;
 
+import com.ambulance.ambulance_service.entity.Role;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import java.security.Key;
+
+import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * Issues and verifies the bearer tokens of the API. Tokens carry the user's role as a signed
+ * claim for clients to read; authorities are still taken from the user's current account.
+ * Each token is parsed and its signature checked once; the outcome is kept in a bounded
+ * in-memory cache, which refuses the token again once it expires.
+ */
 @Service
 public class JwtService {
+    public static final String ROLE_CLAIM = "role";
+    private static final int MAX_CACHED_TOKENS = 10000;
+
+    private final Long expiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Map<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+    // Tokens in the order they were first verified, for evicting the oldest once the cache is full
+    private final Queue<String> verificationOrder = new ConcurrentLinkedQueue<>();
+
+    public JwtService(@Value("${jwt.secret}") String secret, @Value("${jwt.expiration}") Long expiration) {
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
+    /**
+     * The subject and role of a token whose signature and expiry have been checked
+     */
+    public static final class VerifiedToken {
+        private final String username;
+        private final Role role;
+        private final Date expiration;
+
+        VerifiedToken(String username, Role role, Date expiration) {
+            this.username = username;
+            this.role = role;
+            this.expiration = expiration;
+        }
 
-    @Value("${jwt.secret}")
-    private String secret;
+        public String getUsername() {
+            return username;
+        }
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
+        /**
+         * @return the signed role, or null for tokens issued without one
+         */
+        public Role getRole() {
+            return role;
+        }
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        public Date getExpiration() {
+            return expiration;
+        }
+
+        boolean isExpired() {
+            return expiration != null && expiration.before(new Date());
+        }
     }
 
-    public String generateToken(String username) {
-        return Jwts.builder()
+    public String generateToken(String username, Role role) {
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + expiration));
+        if (role != null) {
+            builder.claim(ROLE_CLAIM, role.name());
+        }
+        return builder.signWith(signingKey).compact();
     }
 
-    public String extractUsername(String token) {
-        return getClaims(token).getSubject();
+    /**
+     * Checks a token's signature and expiry, parsing it only the first time it is seen
+     * @return the verified token, or empty if it is malformed, forged or expired
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        VerifiedToken cached = verified.get(token);
+        if (cached != null) {
+            // Expired entries stay until evicted, so they are not parsed again in the meantime
+            return cached.isExpired() ? Optional.empty() : Optional.of(cached);
+        }
+
+        Claims claims;
+        try {
+            // Rejects bad signatures and expired tokens
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (claims.getSubject() == null) {
+            return Optional.empty();
+        }
+        VerifiedToken result = new VerifiedToken(claims.getSubject(),
+                Role.fromString(claims.get(ROLE_CLAIM, String.class)), claims.getExpiration());
+        if (verified.putIfAbsent(token, result) == null) {
+            verificationOrder.add(token);
+            evictOverflow();
+        }
+        return Optional.of(result);
     }
 
-    public boolean validateToken(String token, String username) {
-        return extractUsername(token).equals(username) && !isTokenExpired(token);
+    public String extractUsername(String token) {
+        return verify(token).map(VerifiedToken::getUsername)
+                .orElseThrow(() -> new JwtException("Invalid or expired token"));
     }
 
-    private Claims getClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(Keys.hmacShaKeyFor(getSigningKey().getEncoded()))
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public boolean validateToken(String token, String username) {
+        return verify(token).map(verifiedToken -> verifiedToken.getUsername().equals(username)).orElse(false);
     }
 
-    private boolean isTokenExpired(String token) {
-        return getClaims(token).getExpiration().before(new Date());
+    // All tokens live equally long, so the oldest verified ones are also the first to expire
+    private void evictOverflow() {
+        while (verified.size() > MAX_CACHED_TOKENS) {
+            String oldest = verificationOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            verified.remove(oldest);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,145 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.OutboxEvent;
+import com.ambulance.ambulance_service.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Publishes outbox rows as {@link RequestLifecycleEvent}s to in-process subscribers, such as
+ * the {@link RequestEventStream} behind the SSE feed. A dedicated thread, woken when a
+ * transaction that wrote events commits, reads unpublished rows in id order, numbers them
+ * with consecutive sequence numbers, publishes them and then marks them published. A row is
+ * published again if marking fails, so delivery is at least once.
+ * The relay assumes it is the only one publishing from the outbox table.
+ */
+@Component
+public class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final long BACKSTOP_INTERVAL = 5000; // 5 seconds in milliseconds
+    private static final int BATCH_SIZE = 200; // rows published per read
+    private static final String MARK_PUBLISHED_SQL =
+            "UPDATE request_outbox SET published_at = ?, sequence_number = ? WHERE id = ?";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    // Holds at most one wake-up, so a burst of commits collapses into a single drain
+    private final BlockingQueue<Boolean> wakeups = new ArrayBlockingQueue<>(1);
+    // Last sequence number handed out; only touched by the relay thread, -1 until read from the table
+    private long lastSequenceNumber = -1;
+    private volatile Thread worker;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, JdbcTemplate jdbcTemplate,
+                       ApplicationEventPublisher eventPublisher) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void start() {
+        worker = new Thread(this::run, "outbox-relay");
+        worker.setDaemon(true);
+        worker.start();
+        signal();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread current = worker;
+        worker = null;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    // Backstop for events written by transactions whose wake-up was lost
+    @Scheduled(fixedDelay = BACKSTOP_INTERVAL)
+    public void backstop() {
+        signal();
+    }
+
+    /**
+     * Wakes the relay thread; returns immediately
+     */
+    public void signal() {
+        wakeups.offer(Boolean.TRUE);
+    }
+
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            try {
+                wakeups.take();
+                drain();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Sequence numbers handed out to unmarked rows are re-read from the table
+                lastSequenceNumber = -1;
+                logger.error("Error relaying request lifecycle events: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Publishes every unpublished row
+     * @return the number of rows published
+     */
+    int drain() {
+        if (lastSequenceNumber < 0) {
+            lastSequenceNumber = outboxEventRepository.findMaxSequenceNumber();
+        }
+        int published = 0;
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(PageRequest.of(0, BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (OutboxEvent row : batch) {
+                row.setSequenceNumber(++lastSequenceNumber);
+                row.setPublishedAt(now);
+                publish(RequestLifecycleEvent.of(row));
+            }
+            jdbcTemplate.batchUpdate(MARK_PUBLISHED_SQL, batch, batch.size(), (ps, row) -> {
+                ps.setTimestamp(1, Timestamp.valueOf(row.getPublishedAt()));
+                ps.setLong(2, row.getSequenceNumber());
+                ps.setLong(3, row.getId());
+            });
+            published += batch.size();
+        } while (batch.size() == BATCH_SIZE);
+
+        if (published > 0) {
+            logger.debug("Published {} request lifecycle events up to sequence {}", published, lastSequenceNumber);
+        }
+        return published;
+    }
+
+    // A failing subscriber must not hold up the events behind it or the other subscribers' feed
+    private void publish(RequestLifecycleEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (Exception e) {
+            logger.error("Subscriber failed on lifecycle event {} for request {}: {}",
+                    event.getSequenceNumber(), event.getRequestId(), e.getMessage(), e);
+        }
+    }
+}
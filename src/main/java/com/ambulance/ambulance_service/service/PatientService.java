@@ -8,20 +8,28 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class PatientService implements PatientServiceInterface<Patient> {
 
     private final PatientRepository patientRepository;
     private final ServiceHistoryRepository serviceHistoryRepository;
+    private final DashboardCounters dashboardCounters;
 
     @Autowired
     public PatientService(PatientRepository patientRepository,
-                          ServiceHistoryRepository serviceHistoryRepository) {
+                          ServiceHistoryRepository serviceHistoryRepository,
+                          DashboardCounters dashboardCounters) {
         this.patientRepository = patientRepository;
         this.serviceHistoryRepository = serviceHistoryRepository;
+        this.dashboardCounters = dashboardCounters;
     }
 
     @Override
@@ -59,6 +67,7 @@ public class PatientService implements PatientServiceInterface<Patient> {
     @Override
     @Transactional
     public <T extends Patient> T savePatientRecord(T patient) {
+        countIfNew(patient);
         return (T) patientRepository.save(patient);
     }
 
@@ -75,6 +84,7 @@ public class PatientService implements PatientServiceInterface<Patient> {
     @Override
     @Transactional
     public Patient savePatient(Patient patient) {
+        countIfNew(patient);
         return patientRepository.save(patient);
     }
 
@@ -98,10 +108,54 @@ public class PatientService implements PatientServiceInterface<Patient> {
                 })
                 .orElseGet(() -> {
                     Patient newPatient = new Patient(name, contact, medicalNotes != null ? medicalNotes : "");
+                    dashboardCounters.patientsChanged(1);
                     return patientRepository.save(newPatient);
                 });
     }
 
+    /**
+     * Finds or creates the patients for a batch of submissions with one lookup, matching
+     * each draft by contact as {@link #findOrCreatePatient(String, String, String)} does
+     * @param drafts unsaved patients carrying the submitted name, contact and notes
+     * @return the patient for each contact
+     */
+    @Transactional
+    public Map<String, Patient> findOrCreatePatients(List<Patient> drafts) {
+        Set<String> contacts = new HashSet<>();
+        drafts.forEach(draft -> contacts.add(draft.getContact()));
+        Map<String, Patient> byContact = new HashMap<>();
+        for (Patient existing : patientRepository.findByContactInAndDeletedFalse(contacts)) {
+            byContact.putIfAbsent(existing.getContact(), existing);
+        }
+
+        Set<Patient> changed = new LinkedHashSet<>();
+        int created = 0;
+        for (Patient draft : drafts) {
+            Patient patient = byContact.get(draft.getContact());
+            String medicalNotes = draft.getMedicalNotes();
+            if (patient == null) {
+                draft.setMedicalNotes(medicalNotes != null ? medicalNotes : "");
+                byContact.put(draft.getContact(), draft);
+                changed.add(draft);
+                created++;
+            } else if (medicalNotes != null && !medicalNotes.trim().isEmpty()
+                    && !medicalNotes.equals(patient.getMedicalNotes())) {
+                patient.setMedicalNotes(medicalNotes);
+                changed.add(patient);
+            }
+        }
+        patientRepository.saveAll(changed);
+        dashboardCounters.patientsChanged(created);
+        return byContact;
+    }
+
+    // Counts a patient that is about to be inserted rather than updated
+    private void countIfNew(Patient patient) {
+        if (patient != null && patient.getId() == null && !patient.isDeleted()) {
+            dashboardCounters.patientsChanged(1);
+        }
+    }
+
     @Override
     public Optional<Patient> findPatientByContact(String contact) {
         return patientRepository.findByContactAndDeletedFalse(contact);
@@ -109,7 +163,7 @@ public class PatientService implements PatientServiceInterface<Patient> {
 
     @Override
     public long countAllPatients() {
-        return patientRepository.countByDeletedFalse();
+        return dashboardCounters.countPatients();
     }
 
     @Override
@@ -123,6 +177,7 @@ public class PatientService implements PatientServiceInterface<Patient> {
                     patient.setDeleted(true);
                     patient.setDeletedAt(LocalDateTime.now());
                     patientRepository.save(patient);
+                    dashboardCounters.patientsChanged(-1);
                     return true;
                 })
                 .orElse(false);
@@ -134,7 +189,11 @@ public class PatientService implements PatientServiceInterface<Patient> {
             throw new IllegalArgumentException("Cannot delete patient: referenced by service history");
         }
         try {
+            boolean counted = patientRepository.findById(id).filter(patient -> !patient.isDeleted()).isPresent();
             patientRepository.deleteById(id);
+            if (counted) {
+                dashboardCounters.patientsChanged(-1);
+            }
             return true;
         } catch (Exception e) {
             return false;
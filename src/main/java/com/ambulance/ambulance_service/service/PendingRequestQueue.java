@@ -0,0 +1,211 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.RequestPriority;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Pending requests ordered by priority with aging. Each request is ranked by its request
+ * time minus the aging credit of its priority, so the rank never changes while it waits and
+ * the order stays valid without re-sorting. Adding, removing and reading the head are all
+ * O(log n); an id can be re-added to change its priority or zone.
+ * Requests are held in one ordered set per {@link DispatchZone}, so intake in different
+ * zones does not contend on the same set.
+ */
+public class PendingRequestQueue {
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingLong((Entry entry) -> entry.rank)
+            .thenComparingLong(entry -> entry.requestId);
+
+    private final Map<DispatchZone, NavigableSet<Entry>> shards = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a request without a zone, replacing any entry it already has
+     */
+    public void add(Long requestId, RequestPriority priority, LocalDateTime requestTime) {
+        add(requestId, priority, requestTime, DispatchZone.UNZONED);
+    }
+
+    /**
+     * Adds a request to a zone, replacing any entry it already has
+     */
+    public void add(Long requestId, RequestPriority priority, LocalDateTime requestTime, DispatchZone zone) {
+        DispatchZone effectiveZone = zone != null ? zone : DispatchZone.UNZONED;
+        Entry entry = new Entry(requestId, rank(priority, requestTime), effectiveZone);
+        entries.compute(requestId, (id, previous) -> {
+            if (previous != null) {
+                shard(previous.zone).remove(previous);
+            }
+            shard(effectiveZone).add(entry);
+            return entry;
+        });
+    }
+
+    /**
+     * Removes a request
+     * @return true if the request was queued
+     */
+    public boolean remove(Long requestId) {
+        boolean[] removed = {false};
+        entries.computeIfPresent(requestId, (id, entry) -> {
+            removed[0] = shard(entry.zone).remove(entry);
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * @return the id of the request that should be served next across all zones, if any
+     */
+    public Optional<Long> peek() {
+        Iterator<Long> head = iterator();
+        return head.hasNext() ? Optional.of(head.next()) : Optional.empty();
+    }
+
+    /**
+     * Iterates request ids of all zones in serving order. The iterator is weakly consistent,
+     * so requests may be added or removed while it is in use.
+     */
+    public Iterator<Long> iterator() {
+        PriorityQueue<PeekingIterator> heads = new PriorityQueue<>(
+                Comparator.comparing((PeekingIterator head) -> head.current, ORDER));
+        for (NavigableSet<Entry> shard : shards.values()) {
+            PeekingIterator head = new PeekingIterator(shard.iterator());
+            if (head.current != null) {
+                heads.add(head);
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public Long next() {
+                PeekingIterator head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                Long requestId = head.current.requestId;
+                if (head.advance()) {
+                    heads.add(head);
+                }
+                return requestId;
+            }
+        };
+    }
+
+    /**
+     * Iterates the request ids of one zone in serving order; weakly consistent
+     */
+    public Iterator<Long> iterator(DispatchZone zone) {
+        NavigableSet<Entry> shard = shards.get(zone);
+        if (shard == null) {
+            return Collections.emptyIterator();
+        }
+        Iterator<Entry> delegate = shard.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public Long next() {
+                return delegate.next().requestId;
+            }
+        };
+    }
+
+    /**
+     * @return the zones with waiting requests, the zone holding the most urgent request first
+     */
+    public List<DispatchZone> zones() {
+        List<Entry> heads = new ArrayList<>();
+        for (NavigableSet<Entry> shard : shards.values()) {
+            Iterator<Entry> head = shard.iterator();
+            if (head.hasNext()) {
+                heads.add(head.next());
+            }
+        }
+        heads.sort(ORDER);
+        List<DispatchZone> zones = new ArrayList<>(heads.size());
+        heads.forEach(head -> zones.add(head.zone));
+        return zones;
+    }
+
+    public boolean contains(Long requestId) {
+        return entries.containsKey(requestId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        shards.clear();
+    }
+
+    // Zones are never dropped once seen; there are only a few dozen across a city
+    private NavigableSet<Entry> shard(DispatchZone zone) {
+        return shards.computeIfAbsent(zone, z -> new ConcurrentSkipListSet<>(ORDER));
+    }
+
+    /**
+     * Serving rank of a request; lower ranks are served first
+     * @param priority the request priority, MEDIUM when null
+     * @param requestTime when the request was made, now when null
+     * @return epoch milliseconds of the request time minus the priority's aging credit
+     */
+    public static long rank(RequestPriority priority, LocalDateTime requestTime) {
+        RequestPriority effectivePriority = priority != null ? priority : RequestPriority.MEDIUM;
+        LocalDateTime effectiveTime = requestTime != null ? requestTime : LocalDateTime.now();
+        return effectiveTime.toInstant(ZoneOffset.UTC).toEpochMilli()
+                - effectivePriority.getAgingCredit().toMillis();
+    }
+
+    private static final class Entry {
+        private final Long requestId;
+        private final long rank;
+        private final DispatchZone zone;
+
+        private Entry(Long requestId, long rank, DispatchZone zone) {
+            this.requestId = requestId;
+            this.rank = rank;
+            this.zone = zone;
+        }
+    }
+
+    // Zone iterator that exposes its next entry, for merging zones into one serving order
+    private static final class PeekingIterator {
+        private final Iterator<Entry> delegate;
+        private Entry current;
+
+        private PeekingIterator(Iterator<Entry> delegate) {
+            this.delegate = delegate;
+            advance();
+        }
+
+        private boolean advance() {
+            current = delegate.hasNext() ? delegate.next() : null;
+            return current != null;
+        }
+    }
+}
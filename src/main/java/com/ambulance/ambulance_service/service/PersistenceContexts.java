@@ -0,0 +1,53 @@
+package com.ambulance.ambulance_service.service;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helpers for JDBC writes that share a transaction with JPA
+ */
+final class PersistenceContexts {
+
+    private PersistenceContexts() {
+    }
+
+    /**
+     * Flushes the persistence contexts bound to the current transaction. Entities with
+     * sequence ids are only inserted when the context flushes, which normally happens after
+     * the pre-commit callbacks, so JDBC rows that reference them must flush first. A context
+     * opened for a web request (open-in-view) reports itself as not joined even while the
+     * transaction runs on it, so the holder's synchronisation flag is what is checked.
+     */
+    static void flushTransactional() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder holder) {
+                EntityManager entityManager = holder.getEntityManager();
+                if (entityManager.isOpen() && holder.isSynchronizedWithTransaction()) {
+                    entityManager.flush();
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs an in-memory update once the current transaction commits, so a rollback leaves it
+     * out; runs it straight away when there is no transaction
+     */
+    static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
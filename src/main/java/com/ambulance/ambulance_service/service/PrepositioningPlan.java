@@ -0,0 +1,64 @@
+package com.ambulance.ambulance_service.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Suggested moves for idle units, with the expected response time to the forecast calls
+ * before and after the moves
+ */
+public final class PrepositioningPlan {
+    private final LocalDateTime computedAt;
+    private final double currentResponseSeconds;
+    private final double plannedResponseSeconds;
+    private final List<Move> moves;
+
+    PrepositioningPlan(LocalDateTime computedAt, double currentResponseSeconds, double plannedResponseSeconds,
+                       List<Move> moves) {
+        this.computedAt = computedAt;
+        this.currentResponseSeconds = currentResponseSeconds;
+        this.plannedResponseSeconds = plannedResponseSeconds;
+        this.moves = List.copyOf(moves);
+    }
+
+    static PrepositioningPlan empty(LocalDateTime computedAt) {
+        return new PrepositioningPlan(computedAt, 0, 0, List.of());
+    }
+
+    public LocalDateTime getComputedAt() { return computedAt; }
+    public double getCurrentResponseSeconds() { return currentResponseSeconds; }
+    public double getPlannedResponseSeconds() { return plannedResponseSeconds; }
+    public List<Move> getMoves() { return moves; }
+
+    /**
+     * Relocation of one available unit to the centre of a zone
+     */
+    public static final class Move {
+        private final Long ambulanceId;
+        private final String licensePlate;
+        private final double fromLatitude;
+        private final double fromLongitude;
+        private final double toLatitude;
+        private final double toLongitude;
+        private final double distanceKm;
+
+        Move(Long ambulanceId, String licensePlate, double fromLatitude, double fromLongitude,
+             double toLatitude, double toLongitude, double distanceKm) {
+            this.ambulanceId = ambulanceId;
+            this.licensePlate = licensePlate;
+            this.fromLatitude = fromLatitude;
+            this.fromLongitude = fromLongitude;
+            this.toLatitude = toLatitude;
+            this.toLongitude = toLongitude;
+            this.distanceKm = distanceKm;
+        }
+
+        public Long getAmbulanceId() { return ambulanceId; }
+        public String getLicensePlate() { return licensePlate; }
+        public double getFromLatitude() { return fromLatitude; }
+        public double getFromLongitude() { return fromLongitude; }
+        public double getToLatitude() { return toLatitude; }
+        public double getToLongitude() { return toLongitude; }
+        public double getDistanceKm() { return distanceKm; }
+    }
+}
@@ -0,0 +1,180 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.Ambulance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recommends where idle units should wait so that the calls forecast for the coming hour
+ * are reached as quickly as possible. Positions are chosen greedily, one per available
+ * unit, each time taking the zone centre that most lowers the call-weighted travel time;
+ * units are then matched to the positions so that the total distance driven is minimal.
+ * The plan is cached and recomputed on the next read after the fleet changes.
+ */
+@Component
+public class PrepositioningPlanner {
+    private static final Logger logger = LoggerFactory.getLogger(PrepositioningPlanner.class);
+    private static final double MIN_IMPROVEMENT = 0.05; // smaller gains are not worth moving units for
+
+    private final AmbulanceService ambulanceService;
+    private final DemandForecast demandForecast;
+    private final EtaModel etaModel;
+    private volatile PrepositioningPlan current;
+
+    @Autowired
+    public PrepositioningPlanner(AmbulanceService ambulanceService, DemandForecast demandForecast, EtaModel etaModel) {
+        this.ambulanceService = ambulanceService;
+        this.demandForecast = demandForecast;
+        this.etaModel = etaModel;
+    }
+
+    /**
+     * @return the plan for the current fleet, recomputed if the fleet or the hour changed since
+     */
+    public PrepositioningPlan getPlan() {
+        PrepositioningPlan plan = current;
+        LocalDateTime now = LocalDateTime.now();
+        if (plan == null || !plan.getComputedAt().truncatedTo(ChronoUnit.HOURS).equals(now.truncatedTo(ChronoUnit.HOURS))) {
+            plan = plan(ambulanceService.getAvailableAmbulances(), now);
+            current = plan;
+        }
+        return plan;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAmbulanceAvailable(AmbulanceAvailableEvent event) {
+        current = null;
+    }
+
+    // Dispatches take units out of the pool
+    @EventListener
+    public void onLifecycleEvent(RequestLifecycleEvent event) {
+        current = null;
+    }
+
+    PrepositioningPlan plan(List<Ambulance> available, LocalDateTime at) {
+        List<Ambulance> units = new ArrayList<>();
+        for (Ambulance unit : available) {
+            if (unit.hasCoordinates()) {
+                units.add(unit);
+            }
+        }
+        Map<DispatchZone, Double> forecast = demandForecast.expectedCalls(at.getHour());
+        if (units.isEmpty() || forecast.isEmpty()) {
+            return PrepositioningPlan.empty(at);
+        }
+
+        List<DispatchZone> demandZones = new ArrayList<>(forecast.keySet());
+        double[] weights = new double[demandZones.size()];
+        double totalWeight = 0;
+        for (int d = 0; d < demandZones.size(); d++) {
+            weights[d] = forecast.get(demandZones.get(d));
+            totalWeight += weights[d];
+        }
+
+        // Travel time from where each unit is now to every zone with demand
+        double[] currentBest = new double[demandZones.size()];
+        Arrays.fill(currentBest, Double.POSITIVE_INFINITY);
+        for (Ambulance unit : units) {
+            for (int d = 0; d < demandZones.size(); d++) {
+                DispatchZone zone = demandZones.get(d);
+                currentBest[d] = Math.min(currentBest[d],
+                    travelSeconds(unit.getLatitude(), unit.getLongitude(), zone, at));
+            }
+        }
+
+        // Candidate positions: every zone with demand and every zone a unit is in
+        Set<DispatchZone> candidateSet = new LinkedHashSet<>(demandZones);
+        units.forEach(unit -> candidateSet.add(DispatchZone.of(unit.getLatitude(), unit.getLongitude())));
+        List<DispatchZone> candidates = new ArrayList<>(candidateSet);
+        double[][] travel = new double[candidates.size()][demandZones.size()];
+        for (int c = 0; c < candidates.size(); c++) {
+            DispatchZone from = candidates.get(c);
+            for (int d = 0; d < demandZones.size(); d++) {
+                travel[c][d] = travelSeconds(from.centerLatitude(), from.centerLongitude(), demandZones.get(d), at);
+            }
+        }
+
+        double[] plannedBest = new double[demandZones.size()];
+        Arrays.fill(plannedBest, Double.POSITIVE_INFINITY);
+        List<DispatchZone> positions = new ArrayList<>();
+        while (positions.size() < units.size()) {
+            int bestCandidate = -1;
+            double bestCost = weightedCost(plannedBest, weights);
+            for (int c = 0; c < candidates.size(); c++) {
+                double cost = 0;
+                for (int d = 0; d < demandZones.size(); d++) {
+                    cost += weights[d] * Math.min(plannedBest[d], travel[c][d]);
+                }
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestCandidate = c;
+                }
+            }
+            if (bestCandidate < 0) {
+                break; // Further units would not shorten any response; they stay where they are
+            }
+            positions.add(candidates.get(bestCandidate));
+            for (int d = 0; d < demandZones.size(); d++) {
+                plannedBest[d] = Math.min(plannedBest[d], travel[bestCandidate][d]);
+            }
+        }
+
+        double currentSeconds = weightedCost(currentBest, weights) / totalWeight;
+        double plannedSeconds = weightedCost(plannedBest, weights) / totalWeight;
+        if (plannedSeconds > currentSeconds * (1 - MIN_IMPROVEMENT)) {
+            return new PrepositioningPlan(at, currentSeconds, currentSeconds, List.of());
+        }
+
+        List<PrepositioningPlan.Move> moves = new ArrayList<>();
+        double[][] driveKm = new double[positions.size()][units.size()];
+        for (int p = 0; p < positions.size(); p++) {
+            DispatchZone position = positions.get(p);
+            for (int u = 0; u < units.size(); u++) {
+                driveKm[p][u] = GridSpatialIndex.distanceKm(units.get(u).getLatitude(), units.get(u).getLongitude(),
+                    position.centerLatitude(), position.centerLongitude());
+            }
+        }
+        int[] assigned = HungarianAssignment.solve(driveKm);
+        for (int p = 0; p < positions.size(); p++) {
+            Ambulance unit = units.get(assigned[p]);
+            DispatchZone position = positions.get(p);
+            if (!position.equals(DispatchZone.of(unit.getLatitude(), unit.getLongitude()))) {
+                moves.add(new PrepositioningPlan.Move(unit.getId(), unit.getLicensePlate(),
+                    unit.getLatitude(), unit.getLongitude(),
+                    position.centerLatitude(), position.centerLongitude(), driveKm[p][assigned[p]]));
+            }
+        }
+        logger.debug("Prepositioning plan for {} units: {} moves, expected response {}s -> {}s",
+            units.size(), moves.size(), Math.round(currentSeconds), Math.round(plannedSeconds));
+        return new PrepositioningPlan(at, currentSeconds, plannedSeconds, moves);
+    }
+
+    private double travelSeconds(double latitude, double longitude, DispatchZone to, LocalDateTime at) {
+        return etaModel.estimate(latitude, longitude, to.centerLatitude(), to.centerLongitude(), at)
+            .map(duration -> (double) duration.getSeconds())
+            .orElse(Double.POSITIVE_INFINITY);
+    }
+
+    private static double weightedCost(double[] seconds, double[] weights) {
+        double cost = 0;
+        for (int d = 0; d < seconds.length; d++) {
+            cost += weights[d] * seconds[d];
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,171 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.service.RequestService.QueuedDispatchResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Matches pending requests to ambulances as soon as a unit is freed. Release and queue
+ * events only signal a dedicated thread, which waits without holding a connection and
+ * then drains the pending queue zone by zone, most urgent zone first, in batches that are each
+ * matched to the free units in one round, every dispatch committing in its own transaction.
+ * Requests are served from an in-memory {@link PendingRequestQueue} that is rebuilt from the
+ * database at startup; entries whose request has left PENDING are dropped when reached.
+ */
+@Component
+public class QueuedRequestDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(QueuedRequestDispatcher.class);
+    private static final long BACKSTOP_INTERVAL = 30000; // 30 seconds in milliseconds
+    private static final int MAX_BATCH_SIZE = 500; // requests matched per assignment round
+
+    private final RequestService requestService;
+    private final PendingRequestQueue pendingQueue = new PendingRequestQueue();
+    // Holds at most one wake-up, so a burst of releases collapses into a single drain
+    private final BlockingQueue<Boolean> wakeups = new ArrayBlockingQueue<>(1);
+    private volatile Thread worker;
+
+    @Autowired
+    public QueuedRequestDispatcher(@Lazy RequestService requestService, DispatchMetrics dispatchMetrics) {
+        this.requestService = requestService;
+        dispatchMetrics.gauge("ambulance.request.pending_queue.depth", "Pending requests waiting for a unit",
+                pendingQueue::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        worker = new Thread(this::run, "queued-request-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread current = worker;
+        worker = null;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAmbulanceAvailable(AmbulanceAvailableEvent event) {
+        logger.debug("Ambulance {} became available, waking dispatcher", event.getAmbulanceId());
+        signal();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestQueued(RequestQueuedEvent event) {
+        logger.debug("Request {} was queued with priority {}, waking dispatcher",
+                event.getRequestId(), event.getPriority());
+        pendingQueue.add(event.getRequestId(), event.getPriority(), event.getRequestTime(), event.getZone());
+        signal();
+    }
+
+    // Requests left pending before a restart are picked up once the application is ready
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        List<Request> pending = requestService.getPendingRequests();
+        pending.forEach(request -> pendingQueue.add(request.getId(), request.getPriority(),
+                request.getRequestTime(), DispatchZone.of(request.getLatitude(), request.getLongitude())));
+        logger.info("Rebuilt pending request queue with {} requests", pending.size());
+        signal();
+    }
+
+    // Backstop for releases that happened outside this instance or whose event was lost
+    @Scheduled(fixedDelay = BACKSTOP_INTERVAL)
+    public void backstop() {
+        signal();
+    }
+
+    /**
+     * Wakes the dispatcher thread; returns immediately
+     */
+    public void signal() {
+        wakeups.offer(Boolean.TRUE);
+    }
+
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            try {
+                wakeups.take();
+                drain();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Error dispatching queued requests: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    public PendingRequestQueue getPendingQueue() {
+        return pendingQueue;
+    }
+
+    /**
+     * Drains the pending queue on the caller's thread, as the dispatcher thread does on every
+     * wake-up. Simulations call this directly once the thread is stopped.
+     */
+    public void drain() {
+        int dispatched = 0;
+        boolean unitsLeft = true;
+        for (Iterator<DispatchZone> zones = pendingQueue.zones().iterator(); unitsLeft && zones.hasNext(); ) {
+            Iterator<Long> queued = pendingQueue.iterator(zones.next());
+            while (unitsLeft && queued.hasNext()) {
+                List<Long> batch = new ArrayList<>();
+                while (queued.hasNext() && batch.size() < MAX_BATCH_SIZE) {
+                    batch.add(queued.next());
+                }
+
+                Map<Long, QueuedDispatchResult> results;
+                try {
+                    results = requestService.dispatchPendingRequests(batch);
+                } catch (Exception e) {
+                    // Requests dispatched before the failure are dropped as NOT_PENDING on the next drain
+                    logger.error("Error dispatching {} queued requests: {}", batch.size(), e.getMessage(), e);
+                    return;
+                }
+
+                for (Map.Entry<Long, QueuedDispatchResult> result : results.entrySet()) {
+                    switch (result.getValue()) {
+                        case DISPATCHED:
+                            dispatched++;
+                            pendingQueue.remove(result.getKey());
+                            break;
+                        case NOT_PENDING:
+                            pendingQueue.remove(result.getKey());
+                            break;
+                        case NO_AMBULANCE:
+                            // Zones borrow from each other, so the whole fleet is busy; wait for the next release
+                            unitsLeft = false;
+                            break;
+                        default:
+                            // FAILED requests stay queued for the next drain
+                            break;
+                    }
+                }
+            }
+        }
+        if (dispatched > 0) {
+            logger.info("Dispatched {} queued requests ({} still waiting)", dispatched, pendingQueue.size());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.OutboxEvent;
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.entity.RequestStatusHistory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes request lifecycle events to the transactional outbox.
+ * Events appended inside a transaction are inserted as one JDBC batch just before it commits,
+ * on the same connection, so an event exists exactly when the status change it describes does;
+ * the {@link OutboxRelay} is woken once the transaction has committed. Events appended outside
+ * a transaction are inserted immediately.
+ */
+@Component
+public class RequestEventOutbox {
+    private static final Logger logger = LoggerFactory.getLogger(RequestEventOutbox.class);
+    private static final String INSERT_SQL = "INSERT INTO request_outbox "
+            + "(request_id, ambulance_id, event_type, old_status, new_status, notes, changed_by, created_at, user_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxRelay relay;
+
+    @Autowired
+    public RequestEventOutbox(JdbcTemplate jdbcTemplate, OutboxRelay relay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.relay = relay;
+    }
+
+    /**
+     * Appends a status change event for a status history row. The ambulance is read when the
+     * event is written, so a unit assigned later in the same transaction is included.
+     */
+    public void append(RequestStatusHistory history) {
+        if (history == null || history.getRequest() == null || history.getRequest().getId() == null) {
+            throw new IllegalArgumentException("Lifecycle events must belong to a saved request");
+        }
+        LocalDateTime createdAt = history.getCreatedAt() != null ? history.getCreatedAt() : LocalDateTime.now();
+        PendingEvent event = new PendingEvent(OutboxEvent.STATUS_CHANGED, history, createdAt);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionEvents().add(event);
+            return;
+        }
+        write(List.of(event));
+        relay.signal();
+    }
+
+    // Events of the current transaction, registering the pre-commit insert on first use
+    @SuppressWarnings("unchecked")
+    private List<PendingEvent> transactionEvents() {
+        List<PendingEvent> events = (List<PendingEvent>) TransactionSynchronizationManager.getResource(this);
+        if (events != null) {
+            return events;
+        }
+        List<PendingEvent> newEvents = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, newEvents);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // Write events after the entity changes they describe
+                PersistenceContexts.flushTransactional();
+                write(newEvents);
+            }
+
+            @Override
+            public void afterCommit() {
+                relay.signal();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(RequestEventOutbox.this);
+            }
+        });
+        return newEvents;
+    }
+
+    private void write(List<PendingEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            Request request = event.history.getRequest();
+            ps.setLong(1, request.getId());
+            if (request.getAmbulance() != null && request.getAmbulance().getId() != null) {
+                ps.setLong(2, request.getAmbulance().getId());
+            } else {
+                ps.setNull(2, Types.BIGINT);
+            }
+            ps.setString(3, event.eventType);
+            if (event.history.getOldStatus() != null) {
+                ps.setString(4, event.history.getOldStatus().name());
+            } else {
+                ps.setNull(4, Types.VARCHAR);
+            }
+            ps.setString(5, event.history.getNewStatus().name());
+            ps.setString(6, event.history.getNotes());
+            ps.setString(7, event.history.getChangedBy());
+            ps.setTimestamp(8, Timestamp.valueOf(event.createdAt));
+            if (request.getUser() != null && request.getUser().getId() != null) {
+                ps.setLong(9, request.getUser().getId());
+            } else {
+                ps.setNull(9, Types.BIGINT);
+            }
+        });
+        logger.debug("Appended {} request lifecycle events to the outbox", events.size());
+    }
+
+    private static final class PendingEvent {
+        private final String eventType;
+        private final RequestStatusHistory history;
+        private final LocalDateTime createdAt;
+
+        private PendingEvent(String eventType, RequestStatusHistory history, LocalDateTime createdAt) {
+            this.eventType = eventType;
+            this.history = history;
+            this.createdAt = createdAt;
+        }
+    }
+}
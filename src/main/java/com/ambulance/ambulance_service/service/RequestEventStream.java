@@ -0,0 +1,122 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Server-sent event feed of request lifecycle events. Each event carries its sequence number
+ * as the SSE id, so a client that reconnects with Last-Event-ID is sent what it missed: from
+ * the recent events kept in memory, or from the outbox table when it has fallen further behind.
+ * Events are only queued here; the shared {@link SseFanout} writes them, so a slow client does
+ * not hold up the relay thread that publishes them.
+ */
+@Component
+public class RequestEventStream {
+    private static final long EMITTER_TIMEOUT = 30 * 60 * 1000L; // 30 minutes in milliseconds
+    private static final int RECENT_CAPACITY = 1000; // events kept in memory for reconnecting clients
+    private static final int MAX_REPLAY = 5000; // events replayed to one reconnecting client
+    private static final int MAX_PENDING = MAX_REPLAY + 64; // a full replay plus a live backlog
+    private static final String EVENT_NAME = "request-status";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final SseFanout fanout;
+    private final Set<SseFanout.Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Guarded by this; newest last
+    private final Deque<RequestLifecycleEvent> recent = new ArrayDeque<>(RECENT_CAPACITY);
+
+    @Autowired
+    public RequestEventStream(OutboxEventRepository outboxEventRepository, SseFanout fanout) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.fanout = fanout;
+    }
+
+    /**
+     * Opens a feed for a client
+     * @param lastEventId the last sequence number the client received, or null for live events only
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = newEmitter();
+        SseFanout.Subscriber subscriber = fanout.open(emitter, MAX_PENDING, subscribers::remove);
+
+        // Replay and registration happen under the same lock as publication, so nothing is queued twice or skipped
+        synchronized (this) {
+            if (lastEventId != null) {
+                missedSince(lastEventId).forEach(event -> subscriber.offer(messageOf(event)));
+            }
+            if (subscriber.isOpen()) {
+                subscribers.add(subscriber);
+            }
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public synchronized void onLifecycleEvent(RequestLifecycleEvent event) {
+        if (recent.size() == RECENT_CAPACITY) {
+            recent.removeFirst();
+        }
+        recent.addLast(event);
+        Supplier<SseEmitter.SseEventBuilder> message = messageOf(event);
+        subscribers.forEach(subscriber -> subscriber.offer(message));
+    }
+
+    /**
+     * Published events after a sequence number, for clients that poll instead of streaming
+     */
+    public List<RequestLifecycleEvent> getEventsAfter(long sequenceNumber, int limit) {
+        List<RequestLifecycleEvent> events = new ArrayList<>();
+        outboxEventRepository.findBySequenceNumberGreaterThanOrderBySequenceNumberAsc(
+                        sequenceNumber, PageRequest.of(0, limit))
+                .forEach(row -> events.add(RequestLifecycleEvent.of(row)));
+        return events;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Caller holds the lock
+    private List<RequestLifecycleEvent> missedSince(long lastEventId) {
+        List<RequestLifecycleEvent> missed = new ArrayList<>();
+        RequestLifecycleEvent oldestRecent = recent.peekFirst();
+        if (oldestRecent == null || oldestRecent.getSequenceNumber() > lastEventId + 1) {
+            // Older than what is kept in memory; the relay marks rows published right after delivering them
+            long upTo = oldestRecent != null ? oldestRecent.getSequenceNumber() : Long.MAX_VALUE;
+            for (RequestLifecycleEvent event : getEventsAfter(lastEventId, MAX_REPLAY)) {
+                if (event.getSequenceNumber() >= upTo) {
+                    break;
+                }
+                missed.add(event);
+            }
+        }
+        for (RequestLifecycleEvent event : recent) {
+            if (event.getSequenceNumber() > lastEventId && missed.size() < MAX_REPLAY) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(EMITTER_TIMEOUT);
+    }
+
+    private static Supplier<SseEmitter.SseEventBuilder> messageOf(RequestLifecycleEvent event) {
+        return () -> SseEmitter.event()
+                .id(String.valueOf(event.getSequenceNumber()))
+                .name(EVENT_NAME)
+                .data(event);
+    }
+}
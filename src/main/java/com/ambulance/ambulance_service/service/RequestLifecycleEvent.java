@@ -0,0 +1,92 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.OutboxEvent;
+import com.ambulance.ambulance_service.entity.RequestStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by the {@link OutboxRelay} for every committed request status change, in the
+ * order of its sequence number. Delivery is at least once; subscribers that must not act
+ * twice should remember the last sequence number they handled.
+ */
+public class RequestLifecycleEvent {
+    private final long sequenceNumber;
+    private final String eventType;
+    private final Long requestId;
+    private final Long ambulanceId;
+    private final Long userId;
+    private final RequestStatus oldStatus;
+    private final RequestStatus newStatus;
+    private final String notes;
+    private final String changedBy;
+    private final LocalDateTime occurredAt;
+
+    public RequestLifecycleEvent(long sequenceNumber, String eventType, Long requestId, Long ambulanceId,
+                                 Long userId, RequestStatus oldStatus, RequestStatus newStatus, String notes,
+                                 String changedBy, LocalDateTime occurredAt) {
+        this.sequenceNumber = sequenceNumber;
+        this.eventType = eventType;
+        this.requestId = requestId;
+        this.ambulanceId = ambulanceId;
+        this.userId = userId;
+        this.oldStatus = oldStatus;
+        this.newStatus = newStatus;
+        this.notes = notes;
+        this.changedBy = changedBy;
+        this.occurredAt = occurredAt;
+    }
+
+    /**
+     * Builds the event for an outbox row that has been given its sequence number
+     */
+    public static RequestLifecycleEvent of(OutboxEvent row) {
+        if (row.getSequenceNumber() == null) {
+            throw new IllegalArgumentException("Outbox event " + row.getId() + " has not been sequenced");
+        }
+        return new RequestLifecycleEvent(row.getSequenceNumber(), row.getEventType(), row.getRequestId(),
+                row.getAmbulanceId(), row.getUserId(), row.getOldStatus(), row.getNewStatus(), row.getNotes(),
+                row.getChangedBy(), row.getCreatedAt());
+    }
+
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public Long getRequestId() {
+        return requestId;
+    }
+
+    public Long getAmbulanceId() {
+        return ambulanceId;
+    }
+
+    // The user who made the request; null for anonymous submissions
+    public Long getUserId() {
+        return userId;
+    }
+
+    public RequestStatus getOldStatus() {
+        return oldStatus;
+    }
+
+    public RequestStatus getNewStatus() {
+        return newStatus;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public String getChangedBy() {
+        return changedBy;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.RequestPriority;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a request is left PENDING because no ambulance could be assigned
+ */
+public class RequestQueuedEvent {
+    private final Long requestId;
+    private final RequestPriority priority;
+    private final LocalDateTime requestTime;
+    private final DispatchZone zone;
+
+    public RequestQueuedEvent(Long requestId, RequestPriority priority, LocalDateTime requestTime) {
+        this(requestId, priority, requestTime, DispatchZone.UNZONED);
+    }
+
+    public RequestQueuedEvent(Long requestId, RequestPriority priority, LocalDateTime requestTime,
+                              DispatchZone zone) {
+        this.requestId = requestId;
+        this.priority = priority;
+        this.requestTime = requestTime;
+        this.zone = zone;
+    }
+
+    public Long getRequestId() {
+        return requestId;
+    }
+
+    public RequestPriority getPriority() {
+        return priority;
+    }
+
+    public LocalDateTime getRequestTime() {
+        return requestTime;
+    }
+
+    public DispatchZone getZone() {
+        return zone;
+    }
+}
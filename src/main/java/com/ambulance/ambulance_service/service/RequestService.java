@@ -11,24 +11,36 @@ import org.springframework.context.annotation.Lazy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 
 @Service
 @Transactional
 public class RequestService implements RequestServiceInterface {
-    private static final int MAX_RETRIES = 3;
+    private static final double UNKNOWN_TRAVEL_DISTANCE_KM = 50.0; // assumed when a location has no coordinates
 
     private static final Logger logger = LoggerFactory.getLogger(RequestService.class);
 
@@ -51,6 +63,37 @@ public class RequestService implements RequestServiceInterface {
     @Autowired
     private RequestStatusHistoryRepository statusHistoryRepository;
 
+    @Autowired
+    private StatusHistoryWriter statusHistoryWriter;
+
+    @Autowired
+    private RequestEventOutbox requestEventOutbox;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EtaModel etaModel;
+
+    @Autowired
+    private DemandForecast demandForecast;
+
+    @Autowired
+    private DashboardCounters dashboardCounters;
+
+    @Autowired
+    private ResponseTimeAnalytics responseTimeAnalytics;
+
+    @Autowired
+    private DispatchMetrics dispatchMetrics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Stamps request and dispatch times; simulations swap it for their own time
+    @Autowired
+    private Clock clock = Clock.systemDefaultZone();
+
     @Override
     public Page<Request> getAllRequests(Pageable pageable) {
         return requestRepository.findByDeletedFalse(pageable);
@@ -71,110 +114,165 @@ public class RequestService implements RequestServiceInterface {
         if (requestDto == null) {
             throw new IllegalArgumentException("Request data cannot be null");
         }
-        
-        // Create or find patient
-        String patientName = (requestDto.getPatientName() != null && !requestDto.getPatientName().trim().isEmpty()) 
-            ? requestDto.getPatientName().trim() 
-            : "Unknown";
-        
+
+        long start = System.nanoTime();
+        try {
+            return intake(requestDto, user);
+        } finally {
+            dispatchMetrics.record(DispatchMetrics.Operation.CREATE_REQUEST, start);
+        }
+    }
+
+    private Request intake(AmbulanceRequestDto requestDto, com.ambulance.ambulance_service.entity.User user) {
+        String patientName = patientNameOf(requestDto);
         logger.debug("Finding/creating patient: {}", patientName);
         // Create or find patient with initial medical notes if provided
-        Patient patient;
-        if (requestDto.getMedicalNotes() != null && !requestDto.getMedicalNotes().trim().isEmpty()) {
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-            String initialNotes = "[" + timestamp + "] " + requestDto.getMedicalNotes().trim();
-            patient = patientService.findOrCreatePatient(patientName, requestDto.getUserContact(), initialNotes);
+        Patient patient = patientService.findOrCreatePatient(patientName, requestDto.getUserContact(),
+            initialPatientNotes(requestDto));
+        Request request = buildRequest(requestDto, patientName, user);
+
+        // Claim a unit before the request is written, so the request is inserted once in its final
+        // state; a rollback returns the unit to the pool
+        logger.debug("Attempting to assign ambulance");
+        Optional<Ambulance> availableAmbulance = claimAmbulanceFor(request);
+        if (availableAmbulance.isPresent()) {
+            // The ambulance was marked DISPATCHED when it was claimed
+            logger.debug("Found available ambulance: {}", availableAmbulance.get().getId());
+            markDispatched(request, availableAmbulance.get());
         } else {
-            patient = patientService.findOrCreatePatient(patientName, requestDto.getUserContact());
+            logger.debug("No ambulances available, setting request to PENDING");
         }
-        
-        // Create the request with correct field names
+        request = requestRepository.save(request);
+        recordIntake(request, patient);
+        return request;
+    }
+
+    /**
+     * Creates a batch of requests in one transaction, as dispatchers do for a mass-casualty
+     * incident. The whole batch is matched against the fleet in one assignment round, the way
+     * queued requests are, and the rows go out in JDBC batches when the transaction flushes.
+     * @param requestDtos the submissions, already validated
+     * @param user the submitting user, or null
+     * @return the created requests in submission order; those left without a unit are queued
+     */
+    @Transactional
+    public List<Request> createRequests(List<AmbulanceRequestDto> requestDtos,
+                                        com.ambulance.ambulance_service.entity.User user) {
+        if (requestDtos == null) {
+            throw new IllegalArgumentException("Request data cannot be null");
+        }
+        if (requestDtos.isEmpty()) {
+            return new ArrayList<>();
+        }
+        logger.debug("Creating {} ambulance requests in one batch", requestDtos.size());
+
+        List<Patient> drafts = new ArrayList<>(requestDtos.size());
+        List<Request> requests = new ArrayList<>(requestDtos.size());
+        for (AmbulanceRequestDto requestDto : requestDtos) {
+            String patientName = patientNameOf(requestDto);
+            drafts.add(new Patient(patientName, requestDto.getUserContact(), initialPatientNotes(requestDto)));
+            requests.add(buildRequest(requestDto, patientName, user));
+        }
+        Map<String, Patient> patients = patientService.findOrCreatePatients(drafts);
+
+        // Units are claimed before anything is written, so each request is inserted in its final state
+        dispatchBatch(requests, this::markDispatched, false);
+        requestRepository.saveAll(requests);
+        for (Request request : requests) {
+            recordIntake(request, patients.get(request.getUserContact()));
+        }
+
+        long dispatched = requests.stream().filter(request -> request.getStatus() == RequestStatus.DISPATCHED).count();
+        logger.info("Created {} requests in one batch, {} dispatched and {} queued",
+            requests.size(), dispatched, requests.size() - dispatched);
+        return requests;
+    }
+
+    private static String patientNameOf(AmbulanceRequestDto requestDto) {
+        return (requestDto.getPatientName() != null && !requestDto.getPatientName().trim().isEmpty())
+            ? requestDto.getPatientName().trim()
+            : "Unknown";
+    }
+
+    // Submitted medical notes, stamped with the submission time, or "" when none were given
+    private String initialPatientNotes(AmbulanceRequestDto requestDto) {
+        if (requestDto.getMedicalNotes() == null || requestDto.getMedicalNotes().trim().isEmpty()) {
+            return "";
+        }
+        String timestamp = LocalDateTime.now(clock).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        return "[" + timestamp + "] " + requestDto.getMedicalNotes().trim();
+    }
+
+    // A new, unsaved request in PENDING state
+    private Request buildRequest(AmbulanceRequestDto requestDto, String patientName,
+                                        com.ambulance.ambulance_service.entity.User user) {
         Request request = new Request();
         request.setUserName(patientName);
         request.setUserContact(requestDto.getUserContact());
         request.setLocation(requestDto.getLocation());
+        request.setLatitude(requestDto.getLatitude());
+        request.setLongitude(requestDto.getLongitude());
         request.setEmergencyDescription(requestDto.getEmergencyDescription());
-        request.setRequestTime(LocalDateTime.now());
-        
+        if (requestDto.getPriority() != null) {
+            request.setPriority(requestDto.getPriority());
+        }
+        request.setRequestTime(LocalDateTime.now(clock));
+        request.setStatus(RequestStatus.PENDING);
+
         // Set medical notes on the request if provided
         if (requestDto.getMedicalNotes() != null && !requestDto.getMedicalNotes().trim().isEmpty()) {
             request.setMedicalNotes(requestDto.getMedicalNotes().trim());
         }
-        
+
         // Set the user if provided (for authenticated users)
         if (user != null) {
             request.setUser(user);
         }
+        return request;
+    }
 
-        // Save the request first to ensure we have an ID
-        request = requestRepository.save(request);
-        
-        // Save the initial status to history
-        saveStatusHistory(request, null, request.getStatus(), "Request created");
-        
-        // Try to assign an ambulance
-        logger.debug("Attempting to assign ambulance");
-        Optional<Ambulance> availableAmbulance = ambulanceService.getNextAvailableAmbulance();
-        
-        if (availableAmbulance.isPresent()) {
-            // Ambulance is available, assign it
-            Ambulance ambulance = availableAmbulance.get();
-            logger.debug("Found available ambulance: {}", ambulance.getId());
-            
-            try {
-                // Update ambulance status
-                ambulanceService.updateAmbulanceStatus(ambulance.getId(), AvailabilityStatus.DISPATCHED);
-                
-                // Update request status and assign ambulance
-                request.setAmbulance(ambulance);
-                request.setStatus(RequestStatus.DISPATCHED);
-                request.setDispatchTime(LocalDateTime.now());
-                
-                // Save the updated request
-                request = requestRepository.save(request);
-                
-                // Save status change to history
-                saveStatusHistory(request, RequestStatus.PENDING, RequestStatus.DISPATCHED, 
-                    "Ambulance " + ambulance.getLicensePlate() + " dispatched");
-                
-                // Create service history
-                ServiceHistory serviceHistory = serviceHistoryService.createServiceHistory(request, patient, ambulance);
-                serviceHistory.setStatus(ServiceStatus.IN_PROGRESS);
-                serviceHistory.setNotes("Ambulance " + ambulance.getLicensePlate() + " dispatched to location");
-                serviceHistoryRepository.save(serviceHistory);
-                
-                logger.info("Successfully created and dispatched request {} with ambulance {}", 
-                    request.getId(), ambulance.getId());
-                
-                return request;
-                
-            } catch (Exception e) {
-                logger.error("Error assigning ambulance to request: {}", e.getMessage(), e);
-                // If we can't assign the ambulance, update status to PENDING
-                RequestStatus oldStatus = request.getStatus();
-                request.setStatus(RequestStatus.PENDING);
-                request = requestRepository.save(request);
-                saveStatusHistory(request, oldStatus, RequestStatus.PENDING, 
-                    "Failed to assign ambulance: " + e.getMessage());
-                return request;
-            }
-        } else {
-            // No ambulances available, set status to PENDING
-            logger.debug("No ambulances available, setting request to PENDING");
-            RequestStatus oldStatus = request.getStatus();
-            request.setStatus(RequestStatus.PENDING);
-            request = requestRepository.save(request);
-            saveStatusHistory(request, oldStatus, RequestStatus.PENDING, 
-                "No ambulances available, request queued");
-            
-            // Create service history with PENDING status even when no ambulance is available
-            ServiceHistory serviceHistory = serviceHistoryService.createServiceHistory(request, patient, null);
-            serviceHistory.setStatus(ServiceStatus.PENDING);
-            serviceHistory.setNotes("Request queued - waiting for ambulance availability");
-            serviceHistoryRepository.save(serviceHistory);
-            
-            return request;
+    // Also notes where the unit set out from, which the ETA model learns from once it arrives
+    private void markDispatched(Request request, Ambulance ambulance) {
+        LocalDateTime dispatchTime = LocalDateTime.now(clock);
+        request.setAmbulance(ambulance);
+        request.setStatus(RequestStatus.DISPATCHED);
+        request.setDispatchTime(dispatchTime);
+        request.setDispatchLatitude(ambulance.getLatitude());
+        request.setDispatchLongitude(ambulance.getLongitude());
+        request.setEstimatedArrival(etaModel.estimate(ambulance, request, dispatchTime)
+            .map(dispatchTime::plus)
+            .orElse(null));
+        responseTimeAnalytics.recordDispatch(request);
+    }
+
+    /**
+     * Writes the history of a newly saved request: both status rows go out in the pre-commit
+     * batch, and a request left without a unit is handed to the dispatcher
+     */
+    private void recordIntake(Request request, Patient patient) {
+        saveStatusHistory(request, null, RequestStatus.PENDING, "Request created");
+        demandForecast.recordCall(request);
+        Ambulance ambulance = request.getAmbulance();
+        if (request.getStatus() == RequestStatus.DISPATCHED && ambulance != null) {
+            saveStatusHistory(request, RequestStatus.PENDING, RequestStatus.DISPATCHED,
+                "Ambulance " + ambulance.getLicensePlate() + " dispatched");
+            serviceHistoryService.createServiceHistory(request, patient, ambulance, ServiceStatus.IN_PROGRESS,
+                "Ambulance " + ambulance.getLicensePlate() + " dispatched to location");
+            logger.info("Successfully created and dispatched request {} with ambulance {}",
+                request.getId(), ambulance.getId());
+            return;
         }
+
+        saveStatusHistory(request, RequestStatus.PENDING, RequestStatus.PENDING,
+            "No ambulances available, request queued");
+        // Counted once the request commits, so a rolled back intake is not counted
+        PersistenceContexts.afterCommit(dispatchMetrics::countFallbackToPending);
+        // Service history is created with PENDING status even when no ambulance is available
+        serviceHistoryService.createServiceHistory(request, patient, null, ServiceStatus.PENDING,
+            "Request queued - waiting for ambulance availability");
+
+        // A unit freed while this request was being written would otherwise go unnoticed
+        notifyRequestQueued(request);
     }
 
     private Request queueRequest(AmbulanceRequestDto requestDto, com.ambulance.ambulance_service.entity.User user) {
@@ -188,7 +286,7 @@ public class RequestService implements RequestServiceInterface {
         // Create or find patient with initial medical notes if provided
         Patient patient;
         if (requestDto.getMedicalNotes() != null && !requestDto.getMedicalNotes().trim().isEmpty()) {
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            String timestamp = LocalDateTime.now(clock).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
             String initialNotes = "[" + timestamp + "] " + requestDto.getMedicalNotes().trim();
             patient = patientService.findOrCreatePatient(patientName, requestDto.getUserContact(), initialNotes);
         } else {
@@ -200,13 +298,18 @@ public class RequestService implements RequestServiceInterface {
         request.setUserName(patientName);
         request.setUserContact(requestDto.getUserContact());
         request.setLocation(requestDto.getLocation());
+        request.setLatitude(requestDto.getLatitude());
+        request.setLongitude(requestDto.getLongitude());
         request.setEmergencyDescription(requestDto.getEmergencyDescription());
-        request.setRequestTime(LocalDateTime.now());
+        if (requestDto.getPriority() != null) {
+            request.setPriority(requestDto.getPriority());
+        }
+        request.setRequestTime(LocalDateTime.now(clock));
         request.setStatus(RequestStatus.PENDING);
         
         // Set medical notes on the request if provided
         if (requestDto.getMedicalNotes() != null && !requestDto.getMedicalNotes().trim().isEmpty()) {
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            String timestamp = LocalDateTime.now(clock).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
             String initialNotes = "[" + timestamp + "] " + requestDto.getMedicalNotes().trim();
             request.setMedicalNotes(initialNotes);
         }
@@ -239,90 +342,265 @@ public class RequestService implements RequestServiceInterface {
         return request;
     }
 
-    @Scheduled(fixedDelay = 30000)
-    @Transactional
+    /**
+     * Sweeps the whole pending queue in one batch assignment round. Releases are normally
+     * picked up straight away by {@link QueuedRequestDispatcher}; this remains for manual draining.
+     * Each dispatch commits on its own, see {@link #dispatchPendingRequests}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void processQueuedRequests() {
-        List<Request> queuedRequests = requestRepository.findByStatusOrderByRequestTimeAsc(RequestStatus.PENDING);
-        
-        if (queuedRequests.isEmpty()) {
-            return;
+        long start = System.nanoTime();
+        try {
+            List<Request> queuedRequests = requestRepository.findByStatusOrderByRequestTimeAsc(RequestStatus.PENDING);
+
+            if (queuedRequests.isEmpty()) {
+                return;
+            }
+
+            logger.info("Processing {} queued requests", queuedRequests.size());
+            dispatchBatch(queuedRequests, this::recordQueuedAssignment, true);
+        } finally {
+            dispatchMetrics.record(DispatchMetrics.Operation.PROCESS_QUEUED, start);
         }
+    }
+
+    /**
+     * Outcome of trying to dispatch a queued request
+     */
+    public enum QueuedDispatchResult {
+        DISPATCHED, NOT_PENDING, NO_AMBULANCE, FAILED
+    }
+
+    /**
+     * Dispatches queued requests in one batch assignment round. The round is planned outside
+     * any transaction and each request is then claimed and written in a transaction of its own,
+     * so a request that fails is rolled back alone and cannot hold up the rest of the batch.
+     * @param requestIds the queued requests to consider
+     * @return the outcome for each request id; FAILED requests are still pending
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<Long, QueuedDispatchResult> dispatchPendingRequests(List<Long> requestIds) {
+        Map<Long, QueuedDispatchResult> results = new HashMap<>();
+        requestIds.forEach(id -> results.put(id, QueuedDispatchResult.NOT_PENDING));
         
-        logger.info("Processing {} queued requests", queuedRequests.size());
-        
-        for (Request request : queuedRequests) {
+        List<Request> pending = new ArrayList<>();
+        for (Request request : requestRepository.findAllById(requestIds)) {
+            if (request.getStatus() == RequestStatus.PENDING) {
+                pending.add(request);
+            }
+        }
+        dispatchBatch(pending, this::recordQueuedAssignment, true)
+            .forEach((request, result) -> results.put(request.getId(), result));
+        return results;
+    }
+
+    /**
+     * Matches pending requests to free ambulances zone by zone. Each zone's most urgent
+     * requests are first matched against that zone's own units; requests left over once a
+     * zone runs out borrow from the rest of the fleet in a second round.
+     * @param assignment records a claimed unit against its request
+     * @param ownTransactions whether each request is claimed in a transaction of its own; the
+     *                        requests are then saved ones, re-read in that transaction
+     * @return the outcome for each request
+     */
+    private Map<Request, QueuedDispatchResult> dispatchBatch(List<Request> pending,
+                                                             BiConsumer<Request, Ambulance> assignment,
+                                                             boolean ownTransactions) {
+        // Keyed by identity: requests that are not yet saved have no id
+        Map<Request, QueuedDispatchResult> results = new IdentityHashMap<>();
+        Map<DispatchZone, List<Request>> byZone = new LinkedHashMap<>();
+        for (Request request : inServingOrder(pending)) {
+            results.put(request, QueuedDispatchResult.NO_AMBULANCE);
+            byZone.computeIfAbsent(DispatchZone.of(request.getLatitude(), request.getLongitude()),
+                zone -> new ArrayList<>()).add(request);
+        }
+
+        List<Request> unserved = new ArrayList<>();
+        byZone.forEach((zone, requests) ->
+            unserved.addAll(assignBatch(requests, ambulanceService.getAvailableAmbulances(zone), results,
+                assignment, ownTransactions, false)));
+        if (!unserved.isEmpty()) {
+            assignBatch(inServingOrder(unserved), ambulanceService.getAvailableAmbulances(), results,
+                assignment, ownTransactions, true);
+        }
+        return results;
+    }
+
+    private static List<Request> inServingOrder(List<Request> requests) {
+        List<Request> ordered = new ArrayList<>(requests);
+        ordered.sort(Comparator.comparingLong(
+            request -> PendingRequestQueue.rank(request.getPriority(), request.getRequestTime())));
+        return ordered;
+    }
+
+    /**
+     * Matches the most urgent requests to the given units so that the total travel distance
+     * is minimal, then claims each planned unit. Priority decides which requests are served
+     * when units are short; the matching decides which unit goes where.
+     * @param ordered requests in serving order
+     * @param fallback whether a request whose planned unit was taken may claim any other unit
+     * @return the requests that were not served
+     */
+    private List<Request> assignBatch(List<Request> ordered, List<Ambulance> units,
+                                      Map<Request, QueuedDispatchResult> results,
+                                      BiConsumer<Request, Ambulance> assignment, boolean ownTransactions,
+                                      boolean fallback) {
+        List<Request> batch = ordered.subList(0, Math.min(ordered.size(), units.size()));
+        List<Request> unserved = new ArrayList<>(ordered.subList(batch.size(), ordered.size()));
+        int[] plan = HungarianAssignment.solve(travelCosts(batch, units));
+        TransactionTemplate claimTransaction = ownTransactions ? claimTransaction() : null;
+
+        for (int i = 0; i < batch.size(); i++) {
+            Request request = batch.get(i);
+            Long plannedId = units.get(plan[i]).getId();
             try {
-                logger.debug("Processing queued request ID: {}", request.getId());
-                
-                // Find or create patient
-                Patient patient = patientService.findOrCreatePatient(
-                    request.getUserName(),
-                    request.getUserContact(),
-                    request.getMedicalNotes() != null ? request.getMedicalNotes() : ""
-                );
-                
-                // Try to get an available ambulance with retry logic
-                Optional<Ambulance> availableAmbulance = Optional.empty();
-                for (int i = 0; i < MAX_RETRIES; i++) {
-                    availableAmbulance = ambulanceService.getNextAvailableAmbulance();
-                    if (availableAmbulance.isPresent()) {
-                        break;
-                    }
-                    Thread.sleep(1000); // Wait 1 second between retries
-                }
-                
-                if (availableAmbulance.isPresent()) {
-                    Ambulance ambulance = availableAmbulance.get();
-                    logger.debug("Found available ambulance ID: {} for request ID: {}", ambulance.getId(), request.getId());
-                    
-                    // Update ambulance status to DISPATCHED
-                    try {
-                        ambulanceService.updateAmbulanceStatus(ambulance.getId(), AvailabilityStatus.DISPATCHED);
-                        
-                        // Update request with ambulance and status
-                        request.setAmbulance(ambulance);
-                        request.setStatus(RequestStatus.DISPATCHED);
-                        request.setDispatchTime(LocalDateTime.now());
-                        
-                        // Save the updated request
-                        request = requestRepository.save(request);
-                        
-                        // Save status change to history
-                        saveStatusHistory(request, RequestStatus.PENDING, RequestStatus.DISPATCHED, 
-                            "Ambulance " + ambulance.getLicensePlate() + " dispatched");
-                        
-                        // Create or update service history
-                        final Request finalRequest = request;
-                        final Patient finalPatient = patient;
-                        final Ambulance finalAmbulance = ambulance;
-                        ServiceHistory serviceHistory = serviceHistoryRepository.findByRequestId(request.getId())
-                                .stream()
-                                .findFirst()
-                                .orElseGet(() -> serviceHistoryService.createServiceHistory(finalRequest, finalPatient, finalAmbulance));
-                        serviceHistory.setAmbulance(finalAmbulance);
-                        serviceHistory.setStatus(ServiceStatus.IN_PROGRESS);
-                        serviceHistory.setNotes("Ambulance " + finalAmbulance.getLicensePlate() + " dispatched to location");
-                        serviceHistoryRepository.save(serviceHistory);
-                        
-                        logger.info("Assigned ambulance ID: {} to request ID: {}", ambulance.getId(), request.getId());
-                        
-                    } catch (Exception e) {
-                        logger.error("Error updating ambulance status for request ID: {}: {}", 
-                            request.getId(), e.getMessage(), e);
-                        // Continue to next request if we can't update ambulance status
-                        continue;
+                QueuedDispatchResult result = ownTransactions
+                    ? claimTransaction.execute(status -> claimPending(request.getId(), plannedId, assignment, fallback))
+                    : claim(request, plannedId, assignment, fallback);
+                if (result == QueuedDispatchResult.NO_AMBULANCE) {
+                    if (fallback) {
+                        logger.debug("No ambulances available for request ID: {}", request.getId());
+                        break; // No more ambulances available, try again later
                     }
-                } else {
-                    logger.debug("No ambulances available for request ID: {} after {} retries", 
-                        request.getId(), MAX_RETRIES);
-                    break; // No more ambulances available, try again later
+                    unserved.add(request);
+                    continue;
                 }
-                
+                results.put(request, result);
             } catch (Exception e) {
+                // Continue to next request if we can't assign the ambulance
                 logger.error("Error processing queued request ID: {}: {}", 
                     request.getId(), e.getMessage(), e);
+                results.put(request, QueuedDispatchResult.FAILED);
+            }
+        }
+        return unserved;
+    }
+
+    /**
+     * Claims the planned unit for a request and records the assignment
+     * @param fallback whether any other unit may be claimed when the planned one was taken
+     * @return DISPATCHED, or NO_AMBULANCE if no unit could be claimed
+     */
+    private QueuedDispatchResult claim(Request request, Long plannedId,
+                                       BiConsumer<Request, Ambulance> assignment, boolean fallback) {
+        Optional<Ambulance> ambulance = ambulanceService.reserveAmbulance(plannedId);
+        if (ambulance.isEmpty() && fallback) {
+            // The planned unit was claimed through another path since the snapshot
+            ambulance = claimAmbulanceFor(request);
+        }
+        if (ambulance.isEmpty()) {
+            return QueuedDispatchResult.NO_AMBULANCE;
+        }
+        assignment.accept(request, ambulance.get());
+        return QueuedDispatchResult.DISPATCHED;
+    }
+
+    // Runs inside the claim's own transaction; the request may have left the queue since the round was planned
+    private QueuedDispatchResult claimPending(Long requestId, Long plannedId,
+                                              BiConsumer<Request, Ambulance> assignment, boolean fallback) {
+        Optional<Request> request = requestRepository.findById(requestId);
+        if (request.isEmpty() || request.get().getStatus() != RequestStatus.PENDING) {
+            return QueuedDispatchResult.NOT_PENDING;
+        }
+        return claim(request.get(), plannedId, assignment, fallback);
+    }
+
+    // Each claim commits or rolls back alone, even when the caller has a transaction open
+    private TransactionTemplate claimTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    // Great-circle distance from each unit to each request; pairs without coordinates get a flat cost
+    private double[][] travelCosts(List<Request> requests, List<Ambulance> units) {
+        double[][] costs = new double[requests.size()][units.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            Request request = requests.get(i);
+            for (int j = 0; j < units.size(); j++) {
+                Ambulance unit = units.get(j);
+                costs[i][j] = request.hasCoordinates() && unit.hasCoordinates()
+                    ? GridSpatialIndex.distanceKm(request.getLatitude(), request.getLongitude(),
+                        unit.getLatitude(), unit.getLongitude())
+                    : UNKNOWN_TRAVEL_DISTANCE_KM;
             }
         }
+        return costs;
+    }
+
+    /**
+     * Announces that a request is waiting for an ambulance; the dispatcher picks it up
+     * once the surrounding transaction commits
+     */
+    public void notifyRequestQueued(Request request) {
+        eventPublisher.publishEvent(
+            new RequestQueuedEvent(request.getId(), request.getPriority(), request.getRequestTime(),
+                DispatchZone.of(request.getLatitude(), request.getLongitude())));
+    }
+
+    /**
+     * Records the dispatch of a claimed ambulance to a pending request. The ambulance is
+     * released again if the assignment fails.
+     */
+    private void recordQueuedAssignment(Request request, Ambulance ambulance) {
+        logger.debug("Found available ambulance ID: {} for request ID: {}", ambulance.getId(), request.getId());
+        
+        try {
+            // Find or create patient
+            Patient patient = patientService.findOrCreatePatient(
+                request.getUserName(),
+                request.getUserContact(),
+                request.getMedicalNotes() != null ? request.getMedicalNotes() : ""
+            );
+            
+            // Update request with ambulance and status
+            markDispatched(request, ambulance);
+            
+            // Save the updated request
+            request = requestRepository.save(request);
+            
+            // Save status change to history
+            saveStatusHistory(request, RequestStatus.PENDING, RequestStatus.DISPATCHED, 
+                "Ambulance " + ambulance.getLicensePlate() + " dispatched");
+            
+            // Create or update service history
+            final Request finalRequest = request;
+            ServiceHistory serviceHistory = serviceHistoryRepository.findByRequestId(request.getId())
+                    .stream()
+                    .findFirst()
+                    .orElseGet(() -> serviceHistoryService.createServiceHistory(finalRequest, patient, ambulance));
+            serviceHistory.setAmbulance(ambulance);
+            serviceHistory.setStatus(ServiceStatus.IN_PROGRESS);
+            serviceHistory.setNotes("Ambulance " + ambulance.getLicensePlate() + " dispatched to location");
+            serviceHistoryRepository.save(serviceHistory);
+            
+            logger.info("Assigned ambulance ID: {} to request ID: {}", ambulance.getId(), request.getId());
+        } catch (RuntimeException e) {
+            logger.error("Error assigning ambulance for request ID: {}: {}", 
+                request.getId(), e.getMessage(), e);
+            releaseAmbulance(ambulance);
+            throw e;
+        }
+    }
+
+    /**
+     * Claims the closest available ambulance for a request, or the longest-waiting one
+     * when the request has no coordinates
+     */
+    private Optional<Ambulance> claimAmbulanceFor(Request request) {
+        if (request.hasCoordinates()) {
+            return ambulanceService.getNearestAvailableAmbulance(request.getLatitude(), request.getLongitude());
+        }
+        return ambulanceService.getNextAvailableAmbulance();
+    }
+
+    // Returns a claimed ambulance to the pool when its assignment could not be completed
+    private void releaseAmbulance(Ambulance ambulance) {
+        try {
+            ambulanceService.updateAmbulanceStatus(ambulance.getId(), AvailabilityStatus.AVAILABLE);
+        } catch (Exception e) {
+            logger.error("Failed to release ambulance {}: {}", ambulance.getId(), e.getMessage(), e);
+        }
     }
 
     private void updateServiceHistoryStatus(Request request, ServiceStatus status, String notes) {
@@ -330,7 +608,7 @@ public class RequestService implements RequestServiceInterface {
             serviceHistoryService.updateServiceStatus(
                     request.getId(),
                     status,
-                    String.format("[%s] %s", LocalDateTime.now(), notes)
+                    String.format("[%s] %s", LocalDateTime.now(clock), notes)
             );
         } catch (Exception e) {
             logger.error("Failed to update service history for request {}: {}",
@@ -357,14 +635,11 @@ public class RequestService implements RequestServiceInterface {
                 case DISPATCHED:
                     // If we're dispatching, assign an ambulance if not already assigned
                     if (request.getAmbulance() == null) {
-                        Optional<Ambulance> ambulance = ambulanceService.getNextAvailableAmbulance();
+                        Optional<Ambulance> ambulance = claimAmbulanceFor(request);
                         if (ambulance.isPresent()) {
                             request.setAmbulance(ambulance.get());
-                            request.setDispatchTime(LocalDateTime.now());
-                            ambulanceService.updateAmbulanceStatus(
-                                ambulance.get().getId(), 
-                                AvailabilityStatus.DISPATCHED
-                            );
+                            request.setDispatchTime(LocalDateTime.now(clock));
+                            responseTimeAnalytics.recordDispatch(request);
                         }
                     }
                     updateServiceHistoryStatus(
@@ -374,6 +649,10 @@ public class RequestService implements RequestServiceInterface {
                     );
                     break;
                     
+                case PENDING:
+                    notifyRequestQueued(request);
+                    break;
+                    
                 case IN_PROGRESS:
                     updateServiceHistoryStatus(
                         request,
@@ -435,6 +714,7 @@ public class RequestService implements RequestServiceInterface {
                     deleteStatusHistoryForRequest(id);
                     // Then delete the request
                     requestRepository.deleteById(id);
+                    dashboardCounters.requestTransition(request.getStatus(), null);
                     return true;
                 })
                 .orElse(false);
@@ -450,7 +730,8 @@ public class RequestService implements RequestServiceInterface {
     }
 
     /**
-     * Saves the status history for a request
+     * Records the status history for a request and appends the matching lifecycle event to the
+     * outbox. Both rows are written in batches with the others of the transaction just before it commits.
      * @param request The request to save history for
      * @param oldStatus The previous status
      * @param newStatus The new status
@@ -463,7 +744,9 @@ public class RequestService implements RequestServiceInterface {
         history.setNewStatus(newStatus);
         history.setNotes(notes);
         history.setChangedBy(getCurrentUsername());
-        statusHistoryRepository.save(history);
+        statusHistoryWriter.record(history);
+        requestEventOutbox.append(history);
+        dashboardCounters.requestTransition(oldStatus, newStatus);
     }
 
     /**
@@ -525,14 +808,14 @@ public class RequestService implements RequestServiceInterface {
 
     @Override
     public long countAllRequests() {
-        return requestRepository.count();
+        return dashboardCounters.countRequests();
     }
 
     @Override
     public long countRequestsByStatus(String status) {
         try {
             RequestStatus requestStatus = RequestStatus.valueOf(status.toUpperCase());
-            return requestRepository.countByStatus(requestStatus);
+            return dashboardCounters.countRequests(requestStatus);
         } catch (IllegalArgumentException e) {
             logger.warn("Invalid status value: {}", status);
             return 0;
@@ -546,7 +829,7 @@ public class RequestService implements RequestServiceInterface {
             request.setStatus(RequestStatus.PENDING);
         }
         if (request.getCreatedAt() == null) {
-            request.setCreatedAt(LocalDateTime.now());
+            request.setCreatedAt(LocalDateTime.now(clock));
         }
         
         // Save the request
@@ -567,9 +850,10 @@ public class RequestService implements RequestServiceInterface {
                     
                     // Update all fields from the provided request
                     if (request.getStatus() != null) {
+                        RequestStatus oldStatus = existingRequest.getStatus();
                         existingRequest.setStatus(request.getStatus());
                         // Record status change in history
-                        saveStatusHistory(existingRequest, existingRequest.getStatus(), request.getStatus(), "Request updated");
+                        saveStatusHistory(existingRequest, oldStatus, request.getStatus(), "Request updated");
                     }
                     
                     // Update basic fields
@@ -584,10 +868,26 @@ public class RequestService implements RequestServiceInterface {
                     if (request.getLocation() != null) {
                         existingRequest.setLocation(request.getLocation());
                     }
+
+                    if (request.getLatitude() != null) {
+                        existingRequest.setLatitude(request.getLatitude());
+                    }
+
+                    if (request.getLongitude() != null) {
+                        existingRequest.setLongitude(request.getLongitude());
+                    }
                     
                     if (request.getEmergencyDescription() != null) {
                         existingRequest.setEmergencyDescription(request.getEmergencyDescription());
                     }
+
+                    if (request.getPriority() != null && request.getPriority() != existingRequest.getPriority()) {
+                        existingRequest.setPriority(request.getPriority());
+                        if (existingRequest.getStatus() == RequestStatus.PENDING) {
+                            // Re-rank the waiting request under its new priority
+                            notifyRequestQueued(existingRequest);
+                        }
+                    }
                     
                     if (request.getMedicalNotes() != null) {
                         existingRequest.setMedicalNotes(request.getMedicalNotes());
@@ -0,0 +1,141 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.Request;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes status changes to clients following a single request or all requests of one user,
+ * so they no longer poll for them. Subscribers are indexed by request and by user, so an event
+ * only touches the connections that follow it. Writes go through the shared {@link SseFanout};
+ * a client that falls too far behind is disconnected and gets a fresh snapshot when it reconnects.
+ */
+@Component
+public class RequestStatusStream {
+    private static final long EMITTER_TIMEOUT = 30 * 60 * 1000L; // 30 minutes in milliseconds
+    private static final int MAX_PENDING = 64; // events queued for one client before it is dropped
+    private static final long HEARTBEAT_INTERVAL = 25000; // 25 seconds, under common proxy idle timeouts
+    private static final String EVENT_NAME = "request-status";
+    private static final String SNAPSHOT_EVENT_NAME = "request-snapshot";
+
+    private final SseFanout fanout;
+    private final Map<Long, Set<SseFanout.Subscriber>> byRequest = new ConcurrentHashMap<>();
+    private final Map<Long, Set<SseFanout.Subscriber>> byUser = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    @Autowired
+    public RequestStatusStream(SseFanout fanout) {
+        this.fanout = fanout;
+    }
+
+    /**
+     * Follows one request
+     * @param snapshot reads the current state once the subscriber is registered; it is sent first
+     * @return the feed, or null if the snapshot found nothing to follow
+     */
+    public SseEmitter subscribeToRequest(Long requestId, Supplier<?> snapshot) {
+        return subscribe(byRequest, requestId, snapshot);
+    }
+
+    /**
+     * Follows every request of a user, including ones made after subscribing
+     * @param snapshot reads the current state once the subscriber is registered; it is sent first
+     * @return the feed, or null if the snapshot found nothing to follow
+     */
+    public SseEmitter subscribeToUser(Long userId, Supplier<?> snapshot) {
+        return subscribe(byUser, userId, snapshot);
+    }
+
+    @EventListener
+    public void onLifecycleEvent(RequestLifecycleEvent event) {
+        Supplier<SseEmitter.SseEventBuilder> message = () -> SseEmitter.event()
+                .id(String.valueOf(event.getSequenceNumber()))
+                .name(EVENT_NAME)
+                .data(event);
+        deliver(byRequest.get(event.getRequestId()), message);
+        if (event.getUserId() != null) {
+            deliver(byUser.get(event.getUserId()), message);
+        }
+    }
+
+    // Lets idle connections through proxies and finds clients that went away
+    @Scheduled(fixedRate = HEARTBEAT_INTERVAL)
+    public void sendHeartbeats() {
+        Supplier<SseEmitter.SseEventBuilder> heartbeat = () -> SseEmitter.event().comment("keep-alive");
+        byRequest.values().forEach(subscribers -> deliver(subscribers, heartbeat));
+        byUser.values().forEach(subscribers -> deliver(subscribers, heartbeat));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * The current state of a request, in the shape sent to a client when it subscribes
+     */
+    public static Map<String, Object> snapshotOf(Request request) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("requestId", request.getId());
+        snapshot.put("status", request.getStatus());
+        snapshot.put("ambulanceId", request.getAmbulance() != null ? request.getAmbulance().getId() : null);
+        snapshot.put("dispatchTime", request.getDispatchTime());
+        snapshot.put("estimatedArrival", request.getEstimatedArrival());
+        return snapshot;
+    }
+
+    private SseEmitter subscribe(Map<Long, Set<SseFanout.Subscriber>> index, Long key, Supplier<?> snapshot) {
+        SseEmitter emitter = newEmitter();
+        SseFanout.Subscriber subscriber = fanout.open(emitter, MAX_PENDING, closed -> unregister(index, key, closed));
+        // Added inside compute so it cannot race with the last subscriber removing the set
+        index.compute(key, (k, subscribers) -> {
+            Set<SseFanout.Subscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        subscriberCount.incrementAndGet();
+
+        // Read only after registering, so a change committed meanwhile is still pushed after the
+        // snapshot; the client drops events it has already seen by their sequence number
+        Object current;
+        try {
+            current = snapshot.get();
+        } catch (RuntimeException e) {
+            subscriber.close();
+            throw e;
+        }
+        if (current == null) {
+            subscriber.close();
+            return null;
+        }
+        subscriber.offer(() -> SseEmitter.event().name(SNAPSHOT_EVENT_NAME).data(current));
+        return emitter;
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(EMITTER_TIMEOUT);
+    }
+
+    private void deliver(Set<SseFanout.Subscriber> subscribers, Supplier<SseEmitter.SseEventBuilder> message) {
+        if (subscribers != null) {
+            subscribers.forEach(subscriber -> subscriber.offer(message));
+        }
+    }
+
+    private void unregister(Map<Long, Set<SseFanout.Subscriber>> index, Long key, SseFanout.Subscriber subscriber) {
+        subscriberCount.decrementAndGet();
+        index.computeIfPresent(key, (k, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+}
@@ -0,0 +1,238 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.dto.ResponseTimeSummary;
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.entity.ServiceStatus;
+import com.ambulance.ambulance_service.repository.RequestRepository;
+import com.ambulance.ambulance_service.repository.ServiceHistoryRepository;
+import jakarta.annotation.PostConstruct;
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.IntCountsHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Response-time distributions per day of call, kept as histograms for the whole fleet, for
+ * each unit and for each zone. A stage is counted once the transaction that ends it commits,
+ * and windows of several days are answered by merging the days' histograms.
+ */
+@Component
+public class ResponseTimeAnalytics {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseTimeAnalytics.class);
+    public static final int RETENTION_DAYS = 90; // days of calls kept in memory
+    private static final int SIGNIFICANT_DIGITS = 2; // percentiles within 1%
+    private static final long MAX_STAGE_SECONDS = Duration.ofDays(1).toSeconds(); // longer stages are bad data
+    private static final String ALL = "all";
+
+    /**
+     * The stages of a call: call to dispatch, dispatch to arrival, and arrival to completion
+     */
+    public enum Stage { DISPATCH_DELAY, TRAVEL, ON_SCENE }
+
+    /**
+     * How a window is broken down besides the fleet-wide total
+     */
+    public enum Breakdown { DAY, AMBULANCE, ZONE }
+
+    private final RequestRepository requestRepository;
+    private final ServiceHistoryRepository serviceHistoryRepository;
+    private final Map<LocalDate, Map<Stage, Slices>> days = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ResponseTimeAnalytics(RequestRepository requestRepository, ServiceHistoryRepository serviceHistoryRepository) {
+        this.requestRepository = requestRepository;
+        this.serviceHistoryRepository = serviceHistoryRepository;
+    }
+
+    /**
+     * Loads the stages of the calls within the retention window
+     */
+    @PostConstruct
+    public void loadHistory() {
+        LocalDateTime since = LocalDate.now().minusDays(RETENTION_DAYS).atStartOfDay();
+        try {
+            for (Object[] call : requestRepository.findDispatchTimesSince(since)) {
+                LocalDateTime requestTime = (LocalDateTime) call[0];
+                record(Stage.DISPATCH_DELAY, requestTime, (Long) call[2], (Double) call[3], (Double) call[4],
+                        requestTime, (LocalDateTime) call[1]);
+            }
+            for (Object[] trip : serviceHistoryRepository.findTripStagesSince(since)) {
+                recordTrip(trip);
+            }
+            logger.info("Response-time analytics loaded for {} days", days.size());
+        } catch (DataAccessException e) {
+            // Start empty and count the calls from now on
+            logger.error("Failed to load response-time history: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(cron = "0 5 0 * * *")
+    public void prune() {
+        LocalDate oldest = LocalDate.now().minusDays(RETENTION_DAYS);
+        days.keySet().removeIf(day -> day.isBefore(oldest));
+    }
+
+    /**
+     * Counts the time a call waited for a unit
+     */
+    public void recordDispatch(Request request) {
+        if (request != null) {
+            recordAfterCommit(Stage.DISPATCH_DELAY, request, request.getRequestTime(), request.getDispatchTime());
+        }
+    }
+
+    /**
+     * Counts the time a unit took to reach the call
+     */
+    public void recordArrival(Request request, LocalDateTime arrivalTime) {
+        if (request != null) {
+            recordAfterCommit(Stage.TRAVEL, request, request.getDispatchTime(), arrivalTime);
+        }
+    }
+
+    /**
+     * Counts the time a unit spent on scene
+     */
+    public void recordCompletion(Request request, LocalDateTime arrivalTime, LocalDateTime completionTime) {
+        if (request != null) {
+            recordAfterCommit(Stage.ON_SCENE, request, arrivalTime, completionTime);
+        }
+    }
+
+    /**
+     * Summarises a stage over the calls made on the given days
+     * @param breakdown how to split the window, or null for the fleet-wide total only
+     * @return the total under "all" and, with a breakdown, one entry per day, unit or zone
+     */
+    public Map<String, ResponseTimeSummary> summarize(Stage stage, LocalDate from, LocalDate to, Breakdown breakdown) {
+        Map<String, AbstractHistogram> merged = new TreeMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            Map<Stage, Slices> stages = days.get(day);
+            if (stages == null) {
+                continue;
+            }
+            Slices slices = stages.get(stage);
+            merge(merged, ALL, slices.all);
+            if (breakdown == Breakdown.DAY) {
+                merge(merged, day.toString(), slices.all);
+            } else if (breakdown == Breakdown.AMBULANCE) {
+                slices.byAmbulance.forEach((id, histogram) -> merge(merged, id.toString(), histogram));
+            } else if (breakdown == Breakdown.ZONE) {
+                slices.byZone.forEach((zone, histogram) -> merge(merged, zoneKey(zone), histogram));
+            }
+        }
+        Map<String, ResponseTimeSummary> summaries = new TreeMap<>();
+        merged.forEach((key, histogram) -> summaries.put(key, summaryOf(histogram)));
+        summaries.putIfAbsent(ALL, summaryOf(newHistogram()));
+        return summaries;
+    }
+
+    private void recordTrip(Object[] trip) {
+        LocalDateTime requestTime = (LocalDateTime) trip[0];
+        LocalDateTime arrivalTime = (LocalDateTime) trip[2];
+        LocalDateTime completionTime = (LocalDateTime) trip[3];
+        // Calls closed without an arrival have it stamped at completion, which says nothing about either stage
+        if (arrivalTime.equals(completionTime)) {
+            return;
+        }
+        Long ambulanceId = (Long) trip[5];
+        Double latitude = (Double) trip[6];
+        Double longitude = (Double) trip[7];
+        record(Stage.TRAVEL, requestTime, ambulanceId, latitude, longitude, (LocalDateTime) trip[1], arrivalTime);
+        if (trip[4] == ServiceStatus.COMPLETED) {
+            record(Stage.ON_SCENE, requestTime, ambulanceId, latitude, longitude, arrivalTime, completionTime);
+        }
+    }
+
+    // Reads the request now, while its session is open, and records once the change commits
+    private void recordAfterCommit(Stage stage, Request request, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime requestTime = request.getRequestTime();
+        Long ambulanceId = request.getAmbulance() != null ? request.getAmbulance().getId() : null;
+        Double latitude = request.getLatitude();
+        Double longitude = request.getLongitude();
+        PersistenceContexts.afterCommit(() -> record(stage, requestTime, ambulanceId, latitude, longitude, start, end));
+    }
+
+    /**
+     * Adds one stage of a call to the histograms of the day the call came in
+     * @return false if either end of the stage is missing or the stage is implausibly long
+     */
+    boolean record(Stage stage, LocalDateTime requestTime, Long ambulanceId, Double latitude, Double longitude,
+                   LocalDateTime start, LocalDateTime end) {
+        if (requestTime == null || start == null || end == null) {
+            return false;
+        }
+        long seconds = Duration.between(start, end).toSeconds();
+        if (seconds < 0 || seconds > MAX_STAGE_SECONDS) {
+            return false;
+        }
+        Slices slices = days.computeIfAbsent(requestTime.toLocalDate(), day -> newDay()).get(stage);
+        add(slices.all, seconds);
+        if (ambulanceId != null) {
+            add(slices.byAmbulance.computeIfAbsent(ambulanceId, id -> newHistogram()), seconds);
+        }
+        add(slices.byZone.computeIfAbsent(DispatchZone.of(latitude, longitude), zone -> newHistogram()), seconds);
+        return true;
+    }
+
+    private static Map<Stage, Slices> newDay() {
+        Map<Stage, Slices> stages = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, new Slices());
+        }
+        return stages;
+    }
+
+    // Histograms grow to the largest value recorded, so units with short stages stay small
+    private static AbstractHistogram newHistogram() {
+        return new IntCountsHistogram(SIGNIFICANT_DIGITS);
+    }
+
+    private static void add(AbstractHistogram histogram, long seconds) {
+        synchronized (histogram) {
+            histogram.recordValue(seconds);
+        }
+    }
+
+    private static void merge(Map<String, AbstractHistogram> merged, String key, AbstractHistogram histogram) {
+        AbstractHistogram target = merged.computeIfAbsent(key, k -> newHistogram());
+        synchronized (histogram) {
+            target.add(histogram);
+        }
+    }
+
+    private static ResponseTimeSummary summaryOf(AbstractHistogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return new ResponseTimeSummary(0, 0, 0, 0, 0, 0);
+        }
+        return new ResponseTimeSummary(histogram.getTotalCount(), histogram.getMean(),
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99), histogram.getMaxValue());
+    }
+
+    private static String zoneKey(DispatchZone zone) {
+        if (!zone.isZoned()) {
+            return "unzoned";
+        }
+        return String.format(Locale.ROOT, "%.2f,%.2f", zone.centerLatitude(), zone.centerLongitude());
+    }
+
+    private static final class Slices {
+        private final AbstractHistogram all = newHistogram();
+        private final Map<Long, AbstractHistogram> byAmbulance = new ConcurrentHashMap<>();
+        private final Map<DispatchZone, AbstractHistogram> byZone = new ConcurrentHashMap<>();
+    }
+}
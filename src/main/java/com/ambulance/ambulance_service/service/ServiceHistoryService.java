@@ -11,6 +11,7 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -24,18 +25,27 @@ public class ServiceHistoryService {
     private final ServiceHistoryRepository serviceHistoryRepository;
     private final RequestRepository requestRepository;
     private final AmbulanceService ambulanceService;
+    private final EtaModel etaModel;
+    private final ResponseTimeAnalytics responseTimeAnalytics;
+    private final Clock clock;
 
     @Autowired
     public ServiceHistoryService(
             ServiceHistoryRepository serviceHistoryRepository,
             @Lazy RequestService requestService,
             RequestRepository requestRepository,
-            AmbulanceService ambulanceService
+            AmbulanceService ambulanceService,
+            EtaModel etaModel,
+            ResponseTimeAnalytics responseTimeAnalytics,
+            Clock clock
     ) {
         this.serviceHistoryRepository = serviceHistoryRepository;
         this.requestService = requestService;
         this.requestRepository = requestRepository;
         this.ambulanceService = ambulanceService;
+        this.etaModel = etaModel;
+        this.responseTimeAnalytics = responseTimeAnalytics;
+        this.clock = clock;
     }
 
 
@@ -70,11 +80,21 @@ public class ServiceHistoryService {
     }
 
     public ServiceHistory createServiceHistory(Request request, Patient patient, Ambulance ambulance) {
+        return createServiceHistory(request, patient, ambulance, ServiceStatus.IN_PROGRESS, null);
+    }
+
+    /**
+     * Creates a service history with its initial status and notes in a single insert
+     */
+    public ServiceHistory createServiceHistory(Request request, Patient patient, Ambulance ambulance,
+                                               ServiceStatus status, String notes) {
         ServiceHistory serviceHistory = new ServiceHistory(request, patient, ambulance);
-        serviceHistory.setStatus(ServiceStatus.IN_PROGRESS);
+        serviceHistory.setStatus(status != null ? status : ServiceStatus.IN_PROGRESS);
+        serviceHistory.setNotes(notes);
         return serviceHistoryRepository.save(serviceHistory);
     }
 
+    @Transactional
     public ServiceHistory updateServiceHistory(Long id, LocalDateTime arrivalTime,
                                                LocalDateTime completionTime, ServiceStatus status, String notes) {
         ServiceHistory history = serviceHistoryRepository.findById(id)
@@ -85,8 +105,19 @@ public class ServiceHistoryService {
             validateStatusTransition(history.getStatus(), status);
         }
 
-        if (arrivalTime != null) history.setArrivalTime(arrivalTime);
-        if (completionTime != null) history.setCompletionTime(completionTime);
+        if (arrivalTime != null) {
+            if (history.getArrivalTime() == null) {
+                etaModel.recordArrival(history.getRequest(), arrivalTime);
+                responseTimeAnalytics.recordArrival(history.getRequest(), arrivalTime);
+            }
+            history.setArrivalTime(arrivalTime);
+        }
+        if (completionTime != null) {
+            if (history.getCompletionTime() == null && history.getArrivalTime() != null) {
+                responseTimeAnalytics.recordCompletion(history.getRequest(), history.getArrivalTime(), completionTime);
+            }
+            history.setCompletionTime(completionTime);
+        }
         if (status != null) history.setStatus(status);
         if (notes != null) {
             String newNotes = history.getNotes() != null
@@ -106,6 +137,7 @@ public class ServiceHistoryService {
         return serviceHistoryRepository.findByCreatedAtBetween(start, end);
     }
 
+    @Transactional
     public void updateServiceStatus(Long requestId, ServiceStatus newStatus, String notes) {
 
         List<ServiceHistory> histories = serviceHistoryRepository.findByRequestId(requestId);
@@ -171,7 +203,7 @@ public class ServiceHistoryService {
     }
 
     private void updateStatusWithTimestamps(ServiceHistory history, ServiceStatus newStatus, String notes) {
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = LocalDateTime.now(clock);
 
         // Update status and notes
         history.setStatus(newStatus);
@@ -182,12 +214,19 @@ public class ServiceHistoryService {
             case IN_PROGRESS:
                 break;
             case ARRIVED:
-                history.setArrivalTime(now);
+                // A unit back on scene after IN_PROGRESS keeps its first arrival, which is already counted
+                if (history.getArrivalTime() == null) {
+                    history.setArrivalTime(now);
+                    etaModel.recordArrival(history.getRequest(), now);
+                    responseTimeAnalytics.recordArrival(history.getRequest(), now);
+                }
                 break;
             case COMPLETED:
             case CANCELLED:
                 if (history.getArrivalTime() == null) {
                     history.setArrivalTime(now);
+                } else if (newStatus == ServiceStatus.COMPLETED) {
+                    responseTimeAnalytics.recordCompletion(history.getRequest(), history.getArrivalTime(), now);
                 }
                 history.setCompletionTime(now);
                 break;
@@ -215,11 +254,15 @@ public class ServiceHistoryService {
         if (request != null) {
 
             RequestStatus reqStatus = mapServiceStatusToRequestStatus(newStatus);
-            if (reqStatus != null && reqStatus != request.getStatus()) {
+            RequestStatus oldStatus = request.getStatus();
+            if (reqStatus != null && reqStatus != oldStatus) {
                 request.setStatus(reqStatus);
 
-                requestService.saveStatusHistory(request, request.getStatus(), reqStatus, notes);
+                requestService.saveStatusHistory(request, oldStatus, reqStatus, notes);
                 requestRepository.save(request);
+                if (reqStatus == RequestStatus.PENDING) {
+                    requestService.notifyRequestQueued(request);
+                }
             }
         }
 
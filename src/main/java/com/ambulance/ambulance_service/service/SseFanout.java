@@ -0,0 +1,216 @@
+package com.ambulance.ambulance_service.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Writes server-sent events for the streaming endpoints on a shared pool, so the thread
+ * publishing an event never waits on a client's connection. Each subscriber drains its own
+ * queue in order, and an idle connection holds no thread. A client that falls too far behind
+ * is disconnected and catches up when it reconnects.
+ * <p>
+ * A write to a stalled or half-open connection can block for as long as the socket allows.
+ * The pool grows past its core threads rather than queue other clients behind such a write,
+ * and a write still blocked after the send timeout gets its client dropped and its thread
+ * interrupted.
+ */
+@Component
+public class SseFanout {
+    private static final Logger logger = LoggerFactory.getLogger(SseFanout.class);
+    private static final int FANOUT_THREADS = 4;
+    private static final Duration DEFAULT_SEND_TIMEOUT = Duration.ofSeconds(10);
+
+    private final long sendTimeoutMillis;
+    private ThreadPoolExecutor executor;
+    private ScheduledThreadPoolExecutor watchdog;
+
+    public SseFanout() {
+        this(DEFAULT_SEND_TIMEOUT);
+    }
+
+    SseFanout(Duration sendTimeout) {
+        this.sendTimeoutMillis = sendTimeout.toMillis();
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolExecutor(FANOUT_THREADS, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), daemonThreads("sse-fanout-"));
+        watchdog = new ScheduledThreadPoolExecutor(1, daemonThreads("sse-fanout-watchdog-"));
+        watchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            watchdog.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Queues writes to an emitter from now on
+     * @param maxPending messages queued for the client before it is dropped
+     * @param onClose called once when the client disconnects, times out or is dropped
+     */
+    public Subscriber open(SseEmitter emitter, int maxPending, Consumer<Subscriber> onClose) {
+        Subscriber subscriber = new Subscriber(emitter, maxPending, onClose);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        return subscriber;
+    }
+
+    public final class Subscriber {
+        private final SseEmitter emitter;
+        private final int maxPending;
+        private final Consumer<Subscriber> onClose;
+        private final Queue<Supplier<SseEmitter.SseEventBuilder>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean open = new AtomicBoolean(true);
+        private final AtomicBoolean dropped = new AtomicBoolean();
+        // The thread blocked in a send, if any; guarded by this
+        private Thread sender;
+
+        private Subscriber(SseEmitter emitter, int maxPending, Consumer<Subscriber> onClose) {
+            this.emitter = emitter;
+            this.maxPending = maxPending;
+            this.onClose = onClose;
+        }
+
+        /**
+         * Queues a message without waiting for the connection
+         * @param message builds the event; called once, on the writing thread
+         */
+        public void offer(Supplier<SseEmitter.SseEventBuilder> message) {
+            if (!open.get()) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > maxPending) {
+                logger.debug("Dropping SSE subscriber that fell {} events behind", maxPending);
+                drop();
+                return;
+            }
+            pending.add(message);
+            scheduleDrain();
+        }
+
+        public boolean isOpen() {
+            return open.get();
+        }
+
+        void close() {
+            if (open.compareAndSet(true, false)) {
+                onClose.accept(this);
+            }
+        }
+
+        /**
+         * Disconnects a slow client. Completing the emitter waits for a write in progress, so it
+         * is left to the draining thread.
+         */
+        private void drop() {
+            dropped.set(true);
+            close();
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    close();
+                }
+            }
+        }
+
+        private void drain() {
+            Supplier<SseEmitter.SseEventBuilder> message;
+            while ((message = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                if (!open.get()) {
+                    continue;
+                }
+                send(message);
+            }
+            if (dropped.compareAndSet(true, false)) {
+                emitter.complete();
+            }
+            draining.set(false);
+            // A message offered after the last poll but before the flag was cleared
+            if (!pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void send(Supplier<SseEmitter.SseEventBuilder> message) {
+            synchronized (this) {
+                sender = Thread.currentThread();
+            }
+            ScheduledFuture<?> timeout = null;
+            try {
+                timeout = watchdog.schedule(this::abandon, sendTimeoutMillis, TimeUnit.MILLISECONDS);
+                emitter.send(message.get());
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Dropping SSE subscriber: {}", e.getMessage());
+                close();
+                // Completed here instead, also when the send failed because it was abandoned
+                dropped.set(false);
+                emitter.completeWithError(e);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                close();
+            } finally {
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+                synchronized (this) {
+                    sender = null;
+                    // An interrupt aimed at this send must not reach the thread's next task
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        // Runs on the watchdog; an interrupted write usually fails and frees its thread
+        private synchronized void abandon() {
+            if (sender != null && open.get()) {
+                logger.debug("Dropping SSE subscriber whose send blocked for {} ms", sendTimeoutMillis);
+                drop();
+                sender.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.RequestStatusHistory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind buffer for request status history.
+ * Rows recorded inside a transaction are held until just before it commits and then inserted
+ * as one JDBC batch on the same connection, so history is durable exactly when the status
+ * change it describes is. Rows recorded outside a transaction go to a bounded buffer that a
+ * background thread flushes in batches once enough rows are waiting or the flush interval
+ * passes; the buffer is drained on shutdown and callers block rather than drop rows when full.
+ */
+@Component
+public class StatusHistoryWriter {
+    private static final Logger logger = LoggerFactory.getLogger(StatusHistoryWriter.class);
+    private static final int BUFFER_CAPACITY = 10000; // rows waiting outside a transaction
+    private static final int MAX_BATCH_SIZE = 200; // rows per JDBC batch
+    private static final long FLUSH_INTERVAL = 500; // milliseconds
+    private static final String INSERT_SQL = "INSERT INTO request_status_history "
+            + "(request_id, old_status, new_status, notes, changed_by, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<RequestStatusHistory> buffer = new ArrayBlockingQueue<>(BUFFER_CAPACITY);
+    private final AtomicInteger pendingInTransactions = new AtomicInteger();
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private volatile Thread worker;
+
+    @Autowired
+    public StatusHistoryWriter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        Gauge.builder("ambulance.status_history.buffer.depth", this, StatusHistoryWriter::getBufferDepth)
+                .description("Status history rows recorded but not yet written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("ambulance.status_history.flush")
+                .description("Time taken to write one batch of status history rows")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("ambulance.status_history.batch.size")
+                .description("Status history rows written per batch")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        worker = new Thread(this::run, "status-history-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread current = worker;
+        worker = null;
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Whatever the worker did not get to is written before the context goes away
+        List<RequestStatusHistory> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += MAX_BATCH_SIZE) {
+            write(remaining.subList(from, Math.min(remaining.size(), from + MAX_BATCH_SIZE)));
+        }
+    }
+
+    /**
+     * Records a status history row. Inside a transaction the row is written just before that
+     * transaction commits; otherwise it is written shortly afterwards by the background flush.
+     */
+    public void record(RequestStatusHistory history) {
+        if (history == null || history.getRequest() == null || history.getRequest().getId() == null) {
+            throw new IllegalArgumentException("Status history must belong to a saved request");
+        }
+        if (history.getCreatedAt() == null) {
+            history.setCreatedAt(LocalDateTime.now());
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionRows().add(history);
+            pendingInTransactions.incrementAndGet();
+            return;
+        }
+
+        try {
+            buffer.put(history);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write(List.of(history));
+        }
+    }
+
+    /**
+     * @return rows recorded but not yet written, across open transactions and the buffer
+     */
+    public int getBufferDepth() {
+        return pendingInTransactions.get() + buffer.size();
+    }
+
+    // Rows of the current transaction, registering the pre-commit flush on first use
+    @SuppressWarnings("unchecked")
+    private List<RequestStatusHistory> transactionRows() {
+        List<RequestStatusHistory> rows = (List<RequestStatusHistory>) TransactionSynchronizationManager.getResource(this);
+        if (rows != null) {
+            return rows;
+        }
+        List<RequestStatusHistory> newRows = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, newRows);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // Rows reference the request, which may still be waiting in the persistence context
+                PersistenceContexts.flushTransactional();
+                write(newRows);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(StatusHistoryWriter.this);
+                pendingInTransactions.addAndGet(-newRows.size());
+            }
+        });
+        return newRows;
+    }
+
+    private void run() {
+        List<RequestStatusHistory> batch = new ArrayList<>();
+        while (worker == Thread.currentThread()) {
+            try {
+                if (batch.isEmpty()) {
+                    RequestStatusHistory first = buffer.poll(FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    // Give a burst a moment to fill the batch before writing it
+                    if (buffer.size() < MAX_BATCH_SIZE - 1) {
+                        Thread.sleep(Math.min(FLUSH_INTERVAL, 50));
+                    }
+                    buffer.drainTo(batch, MAX_BATCH_SIZE - 1);
+                }
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // Keep the batch and try again after the flush interval
+                logger.error("Failed to write {} status history rows, will retry: {}", batch.size(), e.getMessage(), e);
+                try {
+                    Thread.sleep(FLUSH_INTERVAL);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        // Hand an unwritten batch back so that stop() writes it
+        for (RequestStatusHistory row : batch) {
+            if (!buffer.offer(row)) {
+                write(List.of(row));
+            }
+        }
+    }
+
+    private void write(List<RequestStatusHistory> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        flushTimer.record(() -> jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getRequest().getId());
+            if (row.getOldStatus() != null) {
+                ps.setString(2, row.getOldStatus().name());
+            } else {
+                ps.setNull(2, Types.VARCHAR);
+            }
+            ps.setString(3, row.getNewStatus().name());
+            ps.setString(4, row.getNotes());
+            ps.setString(5, row.getChangedBy());
+            ps.setTimestamp(6, Timestamp.valueOf(row.getCreatedAt()));
+        }));
+        batchSizes.record(rows.size());
+        logger.debug("Wrote {} status history rows", rows.size());
+    }
+}
@@ -0,0 +1,212 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.dto.PositionPing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Takes in position pings from the fleet. Each unit keeps its recent pings in a fixed ring
+ * in memory, and the fleet cache is moved to the newest one so dispatch sees it right away.
+ * Only a sampled position reaches the database: every unit that has moved far enough since
+ * its last write gets one row update per flush, all sent in a single batch.
+ */
+@Service
+public class TelemetryService {
+    private static final Logger logger = LoggerFactory.getLogger(TelemetryService.class);
+    static final int TRACK_SIZE = 120; // two minutes of pings at 1 Hz
+    static final double PERSIST_DISTANCE_KM = 0.05; // smaller moves are not written
+    private static final long PERSIST_INTERVAL = 30000; // 30 seconds in milliseconds
+    private static final long MAX_CLOCK_SKEW_SECONDS = 60; // device clocks further ahead are not trusted
+    private static final long TRACK_IDLE_HOURS = 1; // tracks of silent units are dropped after this
+    private static final String PERSIST_SQL = "UPDATE ambulances SET latitude = ?, longitude = ? WHERE id = ?";
+
+    private final AmbulanceService ambulanceService;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, Track> tracks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TelemetryService(AmbulanceService ambulanceService, JdbcTemplate jdbcTemplate) {
+        this.ambulanceService = ambulanceService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records a ping and moves the unit to it
+     * @return false if the ping is malformed, older than the unit's latest one, or for an unknown unit
+     */
+    public boolean ingest(PositionPing ping) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!isValid(ping, now)) {
+            return false;
+        }
+        if (ping.getRecordedAt() == null) {
+            ping.setRecordedAt(now);
+        }
+        Long id = ping.getAmbulanceId();
+        Track track = tracks.computeIfAbsent(id, key -> new Track());
+        // Held across the cache update so that two pings of one unit reach the cache in order
+        synchronized (track) {
+            PositionPing latest = track.latest();
+            if (latest != null && !ping.getRecordedAt().isAfter(latest.getRecordedAt())) {
+                return false;
+            }
+            if (!ambulanceService.updatePosition(id, ping.getLatitude(), ping.getLongitude())) {
+                if (latest == null) {
+                    tracks.remove(id, track);
+                }
+                return false;
+            }
+            track.add(ping);
+        }
+        return true;
+    }
+
+    /**
+     * Records a batch of pings in the order given
+     * @return the number of pings accepted
+     */
+    public int ingestAll(List<PositionPing> pings) {
+        if (pings == null) {
+            return 0;
+        }
+        int accepted = 0;
+        for (PositionPing ping : pings) {
+            if (ingest(ping)) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * @return the newest ping received for the unit since startup
+     */
+    public Optional<PositionPing> getLatestPosition(Long ambulanceId) {
+        Track track = ambulanceId != null ? tracks.get(ambulanceId) : null;
+        if (track == null) {
+            return Optional.empty();
+        }
+        synchronized (track) {
+            return Optional.ofNullable(track.latest());
+        }
+    }
+
+    /**
+     * @return the unit's recent pings, oldest first
+     */
+    public List<PositionPing> getTrack(Long ambulanceId) {
+        Track track = ambulanceId != null ? tracks.get(ambulanceId) : null;
+        if (track == null) {
+            return Collections.emptyList();
+        }
+        synchronized (track) {
+            return track.snapshot();
+        }
+    }
+
+    /**
+     * Writes the latest position of every unit that has moved at least
+     * {@link #PERSIST_DISTANCE_KM} since its last write, and drops tracks that have gone quiet
+     * @return the number of positions written
+     */
+    @Scheduled(initialDelay = PERSIST_INTERVAL, fixedDelay = PERSIST_INTERVAL)
+    public int flush() {
+        LocalDateTime idleSince = LocalDateTime.now().minusHours(TRACK_IDLE_HOURS);
+        List<Object[]> rows = new ArrayList<>();
+        List<Track> written = new ArrayList<>();
+        List<PositionPing> sampled = new ArrayList<>();
+        tracks.forEach((id, track) -> {
+            synchronized (track) {
+                PositionPing latest = track.latest();
+                if (latest == null) {
+                    return;
+                }
+                if (track.movedSincePersisted(latest)) {
+                    rows.add(new Object[] {latest.getLatitude(), latest.getLongitude(), id});
+                    written.add(track);
+                    sampled.add(latest);
+                } else if (latest.getRecordedAt().isBefore(idleSince)) {
+                    tracks.remove(id, track);
+                }
+            }
+        });
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        try {
+            jdbcTemplate.batchUpdate(PERSIST_SQL, rows);
+        } catch (DataAccessException e) {
+            // Positions stay pending and are tried again on the next flush
+            logger.error("Failed to persist {} ambulance positions: {}", rows.size(), e.getMessage(), e);
+            return 0;
+        }
+        for (int i = 0; i < written.size(); i++) {
+            Track track = written.get(i);
+            synchronized (track) {
+                track.persisted = sampled.get(i);
+            }
+        }
+        logger.debug("Persisted positions of {} ambulances", rows.size());
+        return rows.size();
+    }
+
+    private static boolean isValid(PositionPing ping, LocalDateTime now) {
+        if (ping == null || ping.getAmbulanceId() == null || ping.getLatitude() == null || ping.getLongitude() == null) {
+            return false;
+        }
+        if (Math.abs(ping.getLatitude()) > 90.0 || Math.abs(ping.getLongitude()) > 180.0) {
+            return false;
+        }
+        return ping.getRecordedAt() == null || !ping.getRecordedAt().isAfter(now.plusSeconds(MAX_CLOCK_SKEW_SECONDS));
+    }
+
+    /**
+     * Ring of a unit's most recent pings; guarded by its own monitor
+     */
+    private static final class Track {
+        private final PositionPing[] pings = new PositionPing[TRACK_SIZE];
+        private int next;
+        private int size;
+        // Last position written to the database, null until the first write
+        private PositionPing persisted;
+
+        void add(PositionPing ping) {
+            pings[next] = ping;
+            next = (next + 1) % TRACK_SIZE;
+            size = Math.min(size + 1, TRACK_SIZE);
+        }
+
+        PositionPing latest() {
+            return size == 0 ? null : pings[(next + TRACK_SIZE - 1) % TRACK_SIZE];
+        }
+
+        List<PositionPing> snapshot() {
+            List<PositionPing> copy = new ArrayList<>(size);
+            for (int i = size; i > 0; i--) {
+                copy.add(pings[(next + TRACK_SIZE - i) % TRACK_SIZE]);
+            }
+            return copy;
+        }
+
+        boolean movedSincePersisted(PositionPing latest) {
+            if (persisted == null) {
+                return true;
+            }
+            return latest != persisted && GridSpatialIndex.distanceKm(persisted.getLatitude(), persisted.getLongitude(),
+                    latest.getLatitude(), latest.getLongitude()) >= PERSIST_DISTANCE_KM;
+        }
+    }
+}
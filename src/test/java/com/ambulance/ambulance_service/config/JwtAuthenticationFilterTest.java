@@ -0,0 +1,116 @@
+package com.ambulance.ambulance_service.config;
+
+import com.ambulance.ambulance_service.entity.Role;
+import com.ambulance.ambulance_service.service.CustomUserDetailsService;
+import com.ambulance.ambulance_service.service.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Spy
+    private JwtService jwtService = new JwtService("bo3eRDMMuCNW0K+ox8Qnlu8rIcM9pGS58YyibB1qVow=", 3600000L);
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @InjectMocks
+    private JwtAuthenticationFilter filter;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testFilter_AuthenticatesWithAuthoritiesOfLoadedUser() throws Exception {
+        // Arrange - the token still says USER, but the account has since been promoted
+        MockHttpServletRequest request = withBearer(jwtService.generateToken("admin", Role.USER));
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(
+                new User("admin", "encoded", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication, "A valid token should authenticate the call");
+        assertEquals("admin", ((User) authentication.getPrincipal()).getUsername());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), List.copyOf(authentication.getAuthorities()));
+    }
+
+    @Test
+    void testFilter_RejectsDisabledUserWithValidToken() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = withBearer(jwtService.generateToken("user", Role.USER));
+        MockFilterChain chain = new MockFilterChain();
+        when(userDetailsService.loadUserByUsername("user"))
+                .thenThrow(new UsernameNotFoundException("User is disabled: user"));
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication(),
+                "A disabled account should not be authenticated by its token");
+        assertNotNull(chain.getRequest(), "The call should still go down the chain");
+    }
+
+    @Test
+    void testFilter_LoadsUserOnceForBurstOfCalls() throws Exception {
+        // Arrange
+        String token = jwtService.generateToken("user", Role.USER);
+        when(userDetailsService.loadUserByUsername("user")).thenReturn(
+                new User("user", "encoded", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        // Act
+        for (int call = 0; call < 3; call++) {
+            SecurityContextHolder.clearContext();
+            filter.doFilter(withBearer(token), new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        // Assert
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, times(1)).loadUserByUsername("user");
+    }
+
+    @Test
+    void testFilter_LeavesCallUnauthenticatedForInvalidToken() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = withBearer("not-a-token");
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest(), "The call should still go down the chain");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    private static MockHttpServletRequest withBearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/requests");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
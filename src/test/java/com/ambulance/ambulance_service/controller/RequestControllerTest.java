@@ -5,11 +5,14 @@ import com.ambulance.ambulance_service.entity.*;
 import com.ambulance.ambulance_service.service.RequestService;
 import com.ambulance.ambulance_service.exception.NoAvailableAmbulanceException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -28,6 +31,8 @@ import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -41,6 +46,9 @@ class RequestControllerTest {
     @Mock
     private RequestService requestService;
 
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private RequestController requestController;
 
@@ -156,6 +164,33 @@ class RequestControllerTest {
         verify(requestService, times(1)).createRequest(any(AmbulanceRequestDto.class), any());
     }
 
+    @Test
+    void testCreateRequests_ReportsEachItemInOrder() throws Exception {
+        // Arrange - the middle item has a malformed phone number
+        AmbulanceRequestDto invalidDto = new AmbulanceRequestDto(
+                "John Doe", "Jane Smith", "invalid-phone", "123 Emergency Street", "Emergency", "");
+        Request queued = new Request("Patient 2", "+2222222222", "123 Emergency Street", "Emergency");
+        queued.setId(2L);
+        queued.setStatus(RequestStatus.PENDING);
+        when(requestService.createRequests(anyList(), any())).thenReturn(Arrays.asList(mockRequest, queued));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/requests/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Arrays.asList(validRequestDto, invalidDto, validRequestDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].status", is("DISPATCHED")))
+                .andExpect(jsonPath("$[0].requestId", is(1)))
+                .andExpect(jsonPath("$[1].status", is("REJECTED")))
+                .andExpect(jsonPath("$[1].errors.userContact", containsString("Invalid phone number format")))
+                .andExpect(jsonPath("$[2].index", is(2)))
+                .andExpect(jsonPath("$[2].status", is("PENDING")));
+
+        verify(requestService, times(1)).createRequests(argThat(list -> list.size() == 2), any());
+    }
+
     @Test
     void testGetAllRequests() throws Exception {
         // Arrange
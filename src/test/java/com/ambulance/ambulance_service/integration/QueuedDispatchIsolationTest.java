@@ -0,0 +1,94 @@
+package com.ambulance.ambulance_service.integration;
+
+import com.ambulance.ambulance_service.AmbulanceServiceApplication;
+import com.ambulance.ambulance_service.TestConfig;
+import com.ambulance.ambulance_service.entity.Ambulance;
+import com.ambulance.ambulance_service.entity.AvailabilityStatus;
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.entity.RequestPriority;
+import com.ambulance.ambulance_service.entity.RequestStatus;
+import com.ambulance.ambulance_service.repository.RequestRepository;
+import com.ambulance.ambulance_service.service.AmbulanceService;
+import com.ambulance.ambulance_service.service.RequestService;
+import com.ambulance.ambulance_service.service.RequestService.QueuedDispatchResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Dispatches a queued batch in which one request cannot be written, against the real
+ * transaction manager, so that a failure marking its transaction rollback-only is seen.
+ */
+@SpringBootTest(classes = AmbulanceServiceApplication.class)
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Import(TestConfig.class)
+class QueuedDispatchIsolationTest {
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private AmbulanceService ambulanceService;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Test
+    void testDispatchPendingRequests_FailingRequestDoesNotHoldUpTheBatch() {
+        // Arrange - the poison request is served first, and its patient cannot be saved without a contact
+        String run = Long.toString(System.nanoTime(), 36);
+        Ambulance first = ambulanceService.saveAmbulance(unitAt("ISO-" + run + "-1", 12.500, 45.500));
+        Ambulance second = ambulanceService.saveAmbulance(unitAt("ISO-" + run + "-2", 12.501, 45.501));
+        Request poison = requestRepository.save(pendingRequest("Poison Patient", null, RequestPriority.CRITICAL));
+        Request healthy = requestRepository.save(pendingRequest("Healthy Patient", "+4790000001", RequestPriority.LOW));
+
+        // Act
+        Map<Long, QueuedDispatchResult> results =
+                requestService.dispatchPendingRequests(List.of(poison.getId(), healthy.getId()));
+
+        // Assert
+        assertEquals(QueuedDispatchResult.FAILED, results.get(poison.getId()));
+        assertEquals(QueuedDispatchResult.DISPATCHED, results.get(healthy.getId()),
+                "The rest of the batch should be dispatched despite the failure");
+        assertEquals(RequestStatus.PENDING, requestRepository.findById(poison.getId()).orElseThrow().getStatus(),
+                "The failed request should stay queued");
+        assertEquals(RequestStatus.DISPATCHED, requestRepository.findById(healthy.getId()).orElseThrow().getStatus());
+        long available = List.of(first.getId(), second.getId()).stream()
+                .map(id -> ambulanceService.getAmbulanceById(id).orElseThrow().getAvailability())
+                .filter(status -> status == AvailabilityStatus.AVAILABLE)
+                .count();
+        assertEquals(1, available, "The unit claimed for the failed request should be back in the pool");
+    }
+
+    // Far from the units of the other tests, so the batch is matched to these two only
+    private static Ambulance unitAt(String plate, double latitude, double longitude) {
+        Ambulance ambulance = new Ambulance("Isolation Station", AvailabilityStatus.AVAILABLE, plate);
+        ambulance.setLatitude(latitude);
+        ambulance.setLongitude(longitude);
+        return ambulance;
+    }
+
+    private static Request pendingRequest(String patient, String contact, RequestPriority priority) {
+        Request request = new Request();
+        request.setUserName(patient);
+        request.setUserContact(contact);
+        request.setLocation("Isolation Street");
+        request.setLatitude(12.500);
+        request.setLongitude(45.500);
+        request.setEmergencyDescription("Test emergency");
+        request.setPriority(priority);
+        request.setRequestTime(LocalDateTime.now());
+        request.setStatus(RequestStatus.PENDING);
+        return request;
+    }
+}
@@ -0,0 +1,73 @@
+package com.ambulance.ambulance_service.integration;
+
+import com.ambulance.ambulance_service.AmbulanceServiceApplication;
+import com.ambulance.ambulance_service.TestConfig;
+import com.ambulance.ambulance_service.dto.AmbulanceRequestDto;
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.exception.NoAvailableAmbulanceException;
+import com.ambulance.ambulance_service.repository.RequestStatusHistoryRepository;
+import com.ambulance.ambulance_service.service.RequestService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Takes a call in with a persistence context bound to the thread beforehand, as the open-in-view
+ * interceptor does for every web request, so the status history batch written before commit
+ * still finds the request row it references.
+ */
+@SpringBootTest(classes = AmbulanceServiceApplication.class)
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Import(TestConfig.class)
+class RequestIntakeOpenInViewTest {
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private RequestStatusHistoryRepository requestStatusHistoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private EntityManager viewEntityManager;
+
+    @BeforeEach
+    void openView() {
+        viewEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(viewEntityManager));
+    }
+
+    @AfterEach
+    void closeView() {
+        TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        viewEntityManager.close();
+    }
+
+    @Test
+    void testCreateRequest_HistoryWrittenWithViewContextBound() throws NoAvailableAmbulanceException {
+        // Arrange
+        AmbulanceRequestDto call = new AmbulanceRequestDto(
+                "Caller", "View Patient", "+4791000001", "Tromso", "Chest pain", "Conscious");
+
+        // Act
+        Request request = requestService.createRequest(call, null);
+
+        // Assert
+        assertNotNull(request.getId(), "Request should be saved");
+        assertFalse(requestStatusHistoryRepository.findByRequestIdOrderByCreatedAtDesc(request.getId()).isEmpty(),
+                "Status history should be written in the same commit as the request");
+    }
+}
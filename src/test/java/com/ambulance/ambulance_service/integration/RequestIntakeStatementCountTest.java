@@ -0,0 +1,204 @@
+package com.ambulance.ambulance_service.integration;
+
+import com.ambulance.ambulance_service.AmbulanceServiceApplication;
+import com.ambulance.ambulance_service.TestConfig;
+import com.ambulance.ambulance_service.dto.AmbulanceRequestDto;
+import com.ambulance.ambulance_service.entity.Ambulance;
+import com.ambulance.ambulance_service.entity.AvailabilityStatus;
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.entity.RequestStatus;
+import com.ambulance.ambulance_service.exception.NoAvailableAmbulanceException;
+import com.ambulance.ambulance_service.exception.RequestNotFoundException;
+import com.ambulance.ambulance_service.service.AmbulanceService;
+import com.ambulance.ambulance_service.service.RequestService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pins the number of statements an emergency call costs, counting each JDBC batch as one
+ * round trip. Only statements issued by the test thread are counted, so the background
+ * writers and schedulers of the application do not disturb the numbers. Sequence calls are
+ * excluded by warming up the pooled id generators first; they cost one call per 50 ids.
+ */
+@SpringBootTest(classes = AmbulanceServiceApplication.class)
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Import({TestConfig.class, RequestIntakeStatementCountTest.StatementCountingConfig.class})
+class RequestIntakeStatementCountTest {
+
+    private static final StatementCounter counter = new StatementCounter();
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private AmbulanceService ambulanceService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // The pooled id generators call their sequence on the first two inserts, then once per 50 ids
+    @BeforeEach
+    void warmUpIdSequences() throws NoAvailableAmbulanceException {
+        for (int i = 0; i < 2; i++) {
+            cancelIfQueued(requestService.createRequest(call("+479100000" + i, 78.1, 15.5), null));
+        }
+    }
+
+    @Test
+    void testCreateRequest_DispatchedCallStatementCount() throws NoAvailableAmbulanceException {
+        // Arrange - a unit far away from anything other tests create, so it is the one claimed
+        Ambulance ambulance = new Ambulance("Count Station", AvailabilityStatus.AVAILABLE, "CNT" + System.nanoTime());
+        ambulance.setLatitude(78.2);
+        ambulance.setLongitude(15.6);
+        ambulanceService.saveAmbulance(ambulance);
+        AmbulanceRequestDto call = call("+4790000001", 78.2005, 15.6005);
+
+        // Act
+        counter.start();
+        Request request = requestService.createRequest(call, null);
+        int statements = counter.stop();
+
+        // Assert
+        assertEquals(RequestStatus.DISPATCHED, request.getStatus(), "The nearby unit should be dispatched");
+        // Patient lookup and insert, ambulance claim, request insert, service history insert,
+        // one status history batch and one outbox batch
+        assertEquals(7, statements, "Dispatched intake should take exactly 7 statements");
+    }
+
+    @Test
+    void testCreateRequest_QueuedCallStatementCount() throws NoAvailableAmbulanceException {
+        // Arrange - take every free unit so the call has to queue
+        transactionTemplate.executeWithoutResult(status -> {
+            while (ambulanceService.getNextAvailableAmbulance().isPresent()) {
+                // claimed
+            }
+        });
+        AmbulanceRequestDto call = call("+4790000002", 78.3, 15.7);
+
+        // Act
+        counter.start();
+        Request request = requestService.createRequest(call, null);
+        int statements = counter.stop();
+
+        // Assert
+        assertEquals(RequestStatus.PENDING, request.getStatus(), "No unit is free, so the call should queue");
+        // Patient lookup and insert, request insert, service history insert,
+        // one status history batch and one outbox batch
+        assertEquals(6, statements, "Queued intake should take exactly 6 statements");
+        cancelIfQueued(request);
+    }
+
+    // Queued calls would otherwise take the units later tests create
+    private void cancelIfQueued(Request request) {
+        if (request.getStatus() == RequestStatus.PENDING) {
+            try {
+                requestService.updateRequestStatus(request.getId(), RequestStatus.CANCELLED, "Statement count test");
+            } catch (RequestNotFoundException e) {
+                fail("Request " + request.getId() + " should exist");
+            }
+        }
+    }
+
+    private AmbulanceRequestDto call(String contact, double latitude, double longitude) {
+        AmbulanceRequestDto call = new AmbulanceRequestDto(
+                "Caller", "Count Patient", contact, "Longyearbyen", "Fall injury", "Conscious, breathing");
+        call.setLatitude(latitude);
+        call.setLongitude(longitude);
+        return call;
+    }
+
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? counter.wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    // Counts executed statements and batches issued by one thread, through JDK proxies
+    static final class StatementCounter {
+        private final AtomicInteger count = new AtomicInteger();
+        private volatile Thread tracked;
+
+        void start() {
+            count.set(0);
+            tracked = Thread.currentThread();
+        }
+
+        int stop() {
+            tracked = null;
+            return count.get();
+        }
+
+        DataSource wrap(DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, (method, result) ->
+                    result instanceof Connection connection && method.equals("getConnection")
+                            ? wrap(connection) : result);
+        }
+
+        private Connection wrap(Connection connection) {
+            return proxy(Connection.class, connection, (method, result) -> {
+                if (result instanceof CallableStatement statement) {
+                    return wrap(CallableStatement.class, statement);
+                }
+                if (result instanceof PreparedStatement statement) {
+                    return wrap(PreparedStatement.class, statement);
+                }
+                if (result instanceof Statement statement) {
+                    return wrap(Statement.class, statement);
+                }
+                return result;
+            });
+        }
+
+        private <S extends Statement> S wrap(Class<S> type, S statement) {
+            return proxy(type, statement, (method, result) -> result);
+        }
+
+        private <T> T proxy(Class<T> type, T target, ResultMapper mapper) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                if (method.getName().startsWith("execute") && Thread.currentThread() == tracked) {
+                    count.incrementAndGet();
+                }
+                try {
+                    return mapper.map(method.getName(), method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+        }
+
+        private interface ResultMapper {
+            Object map(String method, Object result);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.ambulance.ambulance_service.integration;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the V7 migration on PostgreSQL, over the id columns of both schemas it meets: identity
+ * columns created by Hibernate, and the BIGSERIAL columns of schema.sql. Uses a PostgreSQL
+ * container, or the database given by {@code -Dmigrationtest.jdbcUrl} where Docker is unavailable.
+ */
+@EnabledIf("postgresAvailable")
+class SequenceIdMigrationTest {
+    private static final Path MIGRATION = Path.of("database/migrations/V7__sequence_ids.sql");
+    private static final List<String> TABLES = List.of("ambulances", "patients", "requests", "service_history", "users");
+    private static final int EXISTING_ROWS = 3;
+    // Matches the default allocation size of the entities' sequence generators
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static PostgreSQLContainer<?> postgres;
+    private Connection connection;
+
+    static boolean postgresAvailable() {
+        return System.getProperty("migrationtest.jdbcUrl") != null
+                || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @BeforeAll
+    static void startPostgres() {
+        if (System.getProperty("migrationtest.jdbcUrl") == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+        }
+    }
+
+    @AfterAll
+    static void stopPostgres() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = postgres != null
+                ? DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                : DriverManager.getConnection(System.getProperty("migrationtest.jdbcUrl"),
+                        System.getProperty("migrationtest.username", "postgres"),
+                        System.getProperty("migrationtest.password", ""));
+        execute("DROP SCHEMA IF EXISTS migration_test CASCADE; CREATE SCHEMA migration_test; "
+                + "SET search_path TO migration_test");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        execute("DROP SCHEMA IF EXISTS migration_test CASCADE");
+        connection.close();
+    }
+
+    @Test
+    void testMigration_ReplacesHibernateIdentityColumns() throws Exception {
+        // Arrange
+        createTables("BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY");
+
+        // Act
+        execute(Files.readString(MIGRATION));
+
+        // Assert
+        for (String table : TABLES) {
+            assertEquals("NO", queryString("SELECT is_identity FROM information_schema.columns "
+                    + "WHERE table_schema = 'migration_test' AND table_name = '" + table + "' AND column_name = 'id'"),
+                    table + " should no longer be an identity column");
+            assertIdsDoNotCollide(table);
+        }
+    }
+
+    @Test
+    void testMigration_ReplacesSerialDefaults() throws Exception {
+        // Arrange
+        createTables("BIGSERIAL PRIMARY KEY");
+
+        // Act
+        execute(Files.readString(MIGRATION));
+
+        // Assert
+        for (String table : TABLES) {
+            assertEquals("nextval('" + table + "_seq'::regclass)", queryString("SELECT column_default "
+                    + "FROM information_schema.columns WHERE table_schema = 'migration_test' "
+                    + "AND table_name = '" + table + "' AND column_name = 'id'"));
+            assertIdsDoNotCollide(table);
+        }
+    }
+
+    private void createTables(String idColumn) throws SQLException {
+        for (String table : TABLES) {
+            execute("CREATE TABLE " + table + " (id " + idColumn + ", note VARCHAR(20))");
+            execute("INSERT INTO " + table + " (note) SELECT 'existing' FROM generate_series(1, " + EXISTING_ROWS + ")");
+        }
+    }
+
+    // Hibernate's pooled optimizer hands out the block ending at the value nextval returns
+    private void assertIdsDoNotCollide(String table) throws SQLException {
+        long blockEnd = queryLong("SELECT nextval('" + table + "_seq')");
+        long blockStart = blockEnd - ALLOCATION_SIZE + 1;
+        long insertedId = queryLong("INSERT INTO " + table + " (note) VALUES ('raw') RETURNING id");
+
+        assertTrue(blockStart > EXISTING_ROWS, table + " ids handed to Hibernate should start past the existing rows");
+        assertTrue(insertedId > blockEnd, table + " rows inserted without an id should not take Hibernate's ids");
+        assertEquals(ALLOCATION_SIZE, queryLong("SELECT nextval('" + table + "_seq')") - insertedId,
+                table + "_seq should step by the allocation size");
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private String queryString(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+            assertTrue(result.next());
+            return result.getString(1);
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        return Long.parseLong(queryString(sql));
+    }
+}
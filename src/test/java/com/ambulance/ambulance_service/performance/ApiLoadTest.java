@@ -0,0 +1,261 @@
+package com.ambulance.ambulance_service.performance;
+
+import com.ambulance.ambulance_service.entity.Ambulance;
+import com.ambulance.ambulance_service.entity.AvailabilityStatus;
+import com.ambulance.ambulance_service.entity.Role;
+import com.ambulance.ambulance_service.entity.User;
+import com.ambulance.ambulance_service.repository.AmbulanceRepository;
+import com.ambulance.ambulance_service.repository.UserRepository;
+import com.ambulance.ambulance_service.service.AmbulanceService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the HTTP API of the embedded app with an open-loop mixed workload at a series of
+ * arrival rates and reports latency percentiles per endpoint, for throughput-vs-latency
+ * curves before a release. Only runs when asked for:
+ * <pre>
+ * mvn -P loadtest test -Dloadtest.rates=50,100,200 -Dloadtest.duration=60 -Dloadtest.fleetSize=500
+ * </pre>
+ * It runs against H2 by default. For a local Postgres, also pass -Dspring.datasource.url,
+ * -Dspring.datasource.username, -Dspring.datasource.password,
+ * -Dspring.datasource.driver-class-name=org.postgresql.Driver and
+ * -Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect.
+ * Results are written to target/loadtest as one .hgrm file per rate and endpoint, plus curve.csv.
+ */
+// The app logs SQL and every status change at DEBUG, which would be measured along with the API
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.com.ambulance.ambulance_service=WARN",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ApiLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(ApiLoadTest.class);
+    private static final double MIN_LAT = 6.35, MAX_LAT = 6.75;
+    private static final double MIN_LON = 3.10, MAX_LON = 3.70;
+    private static final String ADMIN = "loadtest-admin";
+    private static final String CALLER = "loadtest-caller";
+    private static final String PASSWORD = "loadtest123";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AmbulanceRepository ambulanceRepository;
+
+    @Autowired
+    private AmbulanceService ambulanceService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    // Requests taken in and not yet closed, for the status updates to work through
+    private final Queue<Long> openRequests = new ConcurrentLinkedQueue<>();
+    private final AtomicLong callers = new AtomicLong();
+
+    private String adminToken;
+    private String callerToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        int fleetSize = Integer.getInteger("loadtest.fleetSize", 200);
+        seedFleet(fleetSize);
+        ensureUser(ADMIN, Role.ADMIN);
+        ensureUser(CALLER, Role.USER);
+        adminToken = login(ADMIN);
+        callerToken = login(CALLER);
+        logger.info("Load test fleet of {} ambulances ready on port {}", fleetSize, port);
+    }
+
+    @Test
+    void testThroughputVersusLatency() throws Exception {
+        // Arrange
+        List<LoadHarness.Operation> mix = workload(System.getProperty("loadtest.mix",
+                "intake=60,status=25,listing=10,dashboard=5"));
+        LoadHarness harness = new LoadHarness(client, Integer.getInteger("loadtest.maxInFlight", 1000));
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration", 30));
+        Path output = Path.of(System.getProperty("loadtest.output", "target/loadtest"));
+
+        for (String rate : System.getProperty("loadtest.rates", "25,50,100").split(",")) {
+            // Act
+            LoadHarness.Run run = harness.run(mix, Double.parseDouble(rate.trim()), warmup, duration);
+
+            // Assert
+            logger.warn("{}", run.summary());
+            run.writeTo(output);
+            assertTrue(run.responses() > 0, "Run at " + rate + " calls/s should get responses");
+        }
+    }
+
+    private List<LoadHarness.Operation> workload(String spec) {
+        List<LoadHarness.Operation> mix = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            String name = parts[0].trim();
+            int weight = Integer.parseInt(parts[1].trim());
+            switch (name) {
+                case "intake":
+                    mix.add(new LoadHarness.Operation(name, weight, this::intake, this::rememberRequest));
+                    break;
+                case "status":
+                    mix.add(new LoadHarness.Operation(name, weight, this::completeRequest));
+                    break;
+                case "listing":
+                    mix.add(new LoadHarness.Operation(name, weight,
+                            () -> get("/api/admin/requests?page=0&size=20", adminToken)));
+                    break;
+                case "dashboard":
+                    mix.add(new LoadHarness.Operation(name, weight, () -> get("/api/admin/dashboard", adminToken)));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operation in loadtest.mix: " + name);
+            }
+        }
+        return mix;
+    }
+
+    private HttpRequest intake() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long caller = callers.incrementAndGet();
+        Map<String, Object> body = Map.of(
+                "userName", "Load Caller " + caller,
+                "patientName", "Load Patient " + caller,
+                "userContact", String.format("+234%010d", caller),
+                "location", "Load test location " + caller,
+                "latitude", MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT),
+                "longitude", MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON),
+                "emergencyDescription", "Load test emergency");
+        return json("/api/requests", callerToken).POST(HttpRequest.BodyPublishers.ofString(toJson(body))).build();
+    }
+
+    private void rememberRequest(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            return;
+        }
+        try {
+            JsonNode id = objectMapper.readTree(response.body()).get("id");
+            if (id != null) {
+                openRequests.add(id.asLong());
+            }
+        } catch (Exception e) {
+            logger.warn("Unreadable intake response: {}", e.getMessage());
+        }
+    }
+
+    // Closing a request frees its unit, so intake keeps finding ambulances at a steady rate
+    private HttpRequest completeRequest() {
+        Long id = openRequests.poll();
+        if (id == null) {
+            return null;
+        }
+        return json("/api/requests/" + id + "/status", adminToken)
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"status\":\"COMPLETED\",\"notes\":\"Load test\"}"))
+                .build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest.Builder json(String path, String token) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to write request body", e);
+        }
+    }
+
+    private void seedFleet(int fleetSize) {
+        Random random = new Random(42);
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<Ambulance> fleet = new ArrayList<>(fleetSize);
+        for (int i = 1; i <= fleetSize; i++) {
+            Ambulance ambulance = new Ambulance("Station " + i, AvailabilityStatus.AVAILABLE, "LT-" + run + "-" + i);
+            ambulance.setLatitude(MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT));
+            ambulance.setLongitude(MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON));
+            fleet.add(ambulance);
+        }
+        ambulanceRepository.saveAll(fleet);
+        // The rows bypass the service, so reconcile its cache with them
+        ambulanceService.init();
+    }
+
+    private void ensureUser(String username, Role role) {
+        if (userRepository.findByUsername(username).isPresent()) {
+            return;
+        }
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setRole(role);
+        user.setEmail(username + "@ambulance.com");
+        user.setFirstName("Load");
+        user.setLastName("Test");
+        user.setEnabled(true);
+        userRepository.save(user);
+    }
+
+    private String login(String username) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        toJson(Map.of("username", username, "password", PASSWORD))))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "Login of " + username + " should succeed");
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+}
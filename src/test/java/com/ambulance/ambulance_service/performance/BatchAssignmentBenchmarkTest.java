@@ -0,0 +1,111 @@
+package com.ambulance.ambulance_service.performance;
+
+import com.ambulance.ambulance_service.service.GridSpatialIndex;
+import com.ambulance.ambulance_service.service.HungarianAssignment;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Times the batch assignment solve on a full 500 x 500 round, the largest batch the
+ * queued request dispatcher sends, against nearest-first greedy matching.
+ */
+class BatchAssignmentBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchAssignmentBenchmarkTest.class);
+    private static final int BATCH_SIZE = 500;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+    private static final long LATENCY_BUDGET_NANOS = 500_000_000L; // 500ms per assignment round
+    private static final double MIN_LAT = 6.35, MAX_LAT = 6.75;
+    private static final double MIN_LON = 3.10, MAX_LON = 3.70;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void testFullBatchSolveStaysWithinLatencyBudget() {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            HungarianAssignment.solve(randomCosts());
+        }
+
+        long[] solveTimes = new long[MEASURED_ROUNDS];
+        double optimalKm = 0, greedyKm = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            double[][] costs = randomCosts();
+            long start = System.nanoTime();
+            int[] assignment = HungarianAssignment.solve(costs);
+            solveTimes[i] = System.nanoTime() - start;
+
+            optimalKm += HungarianAssignment.totalCost(costs, assignment);
+            greedyKm += greedyCost(costs);
+        }
+
+        long p99 = percentile(solveTimes, 0.99);
+        logger.info(String.format("Batch assignment %dx%d: mean=%.1fms p50=%.1fms p99=%.1fms | " +
+                        "mean travel optimal=%.1fkm greedy=%.1fkm",
+                BATCH_SIZE, BATCH_SIZE,
+                mean(solveTimes) / 1e6, percentile(solveTimes, 0.50) / 1e6, p99 / 1e6,
+                optimalKm / MEASURED_ROUNDS, greedyKm / MEASURED_ROUNDS));
+
+        assertTrue(optimalKm <= greedyKm + 1e-6, "Optimal matching should never travel further than greedy");
+        assertTrue(p99 < LATENCY_BUDGET_NANOS,
+                "500x500 solve p99 should stay under " + LATENCY_BUDGET_NANOS / 1_000_000 + "ms, was "
+                        + p99 / 1_000_000 + "ms");
+    }
+
+    // Requests and units scattered across Lagos, costs in kilometres
+    private double[][] randomCosts() {
+        double[][] requests = randomPoints();
+        double[][] units = randomPoints();
+        double[][] costs = new double[BATCH_SIZE][BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            for (int j = 0; j < BATCH_SIZE; j++) {
+                costs[i][j] = GridSpatialIndex.distanceKm(requests[i][0], requests[i][1], units[j][0], units[j][1]);
+            }
+        }
+        return costs;
+    }
+
+    private double[][] randomPoints() {
+        double[][] points = new double[BATCH_SIZE][];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            points[i] = new double[] {
+                    MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT),
+                    MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON)
+            };
+        }
+        return points;
+    }
+
+    // Each request in turn takes its nearest remaining unit, as one-at-a-time dispatch does
+    private static double greedyCost(double[][] costs) {
+        boolean[] taken = new boolean[costs[0].length];
+        double total = 0;
+        for (double[] row : costs) {
+            int best = -1;
+            for (int j = 0; j < row.length; j++) {
+                if (!taken[j] && (best < 0 || row[j] < row[best])) {
+                    best = j;
+                }
+            }
+            taken[best] = true;
+            total += row[best];
+        }
+        return total;
+    }
+
+    private static long percentile(long[] samples, double p) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(p * sorted.length))];
+    }
+
+    private static double mean(long[] samples) {
+        return Arrays.stream(samples).average().orElse(0);
+    }
+}
@@ -0,0 +1,126 @@
+package com.ambulance.ambulance_service.performance;
+
+import com.ambulance.ambulance_service.AmbulanceServiceApplication;
+import com.ambulance.ambulance_service.TestConfig;
+import com.ambulance.ambulance_service.entity.Patient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares inserting 100k rows through Hibernate with pooled sequence ids, which lets the
+ * inserts go out in JDBC batches, against the same rows with identity ids, which forces one
+ * statement per row so the database can hand back each key. Run with
+ * {@code mvn -P bulkinsert test}; the timings are logged rather than asserted, as they depend
+ * on the machine.
+ */
+@SpringBootTest(classes = AmbulanceServiceApplication.class)
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulkinsert;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        // Maps IdentityPatient for this context only
+        "spring.jpa.mapping-resources=benchmark/identity-patient-orm.xml"
+})
+@Import(TestConfig.class)
+@EnabledIfSystemProperty(named = "bulkinsert", matches = "true")
+class BulkInsertBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkInsertBenchmarkTest.class);
+
+    private static final int ROWS = 100_000;
+    private static final int ROWS_PER_TRANSACTION = 1_000;
+    private static final int FLUSH_EVERY = 50; // matches hibernate.jdbc.batch_size
+    private static final String CONTACT_PREFIX = "bulk-insert-";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM patients WHERE contact LIKE ?", CONTACT_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM benchmark_identity_patients");
+    }
+
+    @Test
+    void testBulkInsert_SequenceIdsAgainstIdentityIds() {
+        // Warm up both paths so the comparison is not dominated by class loading and JIT
+        insert(5_000, i -> new IdentityPatient("Warm-up " + i, CONTACT_PREFIX + "w" + i, "notes"));
+        insert(5_000, i -> new Patient("Warm-up " + i, CONTACT_PREFIX + "w" + i, "notes"));
+        tearDown();
+
+        long identityNanos = insert(ROWS, i -> new IdentityPatient("Patient " + i, CONTACT_PREFIX + i, "notes"));
+        long sequenceNanos = insert(ROWS, i -> new Patient("Patient " + i, CONTACT_PREFIX + i, "notes"));
+
+        double identityRate = ROWS / (identityNanos / 1e9);
+        double sequenceRate = ROWS / (sequenceNanos / 1e9);
+        logger.warn("Bulk insert of {} rows: identity ids {} rows/s ({} s), pooled sequence ids with batching "
+                        + "{} rows/s ({} s), speed-up {}x", ROWS, Math.round(identityRate),
+                String.format("%.1f", identityNanos / 1e9), Math.round(sequenceRate),
+                String.format("%.1f", sequenceNanos / 1e9), String.format("%.2f", sequenceRate / identityRate));
+
+        assertEquals(ROWS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM patients WHERE contact LIKE ?", Long.class, CONTACT_PREFIX + "%"));
+        assertEquals(ROWS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM benchmark_identity_patients", Long.class));
+    }
+
+    // Persists rows in transactions of ROWS_PER_TRANSACTION, flushing every FLUSH_EVERY rows
+    private long insert(int rows, IntFunction<Object> row) {
+        long start = System.nanoTime();
+        for (int from = 0; from < rows; from += ROWS_PER_TRANSACTION) {
+            int first = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = first; i < Math.min(rows, first + ROWS_PER_TRANSACTION); i++) {
+                    entityManager.persist(row.apply(i));
+                    if ((i + 1) % FLUSH_EVERY == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+            });
+        }
+        return System.nanoTime() - start;
+    }
+
+    // The same columns as a patient, keyed the way every entity was before sequence ids;
+    // mapped in benchmark/identity-patient-orm.xml
+    static class IdentityPatient {
+        private Long id;
+
+        private String name;
+
+        private String contact;
+
+        private String medicalNotes;
+
+        protected IdentityPatient() {
+        }
+
+        IdentityPatient(String name, String contact, String medicalNotes) {
+            this.name = name;
+            this.contact = contact;
+            this.medicalNotes = medicalNotes;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.ambulance.ambulance_service.performance;
+
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.entity.RequestStatus;
+import com.ambulance.ambulance_service.repository.AmbulanceRepository;
+import com.ambulance.ambulance_service.service.AmbulanceService;
+import com.ambulance.ambulance_service.service.QueuedRequestDispatcher;
+import com.ambulance.ambulance_service.service.RequestService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plays simulated shifts through the dispatch services. The short run is a regular test; the
+ * city-scale one only runs when asked for:
+ * <pre>
+ * mvn -P simulation test -Dsimulation.fleetSize=400 -Dsimulation.callsPerHour=600 -Dsimulation.hours=24
+ * </pre>
+ */
+// Its own database, so the simulated fleet and calls never meet the other tests' rows
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:simulation;DB_CLOSE_DELAY=-1",
+        "logging.level.com.ambulance.ambulance_service=WARN",
+        "logging.level.com.ambulance.ambulance_service.service.AmbulanceService=WARN",
+        "logging.level.com.ambulance.ambulance_service.service.RequestService=WARN",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+@ActiveProfiles("test")
+class DispatchSimulationTest {
+    private static final Logger logger = LoggerFactory.getLogger(DispatchSimulationTest.class);
+    private static final Instant START = Instant.parse("2025-01-06T00:00:00Z");
+
+    @TestConfiguration
+    static class SimulationClockConfig {
+        @Bean
+        @Primary
+        SimulationClock simulationClock() {
+            return new SimulationClock(START, ZoneOffset.UTC);
+        }
+    }
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private AmbulanceService ambulanceService;
+
+    @Autowired
+    private AmbulanceRepository ambulanceRepository;
+
+    @Autowired
+    private QueuedRequestDispatcher queuedRequestDispatcher;
+
+    @Autowired
+    private SimulationClock clock;
+
+    private DispatchSimulator simulator;
+
+    @BeforeEach
+    void setUp() {
+        simulator = new DispatchSimulator(requestService, ambulanceService, ambulanceRepository,
+                queuedRequestDispatcher, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // The simulator stops the dispatcher thread, which the next run in this context may need
+        queuedRequestDispatcher.start();
+    }
+
+    @Test
+    void testSimulatedShift_QueuesCallsWhenTheFleetIsBusy() {
+        // Arrange - 20 calls an hour need about 17 units on average, so 15 fall behind
+        Instant shiftStart = clock.instant();
+        DispatchSimulator.Scenario scenario = new DispatchSimulator.Scenario(
+                15, 20, Duration.ofHours(6), Duration.ofMinutes(40), 42);
+
+        // Act
+        DispatchSimulator.Report report = simulator.run(scenario);
+
+        // Assert
+        logger.warn("{}", report.summary());
+        assertTrue(report.calls > 0, "Calls should come in");
+        assertEquals(report.calls, report.completed, "Every call should be served in the end");
+        assertEquals(0, report.unserved);
+        assertEquals(report.calls, report.queueWait.getTotalCount(), "Every call should be dispatched once");
+        assertEquals(report.calls, report.response.getTotalCount(), "Every call should be reached once");
+        assertTrue(report.maxWaiting > 0 && report.queueWait.getMaxValue() > 0, "Calls should wait for a unit");
+        assertTrue(report.response.getMinValue() >= Duration.ofMinutes(2).getSeconds(),
+                "Responses should include the turnout time");
+        assertTrue(report.utilization() > 0.5 && report.utilization() <= 1.0,
+                "Utilization should be high but possible, was " + report.utilization());
+        assertTrue(report.simulated.compareTo(Duration.ofHours(6)) >= 0, "Run should last the whole shift");
+
+        // The services stamped the simulated times, not the wall clock
+        List<Request> completed = requestService.getRequestsByStatus(RequestStatus.COMPLETED);
+        LocalDateTime from = LocalDateTime.ofInstant(shiftStart, ZoneOffset.UTC);
+        LocalDateTime to = LocalDateTime.ofInstant(clock.instant(), ZoneOffset.UTC);
+        List<Request> shift = completed.stream()
+                .filter(request -> !request.getRequestTime().isBefore(from) && !request.getRequestTime().isAfter(to))
+                .toList();
+        assertEquals(report.calls, shift.size(), "Request times should come from the simulation clock");
+        assertTrue(shift.stream().allMatch(request -> !request.getDispatchTime().isBefore(request.getRequestTime())
+                && !request.getDispatchTime().isAfter(to)), "Dispatch times should come from the simulation clock");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "simulation", matches = "true")
+    void testSimulatedCity() {
+        // Arrange
+        DispatchSimulator.Scenario scenario = new DispatchSimulator.Scenario(
+                Integer.getInteger("simulation.fleetSize", 400),
+                Double.parseDouble(System.getProperty("simulation.callsPerHour", "600")),
+                Duration.ofHours(Long.getLong("simulation.hours", 24)),
+                Duration.ofMinutes(Long.getLong("simulation.serviceMinutes", 20)),
+                Long.getLong("simulation.seed", 42));
+
+        // Act
+        DispatchSimulator.Report report = simulator.run(scenario);
+
+        // Assert
+        logger.warn("{}", report.summary());
+        assertEquals(report.calls, report.completed, "Every call should be served in the end");
+    }
+}
@@ -0,0 +1,326 @@
+package com.ambulance.ambulance_service.performance;
+
+import com.ambulance.ambulance_service.dto.AmbulanceRequestDto;
+import com.ambulance.ambulance_service.entity.Ambulance;
+import com.ambulance.ambulance_service.entity.AvailabilityStatus;
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.entity.RequestPriority;
+import com.ambulance.ambulance_service.entity.RequestStatus;
+import com.ambulance.ambulance_service.exception.NoAvailableAmbulanceException;
+import com.ambulance.ambulance_service.exception.RequestNotFoundException;
+import com.ambulance.ambulance_service.repository.AmbulanceRepository;
+import com.ambulance.ambulance_service.service.AmbulanceService;
+import com.ambulance.ambulance_service.service.GridSpatialIndex;
+import com.ambulance.ambulance_service.service.QueuedRequestDispatcher;
+import com.ambulance.ambulance_service.service.RequestService;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Discrete-event simulation of a dispatch centre. Synthetic calls, drives and hand-overs are
+ * played through the real request and ambulance services on a {@link SimulationClock}, which
+ * jumps from one event to the next, so a simulated day takes as long as its database writes.
+ * Units drive from their station to the call, stay on scene for the service time and are free
+ * again at their station once the request is completed; the drive back is not modelled.
+ * <p>
+ * The dispatcher thread must not run alongside: the simulator stops it and drains the pending
+ * queue itself after every completion, so runs with the same seed are repeatable.
+ */
+final class DispatchSimulator {
+    // Mainland Lagos, about 28 by 33 km
+    private static final double MIN_LAT = 6.42, MAX_LAT = 6.67;
+    private static final double MIN_LON = 3.25, MAX_LON = 3.55;
+    private static final double SPEED_KMH = 35.0; // average urban speed with lights on
+    private static final double TRAVEL_NOISE = 0.25; // sigma of the log-normal factor on travel times
+    private static final Duration TURNOUT = Duration.ofMinutes(2); // from alert to rolling
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final RequestService requestService;
+    private final AmbulanceService ambulanceService;
+    private final AmbulanceRepository ambulanceRepository;
+    private final QueuedRequestDispatcher dispatcher;
+    private final SimulationClock clock;
+
+    private enum EventType { CALL, ARRIVE, COMPLETE }
+
+    private static final class Event {
+        private final Instant time;
+        private final long sequence;
+        private final EventType type;
+        private final Long requestId;
+
+        Event(Instant time, long sequence, EventType type, Long requestId) {
+            this.time = time;
+            this.sequence = sequence;
+            this.type = type;
+            this.requestId = requestId;
+        }
+    }
+
+    // What the simulator knows of a request it created
+    private static final class Call {
+        private final Instant requestTime;
+        private final double latitude;
+        private final double longitude;
+        private Instant dispatchTime;
+
+        Call(Instant requestTime, double latitude, double longitude) {
+            this.requestTime = requestTime;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+
+    DispatchSimulator(RequestService requestService, AmbulanceService ambulanceService,
+                      AmbulanceRepository ambulanceRepository, QueuedRequestDispatcher dispatcher,
+                      SimulationClock clock) {
+        this.requestService = requestService;
+        this.ambulanceService = ambulanceService;
+        this.ambulanceRepository = ambulanceRepository;
+        this.dispatcher = dispatcher;
+        this.clock = clock;
+    }
+
+    /**
+     * The load and fleet of one run
+     */
+    static final class Scenario {
+        private final int fleetSize;
+        private final double callsPerHour;
+        private final Duration length;
+        private final Duration meanServiceTime;
+        private final long seed;
+
+        /**
+         * @param length time over which calls come in; the run goes on until the last one is completed
+         * @param meanServiceTime mean time on scene, exponentially distributed
+         */
+        Scenario(int fleetSize, double callsPerHour, Duration length, Duration meanServiceTime, long seed) {
+            if (fleetSize <= 0) {
+                throw new IllegalArgumentException("Fleet must have at least one ambulance");
+            }
+            if (callsPerHour <= 0) {
+                throw new IllegalArgumentException("Call rate must be positive");
+            }
+            this.fleetSize = fleetSize;
+            this.callsPerHour = callsPerHour;
+            this.length = length;
+            this.meanServiceTime = meanServiceTime;
+            this.seed = seed;
+        }
+    }
+
+    /**
+     * Replaces the fleet with the scenario's, then plays calls until the scenario's length is
+     * reached and every call has been completed
+     */
+    Report run(Scenario scenario) {
+        dispatcher.stop();
+        Random random = new Random(scenario.seed);
+        seedFleet(scenario.fleetSize, random);
+
+        PriorityQueue<Event> events = new PriorityQueue<>((a, b) -> a.time.equals(b.time)
+                ? Long.compare(a.sequence, b.sequence) : a.time.compareTo(b.time));
+        Map<Long, Call> calls = new HashMap<>();
+        Set<Long> waiting = new LinkedHashSet<>();
+        Report report = new Report(scenario.fleetSize);
+        Instant start = clock.instant();
+        Instant end = start.plus(scenario.length);
+        long[] sequence = {0};
+        long wallStart = System.nanoTime();
+
+        events.add(new Event(start.plus(interArrival(scenario, random)), sequence[0]++, EventType.CALL, null));
+        while (!events.isEmpty()) {
+            Event event = events.poll();
+            clock.setInstant(event.time);
+            switch (event.type) {
+                case CALL: {
+                    Request request = call(random, report.calls + 1);
+                    Call call = new Call(event.time, request.getLatitude(), request.getLongitude());
+                    calls.put(request.getId(), call);
+                    report.calls++;
+                    if (request.getStatus() == RequestStatus.DISPATCHED) {
+                        events.add(dispatched(request, call, random, report, sequence[0]++));
+                    } else {
+                        waiting.add(request.getId());
+                        report.maxWaiting = Math.max(report.maxWaiting, waiting.size());
+                    }
+                    Instant next = event.time.plus(interArrival(scenario, random));
+                    if (next.isBefore(end)) {
+                        events.add(new Event(next, sequence[0]++, EventType.CALL, null));
+                    }
+                    break;
+                }
+                case ARRIVE: {
+                    updateStatus(event.requestId, RequestStatus.ARRIVED, "On scene");
+                    report.response.recordValue(secondsBetween(calls.get(event.requestId).requestTime, event.time));
+                    Duration onScene = Duration.ofSeconds(Math.round(
+                            -Math.log(1 - random.nextDouble()) * scenario.meanServiceTime.getSeconds()));
+                    events.add(new Event(event.time.plus(onScene), sequence[0]++, EventType.COMPLETE, event.requestId));
+                    break;
+                }
+                case COMPLETE: {
+                    updateStatus(event.requestId, RequestStatus.COMPLETED, "Patient handed over");
+                    Call call = calls.remove(event.requestId);
+                    report.busySeconds += secondsBetween(call.dispatchTime, event.time);
+                    report.completed++;
+                    if (!waiting.isEmpty()) {
+                        dispatchWaiting(waiting, calls, random, report, events, sequence);
+                    }
+                    break;
+                }
+            }
+        }
+
+        report.simulated = Duration.between(start, clock.instant());
+        report.wallTime = Duration.ofNanos(System.nanoTime() - wallStart);
+        report.unserved = waiting.size();
+        return report;
+    }
+
+    // Retires whatever fleet is in service and puts the scenario's units at random stations
+    private void seedFleet(int fleetSize, Random random) {
+        for (Ambulance ambulance : ambulanceService.getAvailableAmbulances()) {
+            ambulanceService.updateAmbulanceStatus(ambulance.getId(), AvailabilityStatus.OUT_OF_SERVICE);
+        }
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<Ambulance> fleet = new ArrayList<>(fleetSize);
+        for (int i = 1; i <= fleetSize; i++) {
+            Ambulance ambulance = new Ambulance("Station " + i, AvailabilityStatus.AVAILABLE, "SIM-" + run + "-" + i);
+            ambulance.setLatitude(MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT));
+            ambulance.setLongitude(MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON));
+            fleet.add(ambulance);
+        }
+        ambulanceRepository.saveAll(fleet);
+        // The rows bypass the service, so reconcile its cache with them
+        ambulanceService.init();
+    }
+
+    private Request call(Random random, long number) {
+        AmbulanceRequestDto dto = new AmbulanceRequestDto("Simulated caller", "Patient " + number,
+                "+234" + (800000000L + number), "Call " + number, "Simulated emergency", null);
+        dto.setLatitude(MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT));
+        dto.setLongitude(MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON));
+        // One call in twenty is life-threatening and nearly a third are minor
+        double urgency = random.nextDouble();
+        dto.setPriority(urgency < 0.05 ? RequestPriority.CRITICAL : urgency < 0.2 ? RequestPriority.HIGH
+                : urgency < 0.7 ? RequestPriority.MEDIUM : RequestPriority.LOW);
+        try {
+            return requestService.createRequest(dto, null);
+        } catch (NoAvailableAmbulanceException e) {
+            throw new IllegalStateException("Call " + number + " was rejected", e);
+        }
+    }
+
+    // Lets the dispatcher hand the freed unit to the most urgent waiting call
+    private void dispatchWaiting(Set<Long> waiting, Map<Long, Call> calls, Random random, Report report,
+                                 PriorityQueue<Event> events, long[] sequence) {
+        dispatcher.drain();
+        for (Iterator<Long> ids = waiting.iterator(); ids.hasNext(); ) {
+            Long id = ids.next();
+            if (dispatcher.getPendingQueue().contains(id)) {
+                continue;
+            }
+            ids.remove();
+            Request request = requestService.getRequestById(id)
+                    .orElseThrow(() -> new IllegalStateException("Request " + id + " disappeared"));
+            if (request.getStatus() != RequestStatus.DISPATCHED) {
+                throw new IllegalStateException("Request " + id + " left the queue as " + request.getStatus());
+            }
+            events.add(dispatched(request, calls.get(id), random, report, sequence[0]++));
+        }
+    }
+
+    private Event dispatched(Request request, Call call, Random random, Report report, long sequence) {
+        call.dispatchTime = clock.instant();
+        report.queueWait.recordValue(secondsBetween(call.requestTime, call.dispatchTime));
+
+        // The request holds a lazy reference, so the unit's station is read from the fleet cache
+        Long ambulanceId = request.getAmbulance().getId();
+        Ambulance unit = ambulanceService.getAmbulanceById(ambulanceId)
+                .orElseThrow(() -> new IllegalStateException("Ambulance " + ambulanceId + " disappeared"));
+        double km = GridSpatialIndex.distanceKm(unit.getLatitude(), unit.getLongitude(), call.latitude, call.longitude);
+        double driveSeconds = km / SPEED_KMH * 3600 * Math.exp(TRAVEL_NOISE * random.nextGaussian());
+        Duration travel = TURNOUT.plusSeconds(Math.round(driveSeconds));
+        report.travel.recordValue(travel.getSeconds());
+        return new Event(call.dispatchTime.plus(travel), sequence, EventType.ARRIVE, request.getId());
+    }
+
+    private void updateStatus(Long requestId, RequestStatus status, String notes) {
+        try {
+            requestService.updateRequestStatus(requestId, status, notes);
+        } catch (RequestNotFoundException e) {
+            throw new IllegalStateException("Simulated request " + requestId + " disappeared", e);
+        }
+    }
+
+    private static Duration interArrival(Scenario scenario, Random random) {
+        double hours = -Math.log(1 - random.nextDouble()) / scenario.callsPerHour;
+        return Duration.ofMillis(Math.round(hours * 3_600_000));
+    }
+
+    private static long secondsBetween(Instant from, Instant to) {
+        return Duration.between(from, to).getSeconds();
+    }
+
+    /**
+     * What a run saw. Distributions are in seconds of simulated time; queue wait is recorded
+     * for every dispatched call, including the ones that got a unit straight away.
+     */
+    static final class Report {
+        final Histogram queueWait = new Histogram(SIGNIFICANT_DIGITS);
+        final Histogram response = new Histogram(SIGNIFICANT_DIGITS);
+        final Histogram travel = new Histogram(SIGNIFICANT_DIGITS);
+        final int fleetSize;
+        long calls;
+        long completed;
+        long unserved;
+        int maxWaiting;
+        long busySeconds;
+        Duration simulated = Duration.ZERO;
+        Duration wallTime = Duration.ZERO;
+
+        Report(int fleetSize) {
+            this.fleetSize = fleetSize;
+        }
+
+        /**
+         * Share of the fleet's time spent driving to or on a call
+         */
+        double utilization() {
+            long fleetSeconds = fleetSize * simulated.getSeconds();
+            return fleetSeconds == 0 ? 0 : (double) busySeconds / fleetSeconds;
+        }
+
+        String summary() {
+            StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+                    "%n%d calls over %s simulated in %.1fs: %d completed, %d unserved, at most %d waiting, "
+                            + "%.1f%% utilization of %d units%n%-12s %8s %8s %8s %8s %8s%n",
+                    calls, simulated, wallTime.toMillis() / 1000.0, completed, unserved, maxWaiting,
+                    utilization() * 100, fleetSize, "minutes", "mean", "p50", "p90", "p99", "max"));
+            appendRow(table, "queue wait", queueWait);
+            appendRow(table, "travel", travel);
+            appendRow(table, "response", response);
+            return table.toString();
+        }
+
+        private static void appendRow(StringBuilder table, String name, Histogram seconds) {
+            table.append(String.format(Locale.ROOT, "%-12s %8.1f %8.1f %8.1f %8.1f %8.1f%n", name,
+                    seconds.getMean() / 60, seconds.getValueAtPercentile(50) / 60.0,
+                    seconds.getValueAtPercentile(90) / 60.0, seconds.getValueAtPercentile(99) / 60.0,
+                    seconds.getMaxValue() / 60.0));
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.ambulance.ambulance_service.performance;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Open-loop load generator for the HTTP API. Calls are issued on a fixed schedule whatever the
+ * server's pace, and each latency is measured from when the call was due rather than when it
+ * was sent, so a stalled server shows up in the percentiles instead of quietly slowing the
+ * load down.
+ */
+final class LoadHarness {
+    private static final Logger logger = LoggerFactory.getLogger(LoadHarness.class);
+    private static final int SIGNIFICANT_DIGITS = 3; // latencies within 0.1%
+    private static final long DRAIN_TIMEOUT_SECONDS = 60; // wait for calls still in flight at the end
+    private static final String CURVE_FILE = "curve.csv";
+
+    private final HttpClient client;
+    private final int maxInFlight;
+
+    /**
+     * @param maxInFlight calls allowed to be outstanding at once; calls due beyond it are
+     *                    counted as dropped rather than delayed, so the schedule holds
+     */
+    LoadHarness(HttpClient client, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("At least one call must be allowed in flight");
+        }
+        this.client = client;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * One kind of call in a workload mix, picked in proportion to its weight
+     */
+    static final class Operation {
+        private final String name;
+        private final int weight;
+        private final Supplier<HttpRequest> request;
+        private final Consumer<HttpResponse<String>> onResponse;
+
+        Operation(String name, int weight, Supplier<HttpRequest> request) {
+            this(name, weight, request, response -> { });
+        }
+
+        /**
+         * @param request builds the next call, or returns null when there is nothing to call yet
+         * @param onResponse sees every response, e.g. to remember ids for later calls
+         */
+        Operation(String name, int weight, Supplier<HttpRequest> request, Consumer<HttpResponse<String>> onResponse) {
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Weight of " + name + " must be positive");
+            }
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+            this.onResponse = onResponse;
+        }
+    }
+
+    /**
+     * Drives the mix at a fixed arrival rate
+     * @param warmup time at the start whose calls are made but not reported
+     * @param duration time over which calls are reported
+     */
+    Run run(List<Operation> mix, double ratePerSecond, Duration warmup, Duration duration) throws InterruptedException {
+        if (mix == null || mix.isEmpty()) {
+            throw new IllegalArgumentException("Workload mix cannot be empty");
+        }
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Arrival rate must be positive");
+        }
+
+        int[] cumulativeWeights = new int[mix.size()];
+        Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+        int totalWeight = 0;
+        for (int i = 0; i < mix.size(); i++) {
+            totalWeight += mix.get(i).weight;
+            cumulativeWeights[i] = totalWeight;
+            endpoints.put(mix.get(i).name, new Endpoint());
+        }
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Random random = new Random(42);
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        for (long due = start; due < end; due += interval) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // Behind schedule the loop fires straight away until it has caught up
+
+            Operation operation = pick(mix, cumulativeWeights, random.nextInt(totalWeight));
+            Endpoint endpoint = endpoints.get(operation.name);
+            boolean measured = due >= measureFrom;
+            HttpRequest request = operation.request.get();
+            if (request == null) {
+                if (measured) {
+                    endpoint.skipped.increment();
+                }
+                continue;
+            }
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    endpoint.dropped.increment();
+                }
+                continue;
+            }
+
+            long dueAt = due;
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+                try {
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - dueAt);
+                    if (measured) {
+                        endpoint.record(micros, response, error);
+                    }
+                    if (response != null) {
+                        operation.onResponse.accept(response);
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to handle response of {}: {}", operation.name, e.getMessage());
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        // Let the calls still in flight finish before reading the histograms
+        if (inFlight.tryAcquire(maxInFlight, DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            inFlight.release(maxInFlight);
+        } else {
+            logger.warn("{} calls still in flight after {}s, reporting without them",
+                    maxInFlight - inFlight.availablePermits(), DRAIN_TIMEOUT_SECONDS);
+        }
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        endpoints.forEach((name, endpoint) -> results.put(name, endpoint.result(name)));
+        return new Run(ratePerSecond, duration, results);
+    }
+
+    private static Operation pick(List<Operation> mix, int[] cumulativeWeights, int ticket) {
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return mix.get(i);
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    private static final class Endpoint {
+        private final Recorder latencies = new Recorder(SIGNIFICANT_DIGITS);
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+
+        void record(long micros, HttpResponse<?> response, Throwable error) {
+            if (error != null) {
+                failed.increment();
+                return;
+            }
+            latencies.recordValue(micros);
+            if (response.statusCode() < 400) {
+                succeeded.increment();
+            } else {
+                failed.increment();
+            }
+        }
+
+        Result result(String name) {
+            return new Result(name, latencies.getIntervalHistogram(),
+                    succeeded.sum(), failed.sum(), skipped.sum(), dropped.sum());
+        }
+    }
+
+    /**
+     * What one endpoint saw over a run. Latencies are in microseconds and include error responses.
+     */
+    static final class Result {
+        final String name;
+        final Histogram latencies;
+        final long succeeded;
+        final long failed;
+        final long skipped;
+        final long dropped;
+
+        Result(String name, Histogram latencies, long succeeded, long failed, long skipped, long dropped) {
+            this.name = name;
+            this.latencies = latencies;
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.skipped = skipped;
+            this.dropped = dropped;
+        }
+
+        double percentileMillis(double percentile) {
+            return latencies.getTotalCount() == 0 ? 0 : latencies.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    /**
+     * The outcome of one run at one arrival rate
+     */
+    static final class Run {
+        private final double targetRate;
+        private final Duration duration;
+        private final Map<String, Result> results;
+
+        Run(double targetRate, Duration duration, Map<String, Result> results) {
+            this.targetRate = targetRate;
+            this.duration = duration;
+            this.results = Collections.unmodifiableMap(results);
+        }
+
+        Map<String, Result> results() {
+            return results;
+        }
+
+        /**
+         * Responses per second, counting only the endpoints that answered
+         */
+        double achievedRate(Result result) {
+            return (result.succeeded + result.failed) / (duration.toMillis() / 1000.0);
+        }
+
+        long responses() {
+            return results.values().stream().mapToLong(result -> result.succeeded + result.failed).sum();
+        }
+
+        String summary() {
+            StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+                    "%n%.0f calls/s target%n%-12s %8s %8s %8s %8s %9s %9s %9s %9s %9s%n", targetRate,
+                    "endpoint", "resp/s", "failed", "skipped", "dropped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+            results.values().forEach(result -> table.append(String.format(Locale.ROOT,
+                    "%-12s %8.1f %8d %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n", result.name, achievedRate(result),
+                    result.failed, result.skipped, result.dropped, result.percentileMillis(50),
+                    result.percentileMillis(90), result.percentileMillis(99), result.percentileMillis(99.9),
+                    result.latencies.getMaxValue() / 1000.0)));
+            return table.toString();
+        }
+
+        /**
+         * Writes one HDR percentile distribution per endpoint and appends this run to the
+         * throughput-vs-latency curve of the directory
+         */
+        void writeTo(Path directory) throws IOException {
+            Files.createDirectories(directory);
+            Path curve = directory.resolve(CURVE_FILE);
+            if (!Files.exists(curve)) {
+                Files.writeString(curve, "target_rps,endpoint,achieved_rps,succeeded,failed,skipped,dropped,"
+                        + "p50_ms,p90_ms,p99_ms,p999_ms,max_ms\n");
+            }
+            StringBuilder rows = new StringBuilder();
+            for (Result result : results.values()) {
+                Path distribution = directory.resolve(String.format(Locale.ROOT, "%.0frps-%s.hgrm", targetRate, result.name));
+                try (PrintStream out = new PrintStream(Files.newOutputStream(distribution))) {
+                    result.latencies.outputPercentileDistribution(out, 1000.0);
+                }
+                rows.append(String.format(Locale.ROOT, "%.0f,%s,%.1f,%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                        targetRate, result.name, achievedRate(result), result.succeeded, result.failed,
+                        result.skipped, result.dropped, result.percentileMillis(50), result.percentileMillis(90),
+                        result.percentileMillis(99), result.percentileMillis(99.9),
+                        result.latencies.getMaxValue() / 1000.0));
+            }
+            Files.writeString(curve, rows, StandardOpenOption.APPEND);
+        }
+    }
+}
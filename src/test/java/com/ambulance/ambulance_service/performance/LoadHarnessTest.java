@@ -0,0 +1,91 @@
+package com.ambulance.ambulance_service.performance;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the accounting of the load harness against a local server with a known delay.
+ */
+class LoadHarnessTest {
+
+    private static final long SERVER_DELAY_MILLIS = 20;
+
+    private HttpServer server;
+    private URI slowUri;
+    private URI missingUri;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(SERVER_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        String base = "http://localhost:" + server.getAddress().getPort();
+        slowUri = URI.create(base + "/slow");
+        missingUri = URI.create(base + "/missing");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testRun_ReportsEachOperationOnItsOwn(@TempDir Path output) throws Exception {
+        // Arrange - 50 calls/s for one second after a short warmup
+        AtomicInteger responses = new AtomicInteger();
+        List<LoadHarness.Operation> mix = List.of(
+                new LoadHarness.Operation("slow", 2, () -> HttpRequest.newBuilder(slowUri).build(),
+                        response -> responses.incrementAndGet()),
+                new LoadHarness.Operation("missing", 1, () -> HttpRequest.newBuilder(missingUri).build()),
+                new LoadHarness.Operation("idle", 1, () -> null));
+        LoadHarness harness = new LoadHarness(HttpClient.newHttpClient(), 100);
+
+        // Act
+        LoadHarness.Run run = harness.run(mix, 50, Duration.ofMillis(200), Duration.ofSeconds(1));
+        run.writeTo(output);
+
+        // Assert
+        LoadHarness.Result slow = run.results().get("slow");
+        LoadHarness.Result missing = run.results().get("missing");
+        LoadHarness.Result idle = run.results().get("idle");
+        long measured = slow.succeeded + slow.failed + slow.dropped + missing.succeeded + missing.failed
+                + missing.dropped + idle.skipped;
+        assertEquals(50, measured, 3, "Only calls due after the warmup should be reported");
+        assertEquals(0, slow.failed, "Slow calls should succeed");
+        assertTrue(slow.percentileMillis(50) >= SERVER_DELAY_MILLIS, "Latency should include the server delay");
+        assertEquals(0, missing.succeeded, "Error responses should count as failed");
+        assertTrue(idle.skipped > 0 && idle.latencies.getTotalCount() == 0, "Calls with nothing to do should be skipped");
+        assertTrue(responses.get() >= slow.succeeded, "Every response should reach its operation");
+        assertTrue(Files.exists(output.resolve("50rps-slow.hgrm")));
+        assertEquals(4, Files.readAllLines(output.resolve("curve.csv")).size(), "Header and one row per operation");
+    }
+}
@@ -0,0 +1,46 @@
+package com.ambulance.ambulance_service.performance;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * A clock that only moves when told to, so the services can be run on simulated time
+ */
+final class SimulationClock extends Clock {
+
+    private final ZoneId zone;
+    private volatile Instant now;
+
+    SimulationClock(Instant start, ZoneId zone) {
+        this.now = start;
+        this.zone = zone;
+    }
+
+    /**
+     * Moves the clock to the given instant
+     * @throws IllegalArgumentException if that would turn it back
+     */
+    void setInstant(Instant instant) {
+        if (instant.isBefore(now)) {
+            throw new IllegalArgumentException("Simulation time cannot go back from " + now + " to " + instant);
+        }
+        now = instant;
+    }
+
+    @Override
+    public Instant instant() {
+        return now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        // Shares nothing with this clock, so a copy would stop following it
+        throw new UnsupportedOperationException("Simulation clock cannot be rezoned");
+    }
+}
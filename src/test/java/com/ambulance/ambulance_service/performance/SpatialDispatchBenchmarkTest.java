@@ -0,0 +1,118 @@
+package com.ambulance.ambulance_service.performance;
+
+import com.ambulance.ambulance_service.service.GridSpatialIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares nearest-unit lookups in the grid index with the FIFO queue poll that
+ * dispatch used before, on a city-sized fleet.
+ */
+class SpatialDispatchBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpatialDispatchBenchmarkTest.class);
+    private static final int FLEET_SIZE = 5000;
+    private static final int QUERIES = 20000;
+    private static final double MIN_LAT = 6.35, MAX_LAT = 6.75;
+    private static final double MIN_LON = 3.10, MAX_LON = 3.70;
+
+    private final Random random = new Random(42);
+    private GridSpatialIndex index;
+    private double[][] fleet;
+
+    @BeforeEach
+    void setUp() {
+        index = new GridSpatialIndex(0.01);
+        fleet = new double[FLEET_SIZE][];
+        for (int i = 0; i < FLEET_SIZE; i++) {
+            fleet[i] = randomPoint();
+            index.put((long) i, fleet[i][0], fleet[i][1]);
+        }
+    }
+
+    @Test
+    void testNearestMatchesBruteForce() {
+        for (int i = 0; i < 1000; i++) {
+            double[] query = randomPoint();
+            Optional<Long> nearest = index.nearest(query[0], query[1]);
+            assertTrue(nearest.isPresent(), "Index should return a unit");
+
+            double expected = Double.MAX_VALUE;
+            for (double[] unit : fleet) {
+                expected = Math.min(expected, GridSpatialIndex.distanceKm(query[0], query[1], unit[0], unit[1]));
+            }
+            double[] found = fleet[nearest.get().intValue()];
+            assertEquals(expected, GridSpatialIndex.distanceKm(query[0], query[1], found[0], found[1]), 1e-9,
+                    "Index should return the closest unit");
+        }
+    }
+
+    @Test
+    void testNearestLookupIsSubMillisecond() {
+        double[][] queries = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = randomPoint();
+        }
+
+        // Warm up both paths before measuring
+        Queue<Long> queue = new ConcurrentLinkedQueue<>();
+        for (long i = 0; i < FLEET_SIZE; i++) {
+            queue.offer(i);
+        }
+        for (int i = 0; i < QUERIES; i++) {
+            index.nearest(queries[i][0], queries[i][1]);
+            queue.offer(queue.poll());
+        }
+
+        long[] indexTimes = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            index.nearest(queries[i][0], queries[i][1]);
+            indexTimes[i] = System.nanoTime() - start;
+        }
+
+        long[] queueTimes = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            Long id = queue.poll();
+            queueTimes[i] = System.nanoTime() - start;
+            queue.offer(id);
+        }
+
+        long indexP99 = percentile(indexTimes, 0.99);
+        logger.info(String.format("Nearest dispatch over %d units: index mean=%.1fus p50=%.1fus p99=%.1fus | " +
+                        "queue poll mean=%.2fus p99=%.2fus",
+                FLEET_SIZE,
+                mean(indexTimes) / 1000.0, percentile(indexTimes, 0.50) / 1000.0, indexP99 / 1000.0,
+                mean(queueTimes) / 1000.0, percentile(queueTimes, 0.99) / 1000.0));
+
+        assertTrue(indexP99 < 1_000_000, "Nearest lookup p99 should stay under 1ms, was " + indexP99 + "ns");
+    }
+
+    private double[] randomPoint() {
+        return new double[] {
+                MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT),
+                MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON)
+        };
+    }
+
+    private static long percentile(long[] samples, double p) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(p * sorted.length))];
+    }
+
+    private static double mean(long[] samples) {
+        return Arrays.stream(samples).average().orElse(0);
+    }
+}
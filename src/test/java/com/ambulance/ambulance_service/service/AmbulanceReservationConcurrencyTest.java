@@ -0,0 +1,223 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.Ambulance;
+import com.ambulance.ambulance_service.entity.AvailabilityStatus;
+import com.ambulance.ambulance_service.repository.AmbulanceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Hammers the reservation path from many threads against an in-memory stand-in for the
+ * ambulances table and checks that no unit is ever handed to two callers at once.
+ */
+@ExtendWith(MockitoExtension.class)
+class AmbulanceReservationConcurrencyTest {
+
+    private static final int THREADS = 64;
+
+    @Mock
+    private AmbulanceRepository ambulanceRepository;
+
+    private AmbulanceService ambulanceService;
+
+    // id -> {availability ordinal, version}, standing in for the ambulances table
+    private final Map<Long, long[]> table = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> dispatchWrites = new ConcurrentHashMap<>();
+    private final Map<Long, double[]> positions = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(ambulanceRepository.updateAmbulanceStatusWithLock(
+                anyLong(), any(AvailabilityStatus.class), anyLong(), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    Long id = invocation.getArgument(0);
+                    AvailabilityStatus status = invocation.getArgument(1);
+                    long version = invocation.getArgument(2);
+                    long[] row = table.get(id);
+                    synchronized (row) {
+                        if (row[1] != version) {
+                            return 0;
+                        }
+                        row[0] = status.ordinal();
+                        row[1]++;
+                    }
+                    if (status == AvailabilityStatus.DISPATCHED) {
+                        dispatchWrites.get(id).incrementAndGet();
+                    }
+                    return 1;
+                });
+        lenient().when(ambulanceRepository.findById(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            long[] row = table.get(id);
+            synchronized (row) {
+                return Optional.of(ambulance(id, AvailabilityStatus.values()[(int) row[0]], row[1]));
+            }
+        });
+        lenient().when(ambulanceRepository.save(any(Ambulance.class))).thenAnswer(invocation -> {
+            Ambulance ambulance = invocation.getArgument(0);
+            long[] row = table.get(ambulance.getId());
+            synchronized (row) {
+                if (row[1] != ambulance.getVersion()) {
+                    throw new ObjectOptimisticLockingFailureException(Ambulance.class, ambulance.getId());
+                }
+                row[0] = ambulance.getAvailability().ordinal();
+                row[1]++;
+                if (ambulance.getAvailability() == AvailabilityStatus.DISPATCHED) {
+                    dispatchWrites.get(ambulance.getId()).incrementAndGet();
+                }
+                return ambulance(ambulance.getId(), ambulance.getAvailability(), row[1]);
+            }
+        });
+
+        ambulanceService = new AmbulanceService(ambulanceRepository, event -> { },
+                new DispatchMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void testConcurrentClaims_EachUnitDispatchedExactlyOnce() throws Exception {
+        // Arrange - half of the fleet is positioned so both claim paths compete for the same units
+        int fleetSize = 500;
+        loadFleet(fleetSize);
+        Map<Long, Integer> claims = new ConcurrentHashMap<>();
+        AtomicInteger doubleClaims = new AtomicInteger();
+
+        // Act
+        runConcurrently(threadIndex -> {
+            Random random = new Random(threadIndex);
+            while (true) {
+                Optional<Ambulance> claimed = threadIndex % 2 == 0
+                        ? ambulanceService.getNextAvailableAmbulance()
+                        : ambulanceService.getNearestAvailableAmbulance(
+                                6.35 + random.nextDouble() * 0.4, 3.10 + random.nextDouble() * 0.6);
+                if (claimed.isEmpty()) {
+                    return;
+                }
+                if (claims.merge(claimed.get().getId(), 1, Integer::sum) > 1) {
+                    doubleClaims.incrementAndGet();
+                }
+            }
+        });
+
+        // Assert
+        assertEquals(0, doubleClaims.get(), "No ambulance should be claimed twice");
+        assertEquals(fleetSize, claims.size(), "Every ambulance should be claimed once");
+        dispatchWrites.forEach((id, writes) ->
+                assertEquals(1, writes.get(), "Ambulance " + id + " should be written as DISPATCHED once"));
+        verify(ambulanceRepository, never()).findById(anyLong());
+        assertTrue(ambulanceService.getNextAvailableAmbulance().isEmpty(), "The fleet should be exhausted");
+    }
+
+    @Test
+    void testConcurrentClaimAndRelease_NeverDoubleBooksAUnit() throws Exception {
+        // Arrange - far fewer units than threads so every unit is fought over repeatedly
+        int fleetSize = 16;
+        int cyclesPerThread = 200;
+        loadFleet(fleetSize);
+        Set<Long> held = ConcurrentHashMap.newKeySet();
+        AtomicInteger doubleBookings = new AtomicInteger();
+        AtomicInteger completedClaims = new AtomicInteger();
+
+        // Act - claim a unit, hold it briefly, then hand it back as a completed request would
+        runConcurrently(threadIndex -> {
+            Random random = new Random(threadIndex);
+            for (int cycle = 0; cycle < cyclesPerThread; cycle++) {
+                Optional<Ambulance> claimed = random.nextBoolean()
+                        ? ambulanceService.getNextAvailableAmbulance()
+                        : ambulanceService.getNearestAvailableAmbulance(
+                                6.35 + random.nextDouble() * 0.4, 3.10 + random.nextDouble() * 0.6);
+                if (claimed.isEmpty()) {
+                    Thread.yield();
+                    continue;
+                }
+                Long id = claimed.get().getId();
+                if (!held.add(id)) {
+                    doubleBookings.incrementAndGet();
+                    continue;
+                }
+                completedClaims.incrementAndGet();
+                Thread.yield();
+                held.remove(id);
+                ambulanceService.updateAmbulanceStatus(id, AvailabilityStatus.AVAILABLE);
+            }
+        });
+
+        // Assert
+        assertEquals(0, doubleBookings.get(), "No ambulance should be held by two callers at once");
+        assertTrue(completedClaims.get() > fleetSize, "Units should have been reused across claims");
+        int totalWrites = dispatchWrites.values().stream().mapToInt(AtomicInteger::get).sum();
+        assertEquals(completedClaims.get(), totalWrites, "Each claim should write DISPATCHED exactly once");
+        assertEquals(fleetSize, ambulanceService.getAvailableAmbulances().size(),
+                "Every unit should be back in the available pool");
+    }
+
+    private void loadFleet(int fleetSize) {
+        List<Ambulance> fleet = new ArrayList<>();
+        Random random = new Random(7);
+        for (long id = 1; id <= fleetSize; id++) {
+            if (id % 2 == 0) {
+                positions.put(id, new double[] {6.35 + random.nextDouble() * 0.4, 3.10 + random.nextDouble() * 0.6});
+            }
+            fleet.add(ambulance(id, AvailabilityStatus.AVAILABLE, 0L));
+            table.put(id, new long[] {AvailabilityStatus.AVAILABLE.ordinal(), 0L});
+            dispatchWrites.put(id, new AtomicInteger());
+        }
+        when(ambulanceRepository.findByDeletedFalse()).thenReturn(fleet);
+        ambulanceService.init();
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int threadIndex = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(threadIndex);
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Ambulance ambulance(Long id, AvailabilityStatus availability, long version) {
+        Ambulance ambulance = new Ambulance();
+        double[] position = positions.get(id);
+        if (position != null) {
+            ambulance.setLatitude(position[0]);
+            ambulance.setLongitude(position[1]);
+        }
+        ambulance.setId(id);
+        ambulance.setVersion(version);
+        ambulance.setCurrentLocation("Station " + id);
+        ambulance.setLicensePlate("LAG-" + id);
+        ambulance.setAvailability(availability);
+        return ambulance;
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int threadIndex) throws Exception;
+    }
+}
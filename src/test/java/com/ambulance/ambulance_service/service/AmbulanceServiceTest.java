@@ -9,12 +9,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +29,9 @@ class AmbulanceServiceTest {
     @Mock
     private AmbulanceRepository ambulanceRepository;
 
+    @Mock
+    private DispatchMetrics dispatchMetrics;
+
     @InjectMocks
     private AmbulanceService ambulanceService;
 
@@ -161,6 +170,192 @@ class AmbulanceServiceTest {
         verify(ambulanceRepository, times(1)).save(dispatchedAmbulance);
     }
 
+    @Test
+    void testAmbulanceStatusUpdate_ReleaseJoinsQueueOnlyAfterCommit() {
+        // Arrange
+        when(ambulanceRepository.findByDeletedFalse()).thenReturn(List.of(dispatchedAmbulance));
+        when(ambulanceRepository.findById(3L)).thenReturn(Optional.of(dispatchedAmbulance));
+        ambulanceService.init();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            ambulanceService.updateAmbulanceStatus(3L, AvailabilityStatus.AVAILABLE);
+            List<Ambulance> beforeCommit = ambulanceService.getAvailableAmbulances();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            List<Ambulance> afterCommit = ambulanceService.getAvailableAmbulances();
+
+            // Assert
+            assertTrue(beforeCommit.isEmpty(), "An uncommitted release should not be handed out");
+            assertEquals(List.of(3L), afterCommit.stream().map(Ambulance::getId).collect(Collectors.toList()));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testGetNearestAvailableAmbulance_ClaimsClosestUnit() {
+        // Arrange - ambulance 2 is a few hundred metres from the incident, ambulance 1 is across town
+        availableAmbulance1.setLatitude(6.60);
+        availableAmbulance1.setLongitude(3.35);
+        availableAmbulance2.setLatitude(6.45);
+        availableAmbulance2.setLongitude(3.40);
+        when(ambulanceRepository.findByDeletedFalse())
+                .thenReturn(Arrays.asList(availableAmbulance1, availableAmbulance2));
+        when(ambulanceRepository.updateAmbulanceStatusWithLock(
+                eq(2L), eq(AvailabilityStatus.DISPATCHED), eq(0L), any(LocalDateTime.class))).thenReturn(1);
+
+        ambulanceService.init();
+
+        // Act
+        Optional<Ambulance> nearest = ambulanceService.getNearestAvailableAmbulance(6.452, 3.401);
+
+        // Assert
+        assertTrue(nearest.isPresent(), "An ambulance should be claimed");
+        assertEquals(2L, nearest.get().getId(), "The closest ambulance should be claimed");
+        assertEquals(AvailabilityStatus.DISPATCHED, nearest.get().getAvailability());
+        verify(ambulanceRepository, never()).findById(anyLong());
+        verify(ambulanceRepository, never()).save(any(Ambulance.class));
+        assertTrue(ambulanceService.getAvailableAmbulances().stream().noneMatch(a -> a.getId().equals(2L)),
+                "Claimed ambulance should leave the available queue");
+    }
+
+    @Test
+    void testGetNearestAvailableAmbulance_PrefersHomeZoneAndBorrowsWhenEmpty() {
+        // Arrange - ambulance 2 is closer but just across the zone boundary, ambulance 1 is further inside the zone
+        availableAmbulance1.setLatitude(6.68);
+        availableAmbulance1.setLongitude(3.45);
+        availableAmbulance2.setLatitude(6.595);
+        availableAmbulance2.setLongitude(3.45);
+        when(ambulanceRepository.findByDeletedFalse())
+                .thenReturn(Arrays.asList(availableAmbulance1, availableAmbulance2));
+        when(ambulanceRepository.updateAmbulanceStatusWithLock(
+                anyLong(), eq(AvailabilityStatus.DISPATCHED), eq(0L), any(LocalDateTime.class))).thenReturn(1);
+        ambulanceService.init();
+        DispatchZone home = DispatchZone.of(6.605, 3.45);
+
+        // Act
+        Optional<Ambulance> first = ambulanceService.getNearestAvailableAmbulance(6.605, 3.45);
+        List<Ambulance> leftInHomeZone = ambulanceService.getAvailableAmbulances(home);
+        Optional<Ambulance> second = ambulanceService.getNearestAvailableAmbulance(6.605, 3.45);
+
+        // Assert
+        assertEquals(1L, first.map(Ambulance::getId).orElse(null), "The unit in the incident's zone should be claimed first");
+        assertTrue(leftInHomeZone.isEmpty(), "The home zone should have no free unit left");
+        assertEquals(2L, second.map(Ambulance::getId).orElse(null), "Units should be borrowed once the home zone is empty");
+    }
+
+    @Test
+    void testRefreshCache_AppliesOnlyChangedAmbulances() {
+        // Arrange
+        LocalDateTime loadedAt = LocalDateTime.now().minusMinutes(10);
+        availableAmbulance1.setUpdatedAt(loadedAt);
+        availableAmbulance2.setUpdatedAt(loadedAt);
+        when(ambulanceRepository.findByDeletedFalse())
+                .thenReturn(Arrays.asList(availableAmbulance1, availableAmbulance2));
+        ambulanceService.init();
+
+        Ambulance sentForMaintenance = changedCopy(availableAmbulance1, AvailabilityStatus.MAINTENANCE, 1L);
+        Ambulance decommissioned = changedCopy(availableAmbulance2, AvailabilityStatus.AVAILABLE, 1L);
+        decommissioned.setDeleted(true);
+        decommissioned.setDeletedAt(sentForMaintenance.getUpdatedAt());
+        Ambulance added = changedCopy(dispatchedAmbulance, AvailabilityStatus.AVAILABLE, 0L);
+        when(ambulanceRepository.findChangedSince(any(LocalDateTime.class)))
+                .thenReturn(Arrays.asList(sentForMaintenance, decommissioned, added));
+
+        // Act
+        ambulanceService.refreshCache();
+
+        // Assert
+        verify(ambulanceRepository, times(1)).findByDeletedFalse();
+        verify(ambulanceRepository).findChangedSince(loadedAt.minusSeconds(60));
+        assertEquals(AvailabilityStatus.MAINTENANCE,
+                ambulanceService.getAmbulanceById(1L).map(Ambulance::getAvailability).orElse(null),
+                "Changed ambulance should be replaced in the cache");
+        List<Long> available = ambulanceService.getAvailableAmbulances().stream()
+                .map(Ambulance::getId).collect(Collectors.toList());
+        assertEquals(List.of(3L), available, "Only the newly added ambulance should be available");
+        assertEquals(2, ambulanceService.getAllAmbulances().size(), "Deleted ambulance should be evicted");
+    }
+
+    @Test
+    void testRefreshCache_IgnoresRowsOlderThanCachedCopy() {
+        // Arrange - the unit is dispatched locally after the refresh query has read it
+        when(ambulanceRepository.findByDeletedFalse()).thenReturn(List.of(availableAmbulance2));
+        when(ambulanceRepository.updateAmbulanceStatusWithLock(
+                eq(2L), eq(AvailabilityStatus.DISPATCHED), eq(0L), any(LocalDateTime.class))).thenReturn(1);
+        ambulanceService.init();
+        assertTrue(ambulanceService.getNextAvailableAmbulance().isPresent(), "Ambulance should be claimed");
+
+        Ambulance staleRow = changedCopy(availableAmbulance2, AvailabilityStatus.AVAILABLE, 0L);
+        when(ambulanceRepository.findChangedSince(any(LocalDateTime.class))).thenReturn(List.of(staleRow));
+
+        // Act
+        ambulanceService.refreshCache();
+
+        // Assert
+        assertEquals(AvailabilityStatus.DISPATCHED,
+                ambulanceService.getAmbulanceById(2L).map(Ambulance::getAvailability).orElse(null),
+                "A stale row should not overwrite the local dispatch");
+        assertTrue(ambulanceService.getNextAvailableAmbulance().isEmpty(), "Dispatched ambulance should not be claimable");
+    }
+
+    @Test
+    void testFindByLicensePlate_UsesPlateIndexForLiveAndDeletedUnits() {
+        // Arrange
+        Ambulance retired = changedCopy(maintenanceAmbulance, AvailabilityStatus.MAINTENANCE, 3L);
+        retired.setDeleted(true);
+        when(ambulanceRepository.findByDeletedFalse())
+                .thenReturn(Arrays.asList(availableAmbulance1, availableAmbulance2));
+        when(ambulanceRepository.findDeleted()).thenReturn(List.of(retired));
+        ambulanceService.init();
+
+        // Act & Assert
+        assertEquals(1L, ambulanceService.findByLicensePlateIncludingDeleted(" abc123 ").map(Ambulance::getId).orElse(null),
+                "Plate lookup should ignore case and surrounding spaces");
+        assertEquals(4L, ambulanceService.findByLicensePlateIncludingDeleted("JKL012").map(Ambulance::getId).orElse(null),
+                "Soft-deleted units should still be found by plate");
+        assertTrue(ambulanceService.findByLicensePlateIncludingDeleted("NEW-001").isEmpty(),
+                "Unknown plates should not be found");
+        verify(ambulanceRepository, never()).findByLicensePlate(anyString());
+    }
+
+    @Test
+    void testCountAmbulancesByStatus_FollowsStatusChangesWithoutQueries() {
+        // Arrange
+        when(ambulanceRepository.findByDeletedFalse())
+                .thenReturn(Arrays.asList(availableAmbulance1, availableAmbulance2, dispatchedAmbulance, maintenanceAmbulance));
+        when(ambulanceRepository.updateAmbulanceStatusWithLock(
+                eq(1L), eq(AvailabilityStatus.DISPATCHED), eq(0L), any(LocalDateTime.class))).thenReturn(1);
+        when(ambulanceRepository.findById(4L)).thenReturn(Optional.of(maintenanceAmbulance));
+        ambulanceService.init();
+
+        // Act
+        ambulanceService.getNextAvailableAmbulance();
+        ambulanceService.deleteAmbulance(4L);
+
+        // Assert
+        assertEquals(1, ambulanceService.countAmbulancesByStatus(AvailabilityStatus.AVAILABLE), "One unit should be left available");
+        assertEquals(2, ambulanceService.countAmbulancesByStatus(AvailabilityStatus.DISPATCHED), "Claimed unit should be counted as dispatched");
+        assertEquals(0, ambulanceService.countAmbulancesByStatus(AvailabilityStatus.MAINTENANCE), "Deleted unit should not be counted");
+        verify(ambulanceRepository, never()).countByAvailability(any());
+    }
+
+    @Test
+    void testCountAllAmbulances_IncludesSoftDeletedUnits() {
+        // Arrange - one of the four units was deleted before startup, so the cache never saw it
+        when(ambulanceRepository.findByDeletedFalse())
+                .thenReturn(Arrays.asList(availableAmbulance1, availableAmbulance2, dispatchedAmbulance));
+        when(ambulanceRepository.findById(3L)).thenReturn(Optional.of(dispatchedAmbulance));
+        when(ambulanceRepository.count()).thenReturn(4L);
+        ambulanceService.init();
+
+        // Act
+        ambulanceService.deleteAmbulance(3L);
+
+        // Assert
+        assertEquals(4, ambulanceService.countAllAmbulances(), "Every ambulance row should be counted, deleted or not");
+    }
+
     @Test
     void testGetAvailableAmbulances_FiltersCorrectly() {
         // Arrange
@@ -187,4 +382,15 @@ class AmbulanceServiceTest {
         // Verify repository interactions
         verify(ambulanceRepository, times(1)).findByAvailability(AvailabilityStatus.AVAILABLE);
     }
-}
\ No newline at end of file
+
+    private Ambulance changedCopy(Ambulance source, AvailabilityStatus availability, Long version) {
+        Ambulance copy = new Ambulance();
+        copy.setId(source.getId());
+        copy.setCurrentLocation(source.getCurrentLocation());
+        copy.setLicensePlate(source.getLicensePlate());
+        copy.setAvailability(availability);
+        copy.setVersion(version);
+        copy.setUpdatedAt(LocalDateTime.now().minusMinutes(1));
+        return copy;
+    }
+}
@@ -0,0 +1,95 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.RequestStatus;
+import com.ambulance.ambulance_service.repository.PatientRepository;
+import com.ambulance.ambulance_service.repository.RequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardCountersTest {
+
+    @Mock
+    private RequestRepository requestRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    private DashboardCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new DashboardCounters(requestRepository, patientRepository);
+    }
+
+    @Test
+    void testReconcile_SeedsFromOneGroupedQuery() {
+        // Arrange
+        when(requestRepository.countGroupedByStatus()).thenReturn(rows(
+                new Object[] {RequestStatus.PENDING, 4L},
+                new Object[] {RequestStatus.COMPLETED, 10L}));
+        when(patientRepository.countByDeletedFalse()).thenReturn(7L);
+
+        // Act
+        counters.reconcile();
+
+        // Assert
+        assertEquals(14, counters.countRequests());
+        assertEquals(4, counters.countRequests(RequestStatus.PENDING));
+        assertEquals(0, counters.countRequests(RequestStatus.IN_PROGRESS), "Status without rows should count zero");
+        assertEquals(7, counters.countPatients());
+    }
+
+    @Test
+    void testTransitions_MoveCountsBetweenStatuses() {
+        // Act - two calls come in, one is dispatched, one is deleted outright
+        counters.requestTransition(null, RequestStatus.PENDING);
+        counters.requestTransition(null, RequestStatus.PENDING);
+        counters.requestTransition(RequestStatus.PENDING, RequestStatus.DISPATCHED);
+        counters.requestTransition(RequestStatus.PENDING, RequestStatus.PENDING);
+        counters.requestTransition(RequestStatus.PENDING, null);
+        counters.patientsChanged(3);
+        counters.patientsChanged(-1);
+
+        // Assert
+        assertEquals(1, counters.countRequests());
+        assertEquals(0, counters.countRequests(RequestStatus.PENDING));
+        assertEquals(1, counters.countRequests(RequestStatus.DISPATCHED));
+        assertEquals(2, counters.countPatients());
+        verifyNoInteractions(requestRepository, patientRepository);
+    }
+
+    @Test
+    void testTransitions_InsideTransactionWaitForCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            counters.requestTransition(null, RequestStatus.PENDING);
+            counters.patientsChanged(1);
+
+            // Assert
+            assertEquals(0, counters.countRequests(), "Uncommitted change should not be visible");
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(1, counters.countRequests(RequestStatus.PENDING));
+            assertEquals(1, counters.countPatients());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
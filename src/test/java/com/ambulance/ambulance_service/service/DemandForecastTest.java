@@ -0,0 +1,55 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.repository.RequestRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DemandForecastTest {
+
+    @Mock
+    private RequestRepository requestRepository;
+
+    @InjectMocks
+    private DemandForecast demandForecast;
+
+    @Test
+    void testExpectedCalls_CountsHistoryAndNewCallsByZoneAndHour() {
+        // Arrange - 56 calls at 8am in one zone over the four-week window
+        LocalDateTime morning = LocalDateTime.of(2024, 3, 4, 8, 30);
+        Object[] call = {6.45, 3.35, morning};
+        when(requestRepository.findCallLocationsSince(any(LocalDateTime.class)))
+                .thenReturn(Collections.nCopies(56, call));
+        demandForecast.rebuild();
+
+        Request unlocated = new Request();
+        unlocated.setRequestTime(morning);
+        Request elsewhere = new Request();
+        elsewhere.setLatitude(6.65);
+        elsewhere.setLongitude(3.35);
+        elsewhere.setRequestTime(morning);
+
+        // Act
+        demandForecast.recordCall(unlocated);
+        demandForecast.recordCall(elsewhere);
+        Map<DispatchZone, Double> expected = demandForecast.expectedCalls(8);
+
+        // Assert
+        assertEquals(2.0, expected.get(DispatchZone.of(6.45, 3.35)), 1e-9, "Should average calls per day");
+        assertEquals(1.0 / DemandForecast.HISTORY_DAYS, expected.get(DispatchZone.of(6.65, 3.35)), 1e-9);
+        assertEquals(2, expected.size(), "Calls without coordinates should not be counted");
+        assertTrue(demandForecast.expectedCalls(9).isEmpty());
+    }
+}
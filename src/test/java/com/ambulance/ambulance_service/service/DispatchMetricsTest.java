@@ -0,0 +1,60 @@
+package com.ambulance.ambulance_service.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DispatchMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DispatchMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new DispatchMetrics(meterRegistry);
+    }
+
+    @Test
+    void testRecord_TimesEachOperationWithPercentiles() {
+        // Act
+        metrics.record(DispatchMetrics.Operation.CREATE_REQUEST, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(20));
+        metrics.record(DispatchMetrics.Operation.CREATE_REQUEST, System.nanoTime());
+
+        // Assert
+        Timer timer = meterRegistry.get("ambulance.request.create").timer();
+        assertEquals(2, timer.count());
+        assertTrue(timer.max(TimeUnit.MILLISECONDS) >= 20, "Slowest call should be kept");
+        ValueAtPercentile[] percentiles = timer.takeSnapshot().percentileValues();
+        assertEquals(3, percentiles.length, "p50, p90 and p99 should be published");
+        assertEquals(0, meterRegistry.get("ambulance.fleet.cache_refresh").timer().count(),
+                "Other operations should have their own timer");
+    }
+
+    @Test
+    void testCountersAndGauges() {
+        // Arrange
+        Deque<Long> queue = new ArrayDeque<>();
+        metrics.gauge("ambulance.test.queue.size", "Test queue", queue::size);
+
+        // Act
+        metrics.countOptimisticLockFailure();
+        metrics.countFallbackToPending();
+        metrics.countFallbackToPending();
+        queue.add(1L);
+        queue.add(2L);
+
+        // Assert
+        assertEquals(1, meterRegistry.get("ambulance.fleet.optimistic_lock_failures").counter().count());
+        assertEquals(2, meterRegistry.get("ambulance.request.pending_fallbacks").counter().count());
+        assertEquals(2, meterRegistry.get("ambulance.test.queue.size").gauge().value(), "Gauge should read on demand");
+    }
+}
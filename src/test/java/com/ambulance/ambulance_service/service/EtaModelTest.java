@@ -0,0 +1,136 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.repository.ServiceHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EtaModelTest {
+
+    private static final LocalDateTime MORNING = LocalDateTime.of(2024, 3, 4, 8, 15);
+
+    @Mock
+    private ServiceHistoryRepository serviceHistoryRepository;
+
+    private EtaModel etaModel;
+
+    @BeforeEach
+    void setUp() {
+        etaModel = new EtaModel(serviceHistoryRepository);
+    }
+
+    @Test
+    void testEstimate_UsesAverageOfMatchingBucket() {
+        // Arrange - three morning trips across town, about 10 minutes each
+        for (int minutes : new int[] {9, 10, 11}) {
+            etaModel.record(6.52, 3.35, 6.61, 3.38, MORNING, MORNING.plusMinutes(minutes));
+        }
+
+        // Act
+        Duration eta = etaModel.estimate(6.53, 3.36, 6.62, 3.37, MORNING.withMinute(40)).orElseThrow();
+
+        // Assert
+        assertEquals(Duration.ofMinutes(10), eta, "Estimate should be the bucket average");
+        assertEquals(1, etaModel.getBucketCount());
+    }
+
+    @Test
+    void testEstimate_FallsBackToZonePairThenPace() {
+        // Arrange - morning trips only
+        for (int i = 0; i < 3; i++) {
+            etaModel.record(6.52, 3.35, 6.61, 3.38, MORNING, MORNING.plusMinutes(12));
+        }
+
+        // Act
+        Duration evening = etaModel.estimate(6.52, 3.35, 6.61, 3.38, MORNING.withHour(19)).orElseThrow();
+        Duration elsewhere = etaModel.estimate(7.52, 3.35, 7.61, 3.38, MORNING).orElseThrow();
+
+        // Assert
+        assertEquals(Duration.ofMinutes(12), evening, "Same zones at another hour should use the zone average");
+        double km = GridSpatialIndex.distanceKm(7.52, 3.35, 7.61, 3.38);
+        double pace = 12 * 60 / GridSpatialIndex.distanceKm(6.52, 3.35, 6.61, 3.38);
+        assertEquals(km * pace, elsewhere.getSeconds(), 1.0, "Unknown zones should use the learned pace");
+    }
+
+    @Test
+    void testRecordArrival_UpdatesEstimateOnline() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            etaModel.record(6.52, 3.35, 6.61, 3.38, MORNING, MORNING.plusMinutes(10));
+        }
+        Request request = new Request();
+        request.setDispatchLatitude(6.52);
+        request.setDispatchLongitude(3.35);
+        request.setLatitude(6.61);
+        request.setLongitude(3.38);
+        request.setDispatchTime(MORNING);
+
+        // Act - traffic gets worse
+        etaModel.recordArrival(request, MORNING.plusMinutes(30));
+
+        // Assert
+        Duration eta = etaModel.estimate(6.52, 3.35, 6.61, 3.38, MORNING).orElseThrow();
+        assertEquals(Duration.ofMinutes(15), eta, "A new arrival should move the average straight away");
+    }
+
+    @Test
+    void testRecordArrival_RolledBackArrivalIsNotLearned() {
+        // Arrange
+        Request request = new Request();
+        request.setDispatchLatitude(6.52);
+        request.setDispatchLongitude(3.35);
+        request.setLatitude(6.61);
+        request.setLongitude(3.38);
+        request.setDispatchTime(MORNING);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            etaModel.recordArrival(request, MORNING.plusMinutes(10));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertEquals(0, etaModel.getBucketCount(), "A rolled back arrival should teach the model nothing");
+    }
+
+    @Test
+    void testRecord_IgnoresUnusableTrips() {
+        // Act & Assert
+        assertFalse(etaModel.record(null, 3.35, 6.61, 3.38, MORNING, MORNING.plusMinutes(10)));
+        assertFalse(etaModel.record(6.52, 3.35, 6.61, 3.38, MORNING, MORNING.minusMinutes(1)));
+        assertFalse(etaModel.record(6.52, 3.35, 6.61, 3.38, MORNING, MORNING.plusHours(9)));
+        assertTrue(etaModel.estimate(6.52, 3.35, null, 3.38, MORNING).isEmpty());
+    }
+
+    @Test
+    void testLoadHistory_ReplaysStoredTrips() {
+        // Arrange
+        Object[] trip = {6.52, 3.35, 6.61, 3.38, MORNING, MORNING.plusMinutes(8)};
+        when(serviceHistoryRepository.findTravelTimesSince(any(LocalDateTime.class)))
+                .thenReturn(Collections.nCopies(3, trip));
+
+        // Act
+        etaModel.loadHistory();
+
+        // Assert
+        assertEquals(Duration.ofMinutes(8), etaModel.estimate(6.52, 3.35, 6.61, 3.38, MORNING).orElseThrow());
+    }
+}
@@ -0,0 +1,118 @@
+package com.ambulance.ambulance_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HungarianAssignmentTest {
+
+    private final Random random = new Random(11);
+
+    @Test
+    void testSolve_PicksCheaperPairingOverGreedy() {
+        // Arrange - greedily taking row 0's cheapest column forces row 1 onto a far unit
+        double[][] cost = {
+                {1.0, 2.0},
+                {1.5, 10.0}
+        };
+
+        // Act
+        int[] assignment = HungarianAssignment.solve(cost);
+
+        // Assert
+        assertArrayEquals(new int[] {1, 0}, assignment, "Rows should be swapped to minimise total cost");
+        assertEquals(3.5, HungarianAssignment.totalCost(cost, assignment), 1e-9);
+    }
+
+    @Test
+    void testSolve_MatchesBruteForceOnSquareMatrices() {
+        for (int trial = 0; trial < 200; trial++) {
+            int n = 1 + random.nextInt(6);
+            double[][] cost = randomMatrix(n, n);
+
+            int[] assignment = HungarianAssignment.solve(cost);
+
+            assertValidAssignment(assignment, n, n);
+            assertEquals(bruteForce(cost), HungarianAssignment.totalCost(cost, assignment), 1e-9,
+                    "Assignment should be optimal for trial " + trial);
+        }
+    }
+
+    @Test
+    void testSolve_MatchesBruteForceOnRectangularMatrices() {
+        for (int trial = 0; trial < 200; trial++) {
+            int rows = 1 + random.nextInt(6);
+            int columns = 1 + random.nextInt(6);
+            double[][] cost = randomMatrix(rows, columns);
+
+            int[] assignment = HungarianAssignment.solve(cost);
+
+            assertValidAssignment(assignment, rows, columns);
+            assertEquals(bruteForce(cost), HungarianAssignment.totalCost(cost, assignment), 1e-9,
+                    "Assignment should be optimal for a " + rows + "x" + columns + " matrix");
+        }
+    }
+
+    @Test
+    void testSolve_EmptyAndDegenerateInputs() {
+        assertEquals(0, HungarianAssignment.solve(new double[0][0]).length, "No rows should give no assignment");
+        assertArrayEquals(new int[] {-1, -1}, HungarianAssignment.solve(new double[2][0]),
+                "Rows without columns should stay unassigned");
+        assertThrows(IllegalArgumentException.class,
+                () -> HungarianAssignment.solve(new double[][] {{1.0, 2.0}, {3.0}}),
+                "Ragged matrices should be rejected");
+    }
+
+    private double[][] randomMatrix(int rows, int columns) {
+        double[][] cost = new double[rows][columns];
+        for (double[] row : cost) {
+            for (int j = 0; j < columns; j++) {
+                row[j] = random.nextInt(100) / 4.0;
+            }
+        }
+        return cost;
+    }
+
+    private static void assertValidAssignment(int[] assignment, int rows, int columns) {
+        assertEquals(rows, assignment.length, "Every row should have an entry");
+        Set<Integer> used = new HashSet<>();
+        int assigned = 0;
+        for (int column : assignment) {
+            if (column >= 0) {
+                assertTrue(column < columns, "Column out of range");
+                assertTrue(used.add(column), "Column " + column + " assigned twice in " + Arrays.toString(assignment));
+                assigned++;
+            }
+        }
+        assertEquals(Math.min(rows, columns), assigned, "As many rows as possible should be assigned");
+    }
+
+    // Exhaustive minimum over every way of matching min(rows, columns) pairs
+    private static double bruteForce(double[][] cost) {
+        return bruteForce(cost, 0, new boolean[cost[0].length],
+                cost.length - Math.min(cost.length, cost[0].length));
+    }
+
+    private static double bruteForce(double[][] cost, int row, boolean[] used, int skipsLeft) {
+        if (row == cost.length) {
+            return 0;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        if (skipsLeft > 0) {
+            best = bruteForce(cost, row + 1, used, skipsLeft - 1);
+        }
+        for (int j = 0; j < used.length; j++) {
+            if (!used[j]) {
+                used[j] = true;
+                best = Math.min(best, cost[row][j] + bruteForce(cost, row + 1, used, skipsLeft));
+                used[j] = false;
+            }
+        }
+        return best;
+    }
+}
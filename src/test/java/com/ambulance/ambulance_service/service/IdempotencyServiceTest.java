@@ -0,0 +1,158 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.IdempotencyRecord;
+import com.ambulance.ambulance_service.exception.IdempotencyKeyException;
+import com.ambulance.ambulance_service.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger submissions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(recordRepository.findById(anyString())).thenReturn(Optional.empty());
+        idempotencyService = new IdempotencyService(recordRepository, jdbcTemplate, objectMapper);
+    }
+
+    @Test
+    void testRetryWithSameKey_ReplaysFirstResponseWithoutResubmitting() {
+        // Arrange
+        Map<String, String> body = Map.of("location", "123 Emergency Street");
+
+        // Act
+        ResponseEntity<?> first = idempotencyService.execute("key-1", body, this::submit);
+        ResponseEntity<?> retry = idempotencyService.execute("key-1", body, this::submit);
+
+        // Assert
+        assertEquals(1, submissions.get(), "The retry should not run the submission again");
+        assertEquals(200, retry.getStatusCode().value());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("{\"id\":1}", retry.getBody(), "The retry should get the first response body");
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        verify(jdbcTemplate, times(1)).update(startsWith("INSERT INTO idempotency_keys"), any(Object[].class));
+    }
+
+    @Test
+    void testSameKeyDifferentBody_Rejected() {
+        // Arrange
+        idempotencyService.execute("key-2", Map.of("location", "A"), this::submit);
+
+        // Act & Assert
+        IdempotencyKeyException e = assertThrows(IdempotencyKeyException.class,
+                () -> idempotencyService.execute("key-2", Map.of("location", "B"), this::submit));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, e.getStatus());
+        assertEquals(1, submissions.get());
+    }
+
+    @Test
+    void testFailedSubmission_FreesKeyForRetry() {
+        // Arrange
+        Map<String, String> body = Map.of("location", "123 Emergency Street");
+
+        // Act
+        ResponseEntity<?> failed = idempotencyService.execute("key-3", body,
+                () -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "busy")));
+        ResponseEntity<?> retry = idempotencyService.execute("key-3", body, this::submit);
+
+        // Assert
+        assertEquals(503, failed.getStatusCode().value());
+        assertEquals(200, retry.getStatusCode().value());
+        assertEquals(1, submissions.get(), "The retry should run the submission after a failure");
+    }
+
+    @Test
+    void testKeyStoredByEarlierRun_ReplayedFromDatabase() {
+        // Arrange
+        Map<String, String> body = Map.of("location", "123 Emergency Street");
+        IdempotencyService earlier = new IdempotencyService(recordRepository, jdbcTemplate, objectMapper);
+        earlier.execute("key-4", body, this::submit);
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setKey("key-4");
+        record.setFingerprint(storedFingerprint());
+        record.setResponseStatus(200);
+        record.setResponseBody("{\"id\":1}");
+        record.setExpiresAt(LocalDateTime.now().plusHours(1));
+        when(recordRepository.findById("key-4")).thenReturn(Optional.of(record));
+
+        // Act
+        ResponseEntity<?> retry = idempotencyService.execute("key-4", body, this::submit);
+
+        // Assert
+        assertEquals(1, submissions.get(), "A key stored before a restart should not be resubmitted");
+        assertEquals("{\"id\":1}", retry.getBody());
+    }
+
+    @Test
+    void testKeyStoredByEarlierRun_DifferentBodyDoesNotBlockOriginal() {
+        // Arrange
+        Map<String, String> body = Map.of("location", "123 Emergency Street");
+        IdempotencyService earlier = new IdempotencyService(recordRepository, jdbcTemplate, objectMapper);
+        earlier.execute("key-5", body, this::submit);
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setKey("key-5");
+        record.setFingerprint(storedFingerprint());
+        record.setResponseStatus(200);
+        record.setResponseBody("{\"id\":1}");
+        record.setExpiresAt(LocalDateTime.now().plusHours(1));
+        when(recordRepository.findById("key-5")).thenReturn(Optional.of(record));
+
+        // Act
+        IdempotencyKeyException e = assertThrows(IdempotencyKeyException.class,
+                () -> idempotencyService.execute("key-5", Map.of("location", "Elsewhere"), this::submit));
+        ResponseEntity<?> retry = idempotencyService.execute("key-5", body, this::submit);
+
+        // Assert
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, e.getStatus());
+        assertEquals(200, retry.getStatusCode().value(), "The original body should still be replayed");
+        assertEquals("{\"id\":1}", retry.getBody());
+        assertEquals(1, submissions.get());
+    }
+
+    @Test
+    void testBlankKey_Rejected() {
+        // Act & Assert
+        IdempotencyKeyException e = assertThrows(IdempotencyKeyException.class,
+                () -> idempotencyService.execute(" ", Map.of(), this::submit));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+        assertEquals(0, submissions.get());
+    }
+
+    private ResponseEntity<?> submit() {
+        return ResponseEntity.ok(Map.of("id", submissions.incrementAndGet()));
+    }
+
+    // Captures the fingerprint the service stored for a body through the insert it issued
+    private String storedFingerprint() {
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, atLeastOnce()).update(anyString(), args.capture());
+        return (String) args.getValue()[1];
+    }
+}
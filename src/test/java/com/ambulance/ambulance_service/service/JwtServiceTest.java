@@ -0,0 +1,91 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.Role;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "bo3eRDMMuCNW0K+ox8Qnlu8rIcM9pGS58YyibB1qVow=";
+    private static final String OTHER_SECRET = "Zm9yZ2VkLXNpZ25pbmcta2V5LWZvci10ZXN0cy0xMjM0NTY=";
+
+    private final JwtService jwtService = new JwtService(SECRET, 3600000L);
+
+    @Test
+    void testVerify_ReturnsSignedUsernameAndRole() {
+        // Arrange
+        String token = jwtService.generateToken("dispatcher1", Role.DISPATCHER);
+
+        // Act
+        Optional<JwtService.VerifiedToken> verified = jwtService.verify(token);
+
+        // Assert
+        assertTrue(verified.isPresent());
+        assertEquals("dispatcher1", verified.get().getUsername());
+        assertEquals(Role.DISPATCHER, verified.get().getRole());
+        assertTrue(jwtService.validateToken(token, "dispatcher1"));
+        assertFalse(jwtService.validateToken(token, "someone-else"));
+    }
+
+    @Test
+    void testVerify_SameTokenIsParsedOnce() {
+        // Arrange
+        String token = jwtService.generateToken("user1", Role.USER);
+
+        // Act
+        JwtService.VerifiedToken first = jwtService.verify(token).orElseThrow();
+        JwtService.VerifiedToken second = jwtService.verify(token).orElseThrow();
+
+        // Assert
+        assertSame(first, second, "A verified token should be served from the cache");
+    }
+
+    @Test
+    void testVerify_RejectsForgedAndTamperedTokens() {
+        // Arrange
+        String forged = Jwts.builder()
+                .subject("admin")
+                .claim(JwtService.ROLE_CLAIM, Role.ADMIN.name())
+                .expiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(OTHER_SECRET.getBytes()))
+                .compact();
+        String genuine = jwtService.generateToken("user1", Role.USER);
+        String tampered = genuine.substring(0, genuine.length() - 2)
+                + (genuine.endsWith("AA") ? "BB" : "AA");
+
+        // Act & Assert
+        assertTrue(jwtService.verify(forged).isEmpty(), "A token signed with another key should be rejected");
+        assertTrue(jwtService.verify(tampered).isEmpty(), "A token with a broken signature should be rejected");
+        assertTrue(jwtService.verify("not-a-token").isEmpty());
+        assertTrue(jwtService.verify(null).isEmpty());
+    }
+
+    @Test
+    void testVerify_RejectsExpiredToken() {
+        // Arrange
+        JwtService shortLived = new JwtService(SECRET, -1000L);
+        String token = shortLived.generateToken("user1", Role.USER);
+
+        // Act & Assert
+        assertTrue(shortLived.verify(token).isEmpty());
+    }
+
+    @Test
+    void testVerify_TokenWithoutRoleHasNoRole() {
+        // Arrange
+        String token = jwtService.generateToken("user1", null);
+
+        // Act
+        Optional<JwtService.VerifiedToken> verified = jwtService.verify(token);
+
+        // Assert
+        assertTrue(verified.isPresent());
+        assertNull(verified.get().getRole(), "Tokens without a role claim should be looked up by the caller");
+    }
+}
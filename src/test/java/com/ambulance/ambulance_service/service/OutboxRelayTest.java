@@ -0,0 +1,118 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.OutboxEvent;
+import com.ambulance.ambulance_service.entity.RequestStatus;
+import com.ambulance.ambulance_service.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private OutboxRelay relay;
+    private final List<RequestLifecycleEvent> published = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().doAnswer(invocation -> {
+            published.add(invocation.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(Object.class));
+        relay = new OutboxRelay(outboxEventRepository, jdbcTemplate, eventPublisher);
+    }
+
+    @Test
+    void testDrain_PublishesInIdOrderWithConsecutiveSequenceNumbers() {
+        // Arrange
+        OutboxEvent first = row(11L, 1L, null, RequestStatus.PENDING);
+        OutboxEvent second = row(12L, 1L, RequestStatus.PENDING, RequestStatus.DISPATCHED);
+        when(outboxEventRepository.findMaxSequenceNumber()).thenReturn(40L);
+        when(outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+
+        // Act
+        int count = relay.drain();
+
+        // Assert
+        assertEquals(2, count);
+        assertEquals(List.of(41L, 42L), published.stream().map(RequestLifecycleEvent::getSequenceNumber).toList(),
+                "Events should continue the sequence in id order");
+        assertEquals(RequestStatus.DISPATCHED, published.get(1).getNewStatus());
+        assertNotNull(first.getPublishedAt(), "Published rows should be stamped");
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), eq(List.of(first, second)), eq(2),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void testDrain_FailingSubscriberDoesNotStopTheRest() {
+        // Arrange
+        OutboxEvent first = row(1L, 5L, null, RequestStatus.PENDING);
+        OutboxEvent second = row(2L, 6L, null, RequestStatus.PENDING);
+        when(outboxEventRepository.findMaxSequenceNumber()).thenReturn(0L);
+        when(outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        doThrow(new IllegalStateException("subscriber down"))
+                .doAnswer(invocation -> {
+                    published.add(invocation.getArgument(0));
+                    return null;
+                })
+                .when(eventPublisher).publishEvent(any(Object.class));
+
+        // Act
+        int count = relay.drain();
+
+        // Assert
+        assertEquals(2, count, "Both rows should be marked published");
+        assertEquals(1, published.size());
+        assertEquals(6L, published.get(0).getRequestId());
+    }
+
+    @Test
+    void testDrain_NothingUnpublished() {
+        // Arrange
+        when(outboxEventRepository.findMaxSequenceNumber()).thenReturn(0L);
+        when(outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        int count = relay.drain();
+
+        // Assert
+        assertEquals(0, count);
+        verifyNoInteractions(eventPublisher, jdbcTemplate);
+    }
+
+    private OutboxEvent row(Long id, Long requestId, RequestStatus oldStatus, RequestStatus newStatus) {
+        OutboxEvent row = new OutboxEvent();
+        row.setId(id);
+        row.setRequestId(requestId);
+        row.setEventType(OutboxEvent.STATUS_CHANGED);
+        row.setOldStatus(oldStatus);
+        row.setNewStatus(newStatus);
+        row.setCreatedAt(LocalDateTime.now());
+        return row;
+    }
+}
@@ -23,6 +23,9 @@ class PatientServiceTest {
     @Mock
     private PatientRepository patientRepository;
 
+    @Mock
+    private DashboardCounters dashboardCounters;
+
     @InjectMocks
     private PatientService patientService;
 
@@ -0,0 +1,132 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.RequestPriority;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PendingRequestQueueTest {
+
+    private final PendingRequestQueue queue = new PendingRequestQueue();
+    private final LocalDateTime now = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @Test
+    void testHigherPriorityServedFirst() {
+        // Arrange
+        queue.add(1L, RequestPriority.LOW, now.minusMinutes(2));
+        queue.add(2L, RequestPriority.MEDIUM, now.minusMinutes(1));
+        queue.add(3L, RequestPriority.CRITICAL, now);
+
+        // Act & Assert
+        assertEquals(Arrays.asList(3L, 2L, 1L), drain(), "Most urgent requests should be served first");
+    }
+
+    @Test
+    void testLongWaitingLowPriorityIsNotStarved() {
+        // Arrange - a LOW call that has waited longer than the CRITICAL credit
+        queue.add(1L, RequestPriority.LOW, now.minusMinutes(31));
+        queue.add(2L, RequestPriority.CRITICAL, now);
+
+        // Act & Assert
+        assertEquals(Optional.of(1L), queue.peek(), "Aged low priority request should overtake a new critical one");
+    }
+
+    @Test
+    void testSamePriorityIsFirstComeFirstServed() {
+        // Arrange
+        queue.add(2L, RequestPriority.HIGH, now.minusSeconds(30));
+        queue.add(1L, RequestPriority.HIGH, now);
+
+        // Act & Assert
+        assertEquals(Arrays.asList(2L, 1L), drain(), "Equal priorities should keep request order");
+    }
+
+    @Test
+    void testReAddChangesPriorityWithoutDuplicating() {
+        // Arrange
+        queue.add(1L, RequestPriority.MEDIUM, now.minusMinutes(1));
+        queue.add(2L, RequestPriority.LOW, now.minusMinutes(2));
+
+        // Act - the call is upgraded after triage
+        queue.add(2L, RequestPriority.CRITICAL, now.minusMinutes(2));
+
+        // Assert
+        assertEquals(2, queue.size(), "Re-adding should replace the existing entry");
+        assertEquals(Arrays.asList(2L, 1L), drain(), "Upgraded request should move to the front");
+    }
+
+    @Test
+    void testRemove() {
+        // Arrange
+        queue.add(1L, RequestPriority.MEDIUM, now);
+        queue.add(2L, RequestPriority.MEDIUM, now.plusSeconds(1));
+
+        // Act
+        boolean removed = queue.remove(1L);
+        boolean removedAgain = queue.remove(1L);
+
+        // Assert
+        assertTrue(removed, "Queued request should be removed");
+        assertFalse(removedAgain, "Second removal should report nothing removed");
+        assertFalse(queue.contains(1L));
+        assertEquals(Optional.of(2L), queue.peek());
+    }
+
+    @Test
+    void testNullPriorityAndTimeAreTolerated() {
+        // Act
+        queue.add(1L, null, null);
+
+        // Assert
+        assertEquals(Optional.of(1L), queue.peek());
+        assertEquals(PendingRequestQueue.rank(RequestPriority.MEDIUM, now),
+                PendingRequestQueue.rank(null, now), "Missing priority should rank as MEDIUM");
+    }
+
+    @Test
+    void testZonesAreServedSeparatelyAndMergedInServingOrder() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        DispatchZone mainland = DispatchZone.of(6.55, 3.35);
+        DispatchZone island = DispatchZone.of(6.45, 3.42);
+        queue.add(1L, RequestPriority.MEDIUM, now.minusMinutes(3), mainland);
+        queue.add(2L, RequestPriority.CRITICAL, now, island);
+        queue.add(3L, RequestPriority.MEDIUM, now.minusMinutes(1), mainland);
+        queue.add(4L, RequestPriority.LOW, now, DispatchZone.UNZONED);
+
+        // Act
+        List<Long> mainlandIds = new ArrayList<>();
+        queue.iterator(mainland).forEachRemaining(mainlandIds::add);
+
+        // Assert
+        assertEquals(List.of(1L, 3L), mainlandIds, "A zone should only iterate its own requests");
+        assertEquals(List.of(island, mainland, DispatchZone.UNZONED), queue.zones(),
+                "Zones should be ordered by their most urgent request");
+        assertEquals(List.of(2L, 1L, 3L, 4L), drain(), "All zones together should follow serving order");
+
+        queue.add(2L, RequestPriority.CRITICAL, now, mainland);
+        assertEquals(List.of(2L, 1L, 3L), toList(queue.iterator(mainland)), "Re-adding should move a request between zones");
+        assertFalse(queue.iterator(island).hasNext(), "The old zone should no longer hold the request");
+    }
+
+    private static List<Long> toList(Iterator<Long> iterator) {
+        List<Long> ids = new ArrayList<>();
+        iterator.forEachRemaining(ids::add);
+        return ids;
+    }
+
+    private List<Long> drain() {
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> it = queue.iterator(); it.hasNext(); ) {
+            ids.add(it.next());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,99 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.Ambulance;
+import com.ambulance.ambulance_service.repository.ServiceHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrepositioningPlannerTest {
+
+    private static final LocalDateTime EVENING = LocalDateTime.of(2024, 3, 4, 18, 5);
+    private static final DispatchZone CENTRE = DispatchZone.of(6.45, 3.35);
+    private static final DispatchZone NORTH = DispatchZone.of(6.65, 3.35);
+
+    @Mock
+    private AmbulanceService ambulanceService;
+
+    @Mock
+    private DemandForecast demandForecast;
+
+    @Mock
+    private ServiceHistoryRepository serviceHistoryRepository;
+
+    private PrepositioningPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        // No trips recorded: travel times come from the default pace
+        planner = new PrepositioningPlanner(ambulanceService, demandForecast, new EtaModel(serviceHistoryRepository));
+    }
+
+    @Test
+    void testPlan_MovesIdleUnitTowardsUncoveredDemand() {
+        // Arrange - both units wait in the centre, but half the evening calls come from the north
+        Ambulance first = ambulanceAt(1L, 6.45, 3.35);
+        Ambulance second = ambulanceAt(2L, 6.46, 3.36);
+        when(demandForecast.expectedCalls(18)).thenReturn(Map.of(CENTRE, 2.0, NORTH, 2.0));
+
+        // Act
+        PrepositioningPlan plan = planner.plan(List.of(first, second), EVENING);
+
+        // Assert
+        assertEquals(1, plan.getMoves().size(), "One unit should move north and one should stay");
+        PrepositioningPlan.Move move = plan.getMoves().get(0);
+        assertEquals(NORTH, DispatchZone.of(move.getToLatitude(), move.getToLongitude()));
+        assertEquals(2L, move.getAmbulanceId(), "The unit closer to the north should be the one to move");
+        assertTrue(plan.getPlannedResponseSeconds() < plan.getCurrentResponseSeconds(),
+                "Moving should lower the expected response time");
+    }
+
+    @Test
+    void testPlan_NoMovesWhenFleetAlreadyCoversDemand() {
+        // Arrange
+        Ambulance centre = ambulanceAt(1L, 6.45, 3.35);
+        Ambulance north = ambulanceAt(2L, 6.65, 3.35);
+        when(demandForecast.expectedCalls(18)).thenReturn(Map.of(CENTRE, 2.0, NORTH, 1.0));
+
+        // Act
+        PrepositioningPlan plan = planner.plan(List.of(centre, north), EVENING);
+
+        // Assert
+        assertTrue(plan.getMoves().isEmpty(), "Units already in the busy zones should stay");
+    }
+
+    @Test
+    void testGetPlan_RecomputedAfterFleetChanges() {
+        // Arrange
+        when(ambulanceService.getAvailableAmbulances()).thenReturn(List.of(ambulanceAt(1L, 6.45, 3.35)));
+        when(demandForecast.expectedCalls(anyInt())).thenReturn(Map.of(CENTRE, 1.0));
+
+        // Act
+        planner.getPlan();
+        planner.getPlan();
+        planner.onAmbulanceAvailable(new AmbulanceAvailableEvent(2L));
+        planner.getPlan();
+
+        // Assert
+        verify(ambulanceService, times(2)).getAvailableAmbulances();
+    }
+
+    private Ambulance ambulanceAt(Long id, double latitude, double longitude) {
+        Ambulance ambulance = new Ambulance();
+        ambulance.setId(id);
+        ambulance.setLicensePlate("AMB-" + id);
+        ambulance.setLatitude(latitude);
+        ambulance.setLongitude(longitude);
+        return ambulance;
+    }
+}
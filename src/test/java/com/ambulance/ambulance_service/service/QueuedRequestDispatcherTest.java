@@ -0,0 +1,144 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.entity.RequestPriority;
+import com.ambulance.ambulance_service.service.RequestService.QueuedDispatchResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QueuedRequestDispatcherTest {
+
+    @Mock
+    private RequestService requestService;
+
+    @Mock
+    private DispatchMetrics dispatchMetrics;
+
+    private QueuedRequestDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new QueuedRequestDispatcher(requestService, dispatchMetrics);
+        dispatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    void testAmbulanceRelease_DrainsPendingRequestsByPriority() {
+        // Arrange - the sprained ankle called first, the cardiac arrest a minute later
+        LocalDateTime now = LocalDateTime.now();
+        dispatcher.getPendingQueue().add(1L, RequestPriority.LOW, now.minusMinutes(1));
+        dispatcher.getPendingQueue().add(2L, RequestPriority.CRITICAL, now);
+        when(requestService.dispatchPendingRequests(anyList())).thenAnswer(allResult(QueuedDispatchResult.DISPATCHED));
+
+        // Act
+        dispatcher.onAmbulanceAvailable(new AmbulanceAvailableEvent(1L));
+
+        // Assert - well inside the old 30 second polling interval, most urgent first
+        verify(requestService, timeout(1000)).dispatchPendingRequests(Arrays.asList(2L, 1L));
+        verify(requestService, after(200).times(1)).dispatchPendingRequests(anyList());
+        assertEquals(0, dispatcher.getPendingQueue().size(), "Dispatched requests should leave the queue");
+    }
+
+    @Test
+    void testBurstOfReleases_CoalescesIntoFewDrains() throws InterruptedException {
+        // Arrange - hold the first drain so that further releases pile up behind it
+        CountDownLatch drainStarted = new CountDownLatch(1);
+        CountDownLatch releaseDrain = new CountDownLatch(1);
+        when(requestService.dispatchPendingRequests(anyList())).thenAnswer(invocation -> {
+            drainStarted.countDown();
+            releaseDrain.await(5, TimeUnit.SECONDS);
+            return Map.of(1L, QueuedDispatchResult.NO_AMBULANCE);
+        });
+
+        // Act
+        dispatcher.onRequestQueued(new RequestQueuedEvent(1L, RequestPriority.MEDIUM, LocalDateTime.now()));
+        assertTrue(drainStarted.await(1, TimeUnit.SECONDS), "Dispatcher should start draining");
+        for (long id = 2; id <= 50; id++) {
+            dispatcher.onAmbulanceAvailable(new AmbulanceAvailableEvent(id));
+        }
+        releaseDrain.countDown();
+
+        // Assert - the 49 releases during the first drain collapse into one more drain
+        verify(requestService, timeout(1000).times(2)).dispatchPendingRequests(anyList());
+        verify(requestService, after(200).times(2)).dispatchPendingRequests(anyList());
+        assertTrue(dispatcher.getPendingQueue().contains(1L), "Undispatched request should stay queued");
+    }
+
+    @Test
+    void testFailedDispatch_KeepsRequestQueuedAndDispatcherRunning() {
+        // Arrange
+        when(requestService.dispatchPendingRequests(anyList()))
+                .thenThrow(new IllegalStateException("Database unavailable"))
+                .thenReturn(Map.of(1L, QueuedDispatchResult.FAILED))
+                .thenReturn(Map.of(1L, QueuedDispatchResult.DISPATCHED));
+
+        // Act
+        dispatcher.onRequestQueued(new RequestQueuedEvent(1L, RequestPriority.HIGH, LocalDateTime.now()));
+        verify(requestService, timeout(1000).times(1)).dispatchPendingRequests(anyList());
+        assertTrue(dispatcher.getPendingQueue().contains(1L), "Request should stay queued after a failed round");
+        dispatcher.onAmbulanceAvailable(new AmbulanceAvailableEvent(7L));
+        verify(requestService, timeout(1000).times(2)).dispatchPendingRequests(anyList());
+        assertTrue(dispatcher.getPendingQueue().contains(1L), "Request should stay queued after a failed assignment");
+        dispatcher.onAmbulanceAvailable(new AmbulanceAvailableEvent(8L));
+
+        // Assert
+        verify(requestService, timeout(1000).times(3)).dispatchPendingRequests(anyList());
+        verify(requestService, after(200).times(3)).dispatchPendingRequests(anyList());
+        assertFalse(dispatcher.getPendingQueue().contains(1L), "Request should leave the queue once dispatched");
+    }
+
+    @Test
+    void testApplicationReady_RebuildsQueueFromDatabase() {
+        // Arrange
+        Request waiting = new Request();
+        waiting.setId(5L);
+        waiting.setPriority(RequestPriority.HIGH);
+        waiting.setRequestTime(LocalDateTime.now().minusMinutes(10));
+        Request alreadyHandled = new Request();
+        alreadyHandled.setId(6L);
+        alreadyHandled.setRequestTime(LocalDateTime.now().minusMinutes(5));
+        when(requestService.getPendingRequests()).thenReturn(Arrays.asList(waiting, alreadyHandled));
+        when(requestService.dispatchPendingRequests(anyList())).thenReturn(
+                Map.of(5L, QueuedDispatchResult.DISPATCHED, 6L, QueuedDispatchResult.NOT_PENDING));
+
+        // Act
+        dispatcher.onApplicationReady();
+
+        // Assert - the older HIGH call ranks ahead of the MEDIUM one
+        verify(requestService, timeout(1000)).dispatchPendingRequests(Arrays.asList(5L, 6L));
+        verify(requestService, after(200).times(1)).dispatchPendingRequests(anyList());
+        assertEquals(0, dispatcher.getPendingQueue().size(), "Handled requests should leave the queue");
+    }
+
+    private static Answer<Map<Long, QueuedDispatchResult>> allResult(QueuedDispatchResult result) {
+        return invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            Map<Long, QueuedDispatchResult> results = new HashMap<>();
+            ids.forEach(id -> results.put(id, result));
+            return results;
+        };
+    }
+}
@@ -0,0 +1,140 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.Ambulance;
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.entity.RequestStatus;
+import com.ambulance.ambulance_service.entity.RequestStatusHistory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RequestEventOutboxTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private OutboxRelay relay;
+
+    private RequestEventOutbox outbox;
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+                    Collection<?> rows = invocation.getArgument(1);
+                    batchSizes.add(rows.size());
+                    return new int[][] {};
+                });
+        outbox = new RequestEventOutbox(jdbcTemplate, relay);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testEventsInTransaction_WrittenBeforeCommitAndRelayWokenAfter() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        outbox.append(history(1L, null, RequestStatus.PENDING));
+        outbox.append(history(1L, RequestStatus.PENDING, RequestStatus.DISPATCHED));
+
+        // Assert - nothing is written or relayed until the transaction commits
+        verifyNoInteractions(jdbcTemplate, relay);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(sync -> sync.beforeCommit(false));
+        assertEquals(List.of(2), batchSizes, "Events of the transaction should be written in one batch");
+        verify(relay, never()).signal();
+
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        verify(relay, times(1)).signal();
+    }
+
+    @Test
+    void testRolledBackTransaction_WritesNothing() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        outbox.append(history(1L, RequestStatus.PENDING, RequestStatus.CANCELLED));
+
+        // Act
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate, relay);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEventOutsideTransaction_WrittenImmediatelyWithAssignedAmbulance() throws Exception {
+        // Arrange
+        RequestStatusHistory history = history(7L, RequestStatus.PENDING, RequestStatus.DISPATCHED);
+        Ambulance ambulance = new Ambulance();
+        ambulance.setId(3L);
+        history.getRequest().setAmbulance(ambulance);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+                    Collection<Object> rows = invocation.getArgument(1);
+                    ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+                    for (Object row : rows) {
+                        setter.setValues(statement, row);
+                    }
+                    return new int[][] {};
+                });
+
+        // Act
+        outbox.append(history);
+
+        // Assert
+        verify(statement).setLong(1, 7L);
+        verify(statement).setLong(2, 3L);
+        verify(statement).setString(4, "PENDING");
+        verify(statement).setString(5, "DISPATCHED");
+        verify(relay, times(1)).signal();
+    }
+
+    @Test
+    void testUnsavedRequest_Rejected() {
+        // Arrange
+        RequestStatusHistory history = new RequestStatusHistory(new Request(), null, RequestStatus.PENDING, null, "system");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> outbox.append(history),
+                "Events for a request without an id cannot be written");
+        verifyNoInteractions(jdbcTemplate, relay);
+    }
+
+    private RequestStatusHistory history(Long requestId, RequestStatus oldStatus, RequestStatus newStatus) {
+        Request request = new Request();
+        request.setId(requestId);
+        return new RequestStatusHistory(request, oldStatus, newStatus, null, "system");
+    }
+}
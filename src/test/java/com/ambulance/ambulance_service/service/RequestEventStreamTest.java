@@ -0,0 +1,132 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.RequestStatus;
+import com.ambulance.ambulance_service.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class RequestEventStreamTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final SseFanout fanout = new SseFanout();
+    private RequestEventStream stream;
+
+    @BeforeEach
+    void setUp() {
+        fanout.start();
+        stream = new RequestEventStream(outboxEventRepository, fanout) {
+            @Override
+            SseEmitter newEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        fanout.stop();
+    }
+
+    @Test
+    void testSlowSubscriber_DoesNotHoldUpPublisher() throws Exception {
+        // Arrange - the first client's connection is stuck
+        CountDownLatch stuck = new CountDownLatch(1);
+        stream.subscribe(null);
+        stream.subscribe(null);
+        emitters.get(0).blockOn = stuck;
+
+        // Act
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (long sequence = 1; sequence <= 3; sequence++) {
+                stream.onLifecycleEvent(event(sequence));
+            }
+        }, "Publishing should not wait for a stuck client");
+
+        // Assert
+        assertEquals("1", emitters.get(1).nextId(), "Another client should not wait for the stuck one");
+        assertEquals("2", emitters.get(1).nextId());
+        assertEquals("3", emitters.get(1).nextId());
+        stuck.countDown();
+    }
+
+    @Test
+    void testReconnect_ReplaysMissedEventsBeforeLiveOnes() throws Exception {
+        // Arrange
+        for (long sequence = 1; sequence <= 3; sequence++) {
+            stream.onLifecycleEvent(event(sequence));
+        }
+
+        // Act
+        stream.subscribe(1L);
+        stream.onLifecycleEvent(event(4L));
+
+        // Assert
+        RecordingEmitter emitter = emitters.get(0);
+        assertEquals("2", emitter.nextId());
+        assertEquals("3", emitter.nextId());
+        assertEquals("4", emitter.nextId(), "Live events should follow the replay");
+        assertNull(emitter.poll(), "Nothing should be sent twice");
+        verifyNoInteractions(outboxEventRepository);
+    }
+
+    private static RequestLifecycleEvent event(long sequence) {
+        return new RequestLifecycleEvent(sequence, "STATUS_CHANGED", 7L, null, null,
+                RequestStatus.PENDING, RequestStatus.DISPATCHED, null, "system", LocalDateTime.now());
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> sent = new LinkedBlockingQueue<>();
+        private volatile CountDownLatch blockOn;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            CountDownLatch latch = blockOn;
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent.add(builder.build());
+        }
+
+        // The SSE id line is the first part of each built event
+        String nextId() throws InterruptedException {
+            Set<ResponseBodyEmitter.DataWithMediaType> event = sent.poll(1, TimeUnit.SECONDS);
+            assertNotNull(event, "An event should have been sent");
+            String head = event.iterator().next().getData().toString();
+            return head.substring("id:".length(), head.indexOf('\n'));
+        }
+
+        Set<?> poll() throws InterruptedException {
+            return sent.poll(100, TimeUnit.MILLISECONDS);
+        }
+    }
+}
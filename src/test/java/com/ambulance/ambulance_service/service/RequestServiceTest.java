@@ -13,14 +13,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -49,6 +54,33 @@ class RequestServiceTest {
     @Mock
     private RequestStatusHistoryRepository statusHistoryRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private StatusHistoryWriter statusHistoryWriter;
+
+    @Mock
+    private RequestEventOutbox requestEventOutbox;
+
+    @Mock
+    private EtaModel etaModel;
+
+    @Mock
+    private DemandForecast demandForecast;
+
+    @Mock
+    private DashboardCounters dashboardCounters;
+
+    @Mock
+    private ResponseTimeAnalytics responseTimeAnalytics;
+
+    @Mock
+    private DispatchMetrics dispatchMetrics;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private RequestService requestService;
 
@@ -112,7 +144,8 @@ class RequestServiceTest {
         lenient().when(patientService.findOrCreatePatient(anyString(), anyString(), anyString()))
                 .thenReturn(testPatient);
         lenient().when(serviceHistoryService.createServiceHistory(any(), any(), any())).thenReturn(new ServiceHistory());
-        lenient().when(statusHistoryRepository.save(any())).thenReturn(new RequestStatusHistory());
+        lenient().when(serviceHistoryService.createServiceHistory(any(), any(), any(), any(), any()))
+                .thenReturn(new ServiceHistory());
     }
 
     @Test
@@ -136,11 +169,14 @@ class RequestServiceTest {
         assertEquals(testUser, result.getUser(), "User should be assigned to request");
         assertEquals("Test medical notes", result.getMedicalNotes(), "Medical notes should be set");
 
-        // Verify interactions - expect 2 saves: one for initial save and one after dispatch
-        verify(requestRepository, times(2)).save(any(Request.class));
+        // Verify interactions - the unit is claimed first, so the request is saved once in its final state
+        verify(requestRepository, times(1)).save(any(Request.class));
         verify(ambulanceService, times(1)).getNextAvailableAmbulance();
         verify(patientService, times(1)).findOrCreatePatient(anyString(), anyString(), anyString());
-        verify(serviceHistoryService, times(1)).createServiceHistory(any(), any(), any());
+        verify(serviceHistoryService, times(1)).createServiceHistory(any(), any(), eq(availableAmbulance),
+                eq(ServiceStatus.IN_PROGRESS), anyString());
+        verify(serviceHistoryRepository, never()).save(any());
+        verify(statusHistoryWriter, times(2)).record(any(RequestStatusHistory.class));
     }
 
     @Test
@@ -161,11 +197,165 @@ class RequestServiceTest {
         assertEquals(RequestStatus.PENDING, result.getStatus(), "Request should be queued");
         assertEquals("Test medical notes", result.getMedicalNotes(), "Medical notes should be preserved");
 
-        // Verify interactions - expect 2 saves: one for initial creation and one after setting status to PENDING
+        // Verify interactions - the request is saved once, already PENDING
         verify(ambulanceService, times(1)).getNextAvailableAmbulance();
         verify(patientService, times(1)).findOrCreatePatient(anyString(), anyString(), anyString());
-        verify(requestRepository, times(2)).save(any(Request.class));
-        verify(serviceHistoryService, times(1)).createServiceHistory(any(), any(), any());
+        verify(requestRepository, times(1)).save(any(Request.class));
+        verify(serviceHistoryService, times(1)).createServiceHistory(any(), any(), isNull(),
+                eq(ServiceStatus.PENDING), anyString());
+        verify(eventPublisher, times(1)).publishEvent(any(RequestQueuedEvent.class));
+    }
+
+    @Test
+    void testCreateRequest_NoAvailableAmbulance_CountsFallbackOnlyAfterCommit() throws NoAvailableAmbulanceException {
+        // Arrange
+        when(ambulanceService.getNextAvailableAmbulance()).thenReturn(Optional.empty());
+        when(requestRepository.save(any(Request.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            requestService.createRequest(validRequestDto, testUser);
+
+            // Assert
+            verify(dispatchMetrics, never()).countFallbackToPending();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(dispatchMetrics, times(1)).countFallbackToPending();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testDispatchPendingRequests_MinimisesTotalTravelDistance() {
+        // Arrange - the older request is closest to the unit the newer one needs most
+        Request older = pendingRequest(10L, 6.550, 3.360, LocalDateTime.now().minusMinutes(2));
+        Request newer = pendingRequest(11L, 6.550, 3.320, LocalDateTime.now());
+        Ambulance west = ambulanceAt(21L, 6.550, 3.350);
+        Ambulance east = ambulanceAt(22L, 6.550, 3.380);
+        when(requestRepository.findAllById(List.of(10L, 11L, 12L))).thenReturn(List.of(older, newer));
+        when(ambulanceService.getAvailableAmbulances(DispatchZone.of(6.55, 3.35))).thenReturn(List.of(west, east));
+        when(ambulanceService.reserveAmbulance(21L)).thenReturn(Optional.of(west));
+        when(ambulanceService.reserveAmbulance(22L)).thenReturn(Optional.of(east));
+        when(requestRepository.save(any(Request.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(serviceHistoryRepository.findByRequestId(anyLong())).thenReturn(Collections.emptyList());
+
+        // Act
+        Map<Long, RequestService.QueuedDispatchResult> results =
+                requestService.dispatchPendingRequests(List.of(10L, 11L, 12L));
+
+        // Assert
+        assertEquals(RequestService.QueuedDispatchResult.DISPATCHED, results.get(10L), "Older request should be dispatched");
+        assertEquals(RequestService.QueuedDispatchResult.DISPATCHED, results.get(11L), "Newer request should be dispatched");
+        assertEquals(RequestService.QueuedDispatchResult.NOT_PENDING, results.get(12L), "Unknown request should be dropped");
+        assertEquals(east, older.getAmbulance(), "Older request should take the unit to the east");
+        assertEquals(west, newer.getAmbulance(), "Newer request should take the unit to the west");
+        verify(ambulanceService, never()).getNearestAvailableAmbulance(anyDouble(), anyDouble());
+        verify(ambulanceService, never()).getAvailableAmbulances();
+    }
+
+    @Test
+    void testDispatchPendingRequests_ServesMostUrgentWhenUnitsAreShort() {
+        // Arrange
+        Request routine = pendingRequest(10L, 6.550, 3.360, LocalDateTime.now().minusMinutes(2));
+        Request critical = pendingRequest(11L, 6.580, 3.390, LocalDateTime.now());
+        critical.setPriority(RequestPriority.CRITICAL);
+        Ambulance unit = ambulanceAt(21L, 6.550, 3.350);
+        when(requestRepository.findAllById(List.of(10L, 11L))).thenReturn(List.of(routine, critical));
+        when(ambulanceService.getAvailableAmbulances(DispatchZone.of(6.55, 3.35))).thenReturn(List.of(unit));
+        when(ambulanceService.reserveAmbulance(21L)).thenReturn(Optional.of(unit));
+        when(requestRepository.save(any(Request.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(serviceHistoryRepository.findByRequestId(anyLong())).thenReturn(Collections.emptyList());
+
+        // Act
+        Map<Long, RequestService.QueuedDispatchResult> results =
+                requestService.dispatchPendingRequests(List.of(10L, 11L));
+
+        // Assert
+        assertEquals(RequestService.QueuedDispatchResult.DISPATCHED, results.get(11L), "Critical request should be served");
+        assertEquals(RequestService.QueuedDispatchResult.NO_AMBULANCE, results.get(10L), "Routine request should wait");
+        assertEquals(RequestStatus.PENDING, routine.getStatus(), "Routine request should stay pending");
+    }
+
+    @Test
+    void testDispatchPendingRequests_BorrowsOnlyWhenZoneIsEmpty() {
+        // Arrange - the unit in the other zone is closer, but the home zone still has one of its own
+        Request local = pendingRequest(10L, 6.550, 3.360, LocalDateTime.now().minusMinutes(2));
+        Request stranded = pendingRequest(11L, 6.450, 3.250, LocalDateTime.now());
+        Ambulance homeUnit = ambulanceAt(21L, 6.590, 3.310);
+        Ambulance borrowed = ambulanceAt(22L, 6.600, 3.400);
+        when(requestRepository.findAllById(List.of(10L, 11L))).thenReturn(List.of(local, stranded));
+        when(ambulanceService.getAvailableAmbulances(any(DispatchZone.class))).thenReturn(Collections.emptyList());
+        when(ambulanceService.getAvailableAmbulances(DispatchZone.of(6.55, 3.36))).thenReturn(List.of(homeUnit));
+        when(ambulanceService.getAvailableAmbulances()).thenReturn(List.of(borrowed));
+        when(ambulanceService.reserveAmbulance(21L)).thenReturn(Optional.of(homeUnit));
+        when(ambulanceService.reserveAmbulance(22L)).thenReturn(Optional.of(borrowed));
+        when(requestRepository.save(any(Request.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(serviceHistoryRepository.findByRequestId(anyLong())).thenReturn(Collections.emptyList());
+
+        // Act
+        Map<Long, RequestService.QueuedDispatchResult> results =
+                requestService.dispatchPendingRequests(List.of(10L, 11L));
+
+        // Assert
+        assertEquals(RequestService.QueuedDispatchResult.DISPATCHED, results.get(10L));
+        assertEquals(RequestService.QueuedDispatchResult.DISPATCHED, results.get(11L));
+        assertEquals(homeUnit, local.getAmbulance(), "Request should be served from its own zone first");
+        assertEquals(borrowed, stranded.getAmbulance(), "Request in an empty zone should borrow a unit");
+    }
+
+    @Test
+    void testDispatchPendingRequests_FailedClaimDoesNotHoldUpTheBatch() {
+        // Arrange - the unit planned for the critical request cannot be reserved
+        Request critical = pendingRequest(10L, 6.550, 3.360, LocalDateTime.now());
+        critical.setPriority(RequestPriority.CRITICAL);
+        Request routine = pendingRequest(11L, 6.590, 3.390, LocalDateTime.now().minusMinutes(2));
+        Ambulance near = ambulanceAt(21L, 6.550, 3.360);
+        Ambulance far = ambulanceAt(22L, 6.590, 3.390);
+        when(requestRepository.findAllById(List.of(10L, 11L))).thenReturn(List.of(critical, routine));
+        when(ambulanceService.getAvailableAmbulances(DispatchZone.of(6.55, 3.36))).thenReturn(List.of(near, far));
+        when(ambulanceService.reserveAmbulance(21L)).thenThrow(new IllegalStateException("Database unavailable"));
+        when(ambulanceService.reserveAmbulance(22L)).thenReturn(Optional.of(far));
+        when(requestRepository.save(any(Request.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(serviceHistoryRepository.findByRequestId(anyLong())).thenReturn(Collections.emptyList());
+
+        // Act
+        Map<Long, RequestService.QueuedDispatchResult> results =
+                requestService.dispatchPendingRequests(List.of(10L, 11L));
+
+        // Assert
+        assertEquals(RequestService.QueuedDispatchResult.FAILED, results.get(10L));
+        assertEquals(RequestService.QueuedDispatchResult.DISPATCHED, results.get(11L),
+                "The rest of the batch should be dispatched despite the failure");
+        assertEquals(far, routine.getAmbulance());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void testCreateRequests_DispatchesBatchInOneRoundAndQueuesTheRest() {
+        // Arrange - two casualties at the same incident, one free unit nearby
+        AmbulanceRequestDto critical = batchItem("+1234567801", RequestPriority.CRITICAL);
+        AmbulanceRequestDto minor = batchItem("+1234567802", RequestPriority.LOW);
+        Ambulance unit = ambulanceAt(21L, 6.550, 3.350);
+        when(patientService.findOrCreatePatients(anyList())).thenReturn(Map.of(
+                "+1234567801", testPatient, "+1234567802", testPatient));
+        when(ambulanceService.getAvailableAmbulances(DispatchZone.of(6.55, 3.36))).thenReturn(List.of(unit));
+        when(ambulanceService.reserveAmbulance(21L)).thenReturn(Optional.of(unit));
+        when(ambulanceService.getAvailableAmbulances()).thenReturn(Collections.emptyList());
+
+        // Act
+        List<Request> created = requestService.createRequests(List.of(minor, critical), testUser);
+
+        // Assert
+        assertEquals(2, created.size());
+        assertEquals(RequestStatus.PENDING, created.get(0).getStatus(), "Minor casualty should be queued");
+        assertEquals(RequestStatus.DISPATCHED, created.get(1).getStatus(), "Critical casualty should be served");
+        assertEquals(unit, created.get(1).getAmbulance());
+        assertEquals(6.550, created.get(1).getDispatchLatitude(), "Dispatch should note where the unit set out from");
+        verify(requestRepository, times(1)).saveAll(created);
+        verify(requestRepository, never()).save(any(Request.class));
+        verify(patientService, never()).findOrCreatePatient(anyString(), anyString(), anyString());
+        verify(eventPublisher, times(1)).publishEvent(any(RequestQueuedEvent.class));
     }
 
     @Test
@@ -190,7 +380,9 @@ class RequestServiceTest {
         // Verify ambulance is made available when request is completed
         verify(ambulanceService, times(1)).updateAmbulanceStatus(1L, AvailabilityStatus.AVAILABLE);
         verify(requestRepository, times(1)).save(existingRequest);
-        verify(statusHistoryRepository, times(1)).save(any(RequestStatusHistory.class));
+        verify(statusHistoryWriter, times(1)).record(any(RequestStatusHistory.class));
+        verify(requestEventOutbox, times(1)).append(argThat(history ->
+                history.getOldStatus() == RequestStatus.DISPATCHED && history.getNewStatus() == RequestStatus.COMPLETED));
     }
 
     @Test
@@ -208,7 +400,8 @@ class RequestServiceTest {
         assertEquals("Request not found with id: 999", exception.getMessage());
         verify(requestRepository, never()).save(any());
         verify(ambulanceService, never()).updateAmbulanceStatus(any(), any());
-        verify(statusHistoryRepository, never()).save(any());
+        verify(statusHistoryWriter, never()).record(any());
+        verify(requestEventOutbox, never()).append(any());
     }
 
     @Test
@@ -276,6 +469,37 @@ class RequestServiceTest {
         // Verify the service interactions
         verify(patientService).findOrCreatePatient(anyString(), eq("invalid-phone"), anyString());
         verify(ambulanceService).getNextAvailableAmbulance();
-        verify(requestRepository, times(2)).save(any(Request.class)); // Expect 2 saves
+        verify(requestRepository, times(1)).save(any(Request.class)); // Saved once in its final state
+    }
+
+    private AmbulanceRequestDto batchItem(String contact, RequestPriority priority) {
+        AmbulanceRequestDto dto = new AmbulanceRequestDto("Dispatcher", "Casualty", contact,
+                "Motorway junction 4", "Multi-vehicle collision", "");
+        dto.setLatitude(6.550);
+        dto.setLongitude(3.360);
+        dto.setPriority(priority);
+        return dto;
+    }
+
+    private Request pendingRequest(Long id, double latitude, double longitude, LocalDateTime requestTime) {
+        Request request = new Request("Caller " + id, "+1234567890", "Location " + id, "Test emergency");
+        request.setId(id);
+        request.setLatitude(latitude);
+        request.setLongitude(longitude);
+        request.setRequestTime(requestTime);
+        request.setStatus(RequestStatus.PENDING);
+        // Queued dispatch reloads each request in the transaction that claims it
+        lenient().when(requestRepository.findById(id)).thenReturn(Optional.of(request));
+        return request;
+    }
+
+    private Ambulance ambulanceAt(Long id, double latitude, double longitude) {
+        Ambulance ambulance = new Ambulance();
+        ambulance.setId(id);
+        ambulance.setLicensePlate("LAG-" + id);
+        ambulance.setLatitude(latitude);
+        ambulance.setLongitude(longitude);
+        ambulance.setAvailability(AvailabilityStatus.AVAILABLE);
+        return ambulance;
     }
-}
\ No newline at end of file
+}
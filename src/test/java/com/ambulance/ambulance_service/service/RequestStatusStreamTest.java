@@ -0,0 +1,151 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.RequestStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestStatusStreamTest {
+
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final SseFanout fanout = new SseFanout();
+    private RequestStatusStream stream;
+
+    @BeforeEach
+    void setUp() {
+        fanout.start();
+        stream = new RequestStatusStream(fanout) {
+            @Override
+            SseEmitter newEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        fanout.stop();
+    }
+
+    @Test
+    void testEvent_ReachesOnlyFollowersOfItsRequestAndUser() throws Exception {
+        // Arrange
+        stream.subscribeToRequest(7L, () -> Map.of("status", "PENDING"));
+        stream.subscribeToRequest(8L, () -> Map.of("status", "PENDING"));
+        stream.subscribeToUser(3L, List::of);
+        stream.subscribeToUser(4L, List::of);
+        for (RecordingEmitter emitter : emitters) {
+            assertNotNull(emitter.next(), "Every follower should get its snapshot first");
+        }
+
+        // Act
+        stream.onLifecycleEvent(event(1L, 7L, 3L));
+
+        // Assert
+        assertNotNull(emitters.get(0).next(), "Request follower should get the event");
+        assertNotNull(emitters.get(2).next(), "Owner should get the event");
+        assertNull(emitters.get(1).poll(), "Follower of another request should get nothing");
+        assertNull(emitters.get(3).poll(), "Another user should get nothing");
+    }
+
+    @Test
+    void testSlowSubscriber_DroppedWithoutBlockingOthers() throws Exception {
+        // Arrange - the first client's connection is stuck
+        CountDownLatch stuck = new CountDownLatch(1);
+        stream.subscribeToRequest(7L, Map::of);
+        stream.subscribeToRequest(8L, Map::of);
+        assertNotNull(emitters.get(1).next());
+        emitters.get(0).blockOn = stuck;
+
+        // Act
+        for (long sequence = 1; sequence <= 70; sequence++) {
+            stream.onLifecycleEvent(event(sequence, 7L, null));
+        }
+        stream.onLifecycleEvent(event(71L, 8L, null));
+
+        // Assert
+        assertNotNull(emitters.get(1).next(), "Another client should not wait for the stuck one");
+        assertEquals(1, stream.getSubscriberCount(), "Stuck client should have been dropped");
+        stuck.countDown();
+    }
+
+    @Test
+    void testChangeWhileSnapshotIsRead_StillPushed() throws Exception {
+        // Act - the request changes between registering the client and reading its state
+        stream.subscribeToRequest(7L, () -> {
+            stream.onLifecycleEvent(event(1L, 7L, null));
+            return Map.of("status", "DISPATCHED");
+        });
+
+        // Assert - the change is queued ahead of the snapshot, which already reflects it
+        String sent = emitters.get(0).nextText() + emitters.get(0).nextText();
+        assertTrue(sent.contains("id:1"), "The change should not be lost");
+        assertTrue(sent.contains("request-snapshot"), "The snapshot should still be sent");
+    }
+
+    @Test
+    void testNothingToFollow_NoFeedOpened() {
+        // Act
+        SseEmitter emitter = stream.subscribeToRequest(9L, () -> null);
+
+        // Assert
+        assertNull(emitter);
+        assertEquals(0, stream.getSubscriberCount());
+    }
+
+    private static RequestLifecycleEvent event(long sequence, Long requestId, Long userId) {
+        return new RequestLifecycleEvent(sequence, "STATUS_CHANGED", requestId, null, userId,
+                RequestStatus.PENDING, RequestStatus.DISPATCHED, null, "system", LocalDateTime.now());
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<Set<?>> sent = new LinkedBlockingQueue<>();
+        private volatile CountDownLatch blockOn;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            CountDownLatch latch = blockOn;
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent.add(builder.build());
+        }
+
+        Set<?> next() throws InterruptedException {
+            return sent.poll(1, TimeUnit.SECONDS);
+        }
+
+        String nextText() throws InterruptedException {
+            StringBuilder text = new StringBuilder();
+            Set<?> event = next();
+            assertNotNull(event, "An event should have been sent");
+            event.forEach(part -> text.append(((ResponseBodyEmitter.DataWithMediaType) part).getData()));
+            return text.toString();
+        }
+
+        Set<?> poll() throws InterruptedException {
+            return sent.poll(100, TimeUnit.MILLISECONDS);
+        }
+    }
+}
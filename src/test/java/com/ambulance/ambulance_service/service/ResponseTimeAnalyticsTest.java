@@ -0,0 +1,153 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.dto.ResponseTimeSummary;
+import com.ambulance.ambulance_service.entity.Ambulance;
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.entity.ServiceStatus;
+import com.ambulance.ambulance_service.repository.RequestRepository;
+import com.ambulance.ambulance_service.repository.ServiceHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResponseTimeAnalyticsTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private RequestRepository requestRepository;
+
+    @Mock
+    private ServiceHistoryRepository serviceHistoryRepository;
+
+    private ResponseTimeAnalytics analytics;
+
+    @BeforeEach
+    void setUp() {
+        analytics = new ResponseTimeAnalytics(requestRepository, serviceHistoryRepository);
+    }
+
+    @Test
+    void testSummarize_PercentilesOfDispatchDelay() {
+        // Arrange - 100 calls dispatched after 1..100 seconds
+        LocalDateTime call = TODAY.atTime(9, 0);
+        for (int seconds = 1; seconds <= 100; seconds++) {
+            assertTrue(analytics.record(ResponseTimeAnalytics.Stage.DISPATCH_DELAY, call, 1L, 6.55, 3.35,
+                    call, call.plusSeconds(seconds)));
+        }
+
+        // Act
+        ResponseTimeSummary all = analytics.summarize(ResponseTimeAnalytics.Stage.DISPATCH_DELAY, TODAY, TODAY, null)
+                .get("all");
+
+        // Assert
+        assertEquals(100, all.getCount());
+        assertEquals(50, all.getP50Seconds(), 1, "Median should be about 50s");
+        assertEquals(90, all.getP90Seconds(), 1, "p90 should be about 90s");
+        assertEquals(99, all.getP99Seconds(), 1, "p99 should be about 99s");
+        assertEquals(0, analytics.summarize(ResponseTimeAnalytics.Stage.TRAVEL, TODAY, TODAY, null).get("all").getCount(),
+                "Other stages should be untouched");
+    }
+
+    @Test
+    void testSummarize_BreaksDownByDayAmbulanceAndZone() {
+        // Arrange - unit 1 travels 5 minutes in one zone today, unit 2 travels 15 minutes elsewhere yesterday
+        LocalDateTime today = TODAY.atTime(10, 0);
+        LocalDateTime yesterday = today.minusDays(1);
+        analytics.record(ResponseTimeAnalytics.Stage.TRAVEL, today, 1L, 6.55, 3.35, today, today.plusMinutes(5));
+        analytics.record(ResponseTimeAnalytics.Stage.TRAVEL, yesterday, 2L, 6.75, 3.35, yesterday, yesterday.plusMinutes(15));
+
+        // Act
+        Map<String, ResponseTimeSummary> byDay =
+                analytics.summarize(ResponseTimeAnalytics.Stage.TRAVEL, TODAY.minusDays(1), TODAY, ResponseTimeAnalytics.Breakdown.DAY);
+        Map<String, ResponseTimeSummary> byAmbulance =
+                analytics.summarize(ResponseTimeAnalytics.Stage.TRAVEL, TODAY.minusDays(1), TODAY, ResponseTimeAnalytics.Breakdown.AMBULANCE);
+        Map<String, ResponseTimeSummary> byZone =
+                analytics.summarize(ResponseTimeAnalytics.Stage.TRAVEL, TODAY, TODAY, ResponseTimeAnalytics.Breakdown.ZONE);
+
+        // Assert
+        assertEquals(2, byDay.get("all").getCount());
+        assertEquals(300, byDay.get(TODAY.toString()).getMaxSeconds(), 3);
+        assertEquals(900, byAmbulance.get("2").getMaxSeconds(), 9);
+        assertEquals(2, byZone.size(), "Today's window should hold the total and one zone");
+        assertEquals(300, byZone.get("6.55,3.35").getP50Seconds(), 3);
+    }
+
+    @Test
+    void testRecord_IgnoresIncompleteAndImplausibleStages() {
+        // Arrange
+        LocalDateTime call = TODAY.atTime(11, 0);
+
+        // Act & Assert
+        assertFalse(analytics.record(ResponseTimeAnalytics.Stage.TRAVEL, call, 1L, null, null, null, call),
+                "Missing start");
+        assertFalse(analytics.record(ResponseTimeAnalytics.Stage.TRAVEL, call, 1L, null, null, call, call.minusMinutes(1)),
+                "Negative stage");
+        assertFalse(analytics.record(ResponseTimeAnalytics.Stage.ON_SCENE, call, 1L, null, null, call, call.plusDays(2)),
+                "Longer than a day");
+    }
+
+    @Test
+    void testLoadHistory_SkipsStagesOfCallsClosedWithoutArrival() {
+        // Arrange
+        LocalDateTime call = TODAY.atTime(12, 0);
+        Object[] dispatched = {call, call.plusMinutes(2), 1L, 6.55, 3.35};
+        Object[] completed = {call, call.plusMinutes(2), call.plusMinutes(10), call.plusMinutes(40),
+                ServiceStatus.COMPLETED, 1L, 6.55, 3.35};
+        Object[] closedWithoutArrival = {call, call.plusMinutes(2), call.plusMinutes(30), call.plusMinutes(30),
+                ServiceStatus.CANCELLED, 1L, 6.55, 3.35};
+        when(requestRepository.findDispatchTimesSince(any(LocalDateTime.class))).thenReturn(rows(dispatched));
+        when(serviceHistoryRepository.findTripStagesSince(any(LocalDateTime.class)))
+                .thenReturn(rows(completed, closedWithoutArrival));
+
+        // Act
+        analytics.loadHistory();
+
+        // Assert
+        assertEquals(1, count(ResponseTimeAnalytics.Stage.DISPATCH_DELAY));
+        assertEquals(1, count(ResponseTimeAnalytics.Stage.TRAVEL));
+        assertEquals(1, count(ResponseTimeAnalytics.Stage.ON_SCENE));
+        assertEquals(1800, analytics.summarize(ResponseTimeAnalytics.Stage.ON_SCENE, TODAY, TODAY, null)
+                .get("all").getMaxSeconds(), 18);
+    }
+
+    @Test
+    void testRecordArrival_UsesDispatchTimeOfRequest() {
+        // Arrange
+        Ambulance ambulance = new Ambulance();
+        ambulance.setId(4L);
+        Request request = new Request();
+        request.setRequestTime(TODAY.atTime(13, 0));
+        request.setDispatchTime(TODAY.atTime(13, 1));
+        request.setAmbulance(ambulance);
+
+        // Act
+        analytics.recordArrival(request, TODAY.atTime(13, 9));
+
+        // Assert
+        ResponseTimeSummary unit = analytics.summarize(ResponseTimeAnalytics.Stage.TRAVEL, TODAY, TODAY,
+                ResponseTimeAnalytics.Breakdown.AMBULANCE).get("4");
+        assertEquals(480, unit.getMaxSeconds(), 5);
+    }
+
+    private long count(ResponseTimeAnalytics.Stage stage) {
+        return analytics.summarize(stage, TODAY, TODAY, null).get("all").getCount();
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
@@ -8,9 +8,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -25,6 +29,15 @@ class ServiceHistoryServiceTest {
     @Mock
     private ServiceHistoryRepository serviceHistoryRepository;
 
+    @Mock
+    private EtaModel etaModel;
+
+    @Mock
+    private ResponseTimeAnalytics responseTimeAnalytics;
+
+    @Spy
+    private Clock clock = Clock.fixed(Instant.parse("2025-03-01T08:30:00Z"), ZoneOffset.UTC);
+
     @InjectMocks
     private ServiceHistoryService serviceHistoryService;
 
@@ -131,6 +144,38 @@ class ServiceHistoryServiceTest {
         assertEquals(notes, result.getNotes(), "Notes should be updated");
     }
 
+    @Test
+    void testUpdateServiceStatus_StampsArrivalFromClock() {
+        // Arrange
+        testServiceHistory.setStatus(ServiceStatus.IN_PROGRESS);
+        when(serviceHistoryRepository.findByRequestId(1L)).thenReturn(List.of(testServiceHistory));
+
+        // Act
+        serviceHistoryService.updateServiceStatus(1L, ServiceStatus.ARRIVED, "On scene");
+
+        // Assert
+        LocalDateTime clockTime = LocalDateTime.of(2025, 3, 1, 8, 30);
+        assertEquals(clockTime, testServiceHistory.getArrivalTime(), "Arrival should be stamped with the injected clock");
+        verify(responseTimeAnalytics).recordArrival(testRequest, clockTime);
+    }
+
+    @Test
+    void testUpdateServiceStatus_RepeatedArrivalCountedOnce() {
+        // Arrange - the unit left the scene and is reported there again
+        LocalDateTime firstArrival = LocalDateTime.of(2025, 3, 1, 8, 10);
+        testServiceHistory.setStatus(ServiceStatus.IN_PROGRESS);
+        testServiceHistory.setArrivalTime(firstArrival);
+        when(serviceHistoryRepository.findByRequestId(1L)).thenReturn(List.of(testServiceHistory));
+
+        // Act
+        serviceHistoryService.updateServiceStatus(1L, ServiceStatus.ARRIVED, "Back on scene");
+
+        // Assert
+        assertEquals(firstArrival, testServiceHistory.getArrivalTime(), "The first arrival should be kept");
+        verify(etaModel, never()).recordArrival(any(), any());
+        verify(responseTimeAnalytics, never()).recordArrival(any(), any());
+    }
+
     @Test
     void testUpdateServiceHistory_NotFound() {
         // Arrange
@@ -0,0 +1,110 @@
+package com.ambulance.ambulance_service.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseFanoutTest {
+
+    private final SseFanout fanout = new SseFanout(Duration.ofMillis(200));
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        fanout.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        fanout.stop();
+    }
+
+    @Test
+    void testStalledClients_DoNotHoldUpOthers() throws Exception {
+        // Arrange - more stalled connections than the pool has core threads, none of which give way to an interrupt
+        List<CountDownLatch> stalledClosed = new ArrayList<>();
+        List<SseFanout.Subscriber> stalled = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            CountDownLatch closed = new CountDownLatch(1);
+            stalledClosed.add(closed);
+            stalled.add(fanout.open(new StalledEmitter(false), 8, subscriber -> closed.countDown()));
+        }
+        RecordingEmitter healthy = new RecordingEmitter();
+        SseFanout.Subscriber healthySubscriber = fanout.open(healthy, 8, subscriber -> { });
+
+        // Act
+        stalled.forEach(subscriber -> subscriber.offer(() -> SseEmitter.event().data("update")));
+        healthySubscriber.offer(() -> SseEmitter.event().data("update"));
+
+        // Assert
+        assertNotNull(healthy.sent.poll(1, TimeUnit.SECONDS), "A healthy client should not wait for stalled ones");
+        for (CountDownLatch closed : stalledClosed) {
+            assertTrue(closed.await(2, TimeUnit.SECONDS), "A client stuck on a send should be dropped");
+        }
+        assertTrue(healthySubscriber.isOpen());
+    }
+
+    @Test
+    void testStalledClient_InterruptedWriteFreesThread() throws Exception {
+        // Arrange
+        StalledEmitter emitter = new StalledEmitter(true);
+        CountDownLatch closed = new CountDownLatch(1);
+        SseFanout.Subscriber subscriber = fanout.open(emitter, 8, dropped -> closed.countDown());
+
+        // Act
+        subscriber.offer(() -> SseEmitter.event().data("update"));
+
+        // Assert
+        assertTrue(closed.await(2, TimeUnit.SECONDS), "A client stuck on a send should be dropped");
+        assertTrue(emitter.interrupted.await(2, TimeUnit.SECONDS), "The blocked write should be interrupted");
+        assertFalse(subscriber.isOpen());
+    }
+
+    private final class StalledEmitter extends SseEmitter {
+        private final boolean interruptible;
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        StalledEmitter(boolean interruptible) {
+            this.interruptible = interruptible;
+        }
+
+        // Blocks like a write to a connection whose client stopped reading
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            while (true) {
+                try {
+                    release.await();
+                    return;
+                } catch (InterruptedException e) {
+                    if (interruptible) {
+                        interrupted.countDown();
+                        throw new InterruptedIOException("Write interrupted");
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<SseEventBuilder> sent = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.add(builder);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.entity.Request;
+import com.ambulance.ambulance_service.entity.RequestStatus;
+import com.ambulance.ambulance_service.entity.RequestStatusHistory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatusHistoryWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StatusHistoryWriter writer;
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+                    Collection<?> rows = invocation.getArgument(1);
+                    synchronized (batchSizes) {
+                        batchSizes.add(rows.size());
+                    }
+                    return new int[][] {};
+                });
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new StatusHistoryWriter(jdbcTemplate, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.stop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testRowsInTransaction_WrittenAsOneBatchBeforeCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        writer.record(history(1L, null, RequestStatus.PENDING));
+        writer.record(history(1L, RequestStatus.PENDING, RequestStatus.DISPATCHED));
+        writer.record(history(1L, RequestStatus.DISPATCHED, RequestStatus.ARRIVED));
+
+        // Assert - nothing is written until the transaction commits
+        verifyNoInteractions(jdbcTemplate);
+        assertEquals(3, writer.getBufferDepth(), "Rows should be counted while waiting for the commit");
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(sync -> sync.beforeCommit(false));
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertEquals(List.of(3), batchSizes, "All rows of the transaction should go in one batch");
+        assertEquals(0, writer.getBufferDepth(), "Nothing should be left once the transaction completes");
+        assertEquals(1, meterRegistry.get("ambulance.status_history.flush").timer().count());
+    }
+
+    @Test
+    void testRowsInRolledBackTransaction_AreNotWritten() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        writer.record(history(1L, null, RequestStatus.PENDING));
+
+        // Act
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate);
+        assertEquals(0, writer.getBufferDepth());
+    }
+
+    @Test
+    void testRowsOutsideTransaction_FlushedInBatchesByBackgroundThread() {
+        // Arrange
+        writer.start();
+
+        // Act
+        for (long id = 1; id <= 450; id++) {
+            writer.record(history(id, RequestStatus.DISPATCHED, RequestStatus.COMPLETED));
+        }
+
+        // Assert
+        verify(jdbcTemplate, timeout(2000).atLeast(3)).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        synchronized (batchSizes) {
+            assertEquals(450, batchSizes.stream().mapToInt(Integer::intValue).sum(), "Every row should be written");
+            assertTrue(batchSizes.stream().allMatch(size -> size <= 200), "Batches should be capped");
+        }
+    }
+
+    @Test
+    void testStop_WritesBufferedRows() {
+        // Arrange - the background thread is never started
+        writer.record(history(1L, RequestStatus.DISPATCHED, RequestStatus.COMPLETED));
+        writer.record(history(2L, RequestStatus.DISPATCHED, RequestStatus.CANCELLED));
+        assertEquals(2, meterRegistry.get("ambulance.status_history.buffer.depth").gauge().value());
+
+        // Act
+        writer.stop();
+
+        // Assert
+        assertEquals(List.of(2), batchSizes, "Buffered rows should be written on shutdown");
+        assertEquals(0, writer.getBufferDepth());
+    }
+
+    @Test
+    void testRecord_RejectsUnsavedRequest() {
+        assertThrows(IllegalArgumentException.class,
+                () -> writer.record(new RequestStatusHistory(new Request(), null, RequestStatus.PENDING, "note", "system")));
+    }
+
+    private static RequestStatusHistory history(Long requestId, RequestStatus oldStatus, RequestStatus newStatus) {
+        Request request = new Request();
+        request.setId(requestId);
+        return new RequestStatusHistory(request, oldStatus, newStatus, "Status changed", "system");
+    }
+}
@@ -0,0 +1,103 @@
+package com.ambulance.ambulance_service.service;
+
+import com.ambulance.ambulance_service.dto.PositionPing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TelemetryServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.now().minusMinutes(10);
+
+    @Mock
+    private AmbulanceService ambulanceService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private TelemetryService telemetryService;
+
+    @BeforeEach
+    void setUp() {
+        telemetryService = new TelemetryService(ambulanceService, jdbcTemplate);
+    }
+
+    @Test
+    void testIngest_KeepsRecentPingsInOrderAndMovesTheUnit() {
+        // Arrange
+        when(ambulanceService.updatePosition(eq(1L), anyDouble(), anyDouble())).thenReturn(true);
+
+        // Act - one ping a second for longer than the ring holds
+        int pings = TelemetryService.TRACK_SIZE + 30;
+        for (int i = 0; i < pings; i++) {
+            assertTrue(telemetryService.ingest(ping(1L, 6.50 + i * 0.0001, START.plusSeconds(i))));
+        }
+
+        // Assert
+        List<PositionPing> track = telemetryService.getTrack(1L);
+        assertEquals(TelemetryService.TRACK_SIZE, track.size(), "Ring should keep only the newest pings");
+        assertEquals(START.plusSeconds(30), track.get(0).getRecordedAt(), "Oldest pings should be overwritten first");
+        assertEquals(START.plusSeconds(pings - 1), telemetryService.getLatestPosition(1L).orElseThrow().getRecordedAt());
+        verify(ambulanceService, times(pings)).updatePosition(eq(1L), anyDouble(), anyDouble());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testIngest_RejectsOutOfOrderMalformedAndUnknown() {
+        // Arrange
+        when(ambulanceService.updatePosition(eq(1L), anyDouble(), anyDouble())).thenReturn(true);
+        when(ambulanceService.updatePosition(eq(2L), anyDouble(), anyDouble())).thenReturn(false);
+        telemetryService.ingest(ping(1L, 6.50, START.plusSeconds(5)));
+
+        // Act & Assert
+        assertFalse(telemetryService.ingest(ping(1L, 6.51, START)), "Older ping should not replace the latest");
+        assertFalse(telemetryService.ingest(ping(1L, 96.0, START.plusSeconds(6))), "Latitude out of range");
+        assertFalse(telemetryService.ingest(ping(1L, 6.51, LocalDateTime.now().plusHours(1))), "Fix from the future");
+        assertFalse(telemetryService.ingest(ping(2L, 6.51, START)), "Unknown unit");
+        assertEquals(1, telemetryService.getTrack(1L).size());
+        assertTrue(telemetryService.getLatestPosition(2L).isEmpty(), "Unknown unit should not keep a track");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WritesOnlyUnitsThatMovedInOneBatch() {
+        // Arrange
+        when(ambulanceService.updatePosition(anyLong(), anyDouble(), anyDouble())).thenReturn(true);
+        telemetryService.ingest(ping(1L, 6.50, START));
+        telemetryService.ingest(ping(2L, 6.60, START));
+        assertEquals(2, telemetryService.flush());
+        reset(jdbcTemplate);
+
+        // Unit 1 drives about 1 km, unit 2 creeps about 10 m
+        telemetryService.ingestAll(List.of(
+                ping(1L, 6.509, START.plusSeconds(60)),
+                ping(2L, 6.6001, START.plusSeconds(60))));
+
+        // Act
+        int written = telemetryService.flush();
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+        assertEquals(1, written);
+        assertEquals(1, rows.getValue().size(), "Only the unit that moved should be written");
+        assertArrayEquals(new Object[] {6.509, 3.40, 1L}, rows.getValue().get(0));
+        assertEquals(0, telemetryService.flush(), "Nothing left to write after a flush");
+    }
+
+    private static PositionPing ping(Long ambulanceId, double latitude, LocalDateTime recordedAt) {
+        return new PositionPing(ambulanceId, latitude, 3.40, recordedAt);
+    }
+}